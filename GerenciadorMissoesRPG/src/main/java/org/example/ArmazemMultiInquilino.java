@@ -0,0 +1,514 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Armazém de quadros de missões por inquilino (jogador ou guilda).
+ *
+ * A maioria dos quadros tem poucas missões, então cada quadro começa como
+ * dois vetores ordenados (níveis e descrições) com busca binária, sem um Node
+ * por missão. Ao passar de LIMITE_PROMOCAO missões o quadro é promovido
+ * para uma ArvoreAVL (pela carga em massa, sem rotações).
+ *
+ * Os quadros residentes ficam em uma tabela hash de endereçamento aberto e em
+ * uma lista LRU intrusiva (sem objetos de entrada nem Long). Acima de
+ * maxResidentes, o quadro menos usado recentemente é despejado em um arquivo
+ * temporário (só acréscimo) e recarregado no próximo acesso; em memória fica
+ * apenas seu deslocamento no arquivo (16 bytes por posição do índice).
+ * Quando os registros mortos (já recarregados) passam dos vivos, o arquivo
+ * é compactado.
+ */
+public class ArmazemMultiInquilino implements Closeable {
+    static final int LIMITE_PROMOCAO = 32;
+    private static final long COMPACTACAO_MINIMA = 1 << 20;   // Não compactar arquivos pequenos
+
+    /**
+     * Quadro de missões de um inquilino
+     */
+    static final class Quadro {
+        final long inquilino;
+        Quadro anterior;        // Lista LRU (mais recente no início)
+        Quadro proximo;
+
+        int[] niveis;           // Representação compacta (null após a promoção)
+        String[] missoes;
+        int quantidade;
+        ArvoreAVL arvore;       // Representação em árvore (após a promoção)
+
+        Quadro(long inquilino) {
+            this.inquilino = inquilino;
+            this.niveis = new int[2];
+            this.missoes = new String[2];
+        }
+
+        int total() {
+            return (arvore != null) ? arvore.getTotalMissoes() : quantidade;
+        }
+
+        private int indice(int nivel) {
+            return Arrays.binarySearch(niveis, 0, quantidade, nivel);
+        }
+
+        void inserir(int nivel, String missao) {
+            if (arvore != null) {
+                arvore.inserir(nivel, missao);
+                return;
+            }
+            int i = indice(nivel);
+            if (i >= 0) {
+                missoes[i] = missao;
+                return;
+            }
+            if (quantidade == LIMITE_PROMOCAO) {
+                promover();
+                arvore.inserir(nivel, missao);
+                return;
+            }
+            i = -i - 1;
+            if (quantidade == niveis.length) {
+                int capacidade = Math.min(LIMITE_PROMOCAO, quantidade * 2);
+                niveis = Arrays.copyOf(niveis, capacidade);
+                missoes = Arrays.copyOf(missoes, capacidade);
+            }
+            System.arraycopy(niveis, i, niveis, i + 1, quantidade - i);
+            System.arraycopy(missoes, i, missoes, i + 1, quantidade - i);
+            niveis[i] = nivel;
+            missoes[i] = missao;
+            quantidade++;
+        }
+
+        /**
+         * Converte os vetores ordenados em árvore pela carga em massa
+         */
+        private void promover() {
+            arvore = new ArvoreAVL();
+            arvore.carregarOrdenado(niveis, missoes, quantidade);
+            niveis = null;
+            missoes = null;
+            quantidade = 0;
+        }
+
+        String buscar(int nivel) {
+            if (arvore != null) {
+                return arvore.buscar(nivel);
+            }
+            int i = indice(nivel);
+            return (i >= 0) ? String.format("[Nível %d] %s", nivel, missoes[i]) : null;
+        }
+
+        boolean remover(int nivel) {
+            if (arvore != null) {
+                return arvore.remover(nivel);
+            }
+            int i = indice(nivel);
+            if (i < 0) {
+                return false;
+            }
+            quantidade--;
+            System.arraycopy(niveis, i + 1, niveis, i, quantidade - i);
+            System.arraycopy(missoes, i + 1, missoes, i, quantidade - i);
+            missoes[quantidade] = null;
+            return true;
+        }
+
+        String listarEmOrdem() {
+            if (arvore != null) {
+                return arvore.listarEmOrdem();
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < quantidade; i++) {
+                sb.append(String.format("[Nível %d] %s", niveis[i], missoes[i])).append("\n");
+            }
+            return sb.toString();
+        }
+    }
+
+    private final int maxResidentes;
+    private final Path arquivoDisco;
+
+    // Quadros residentes: tabela hash (sondagem linear) + lista LRU
+    private Quadro[] tabela;
+    private int residentes;
+    private Quadro maisRecente;
+    private Quadro menosRecente;
+
+    // Quadros despejados: inquilino -> deslocamento do registro no arquivo
+    private final TabelaLongLong indiceDisco;
+    private FileChannel canalDisco;
+    private long tamanhoDisco;
+    private long bytesVivos;
+    private ByteBuffer bufferDisco;
+
+    /**
+     * Construtor do armazém
+     * @param maxResidentes Máximo de quadros em memória antes de despejar em disco
+     * @param arquivoDisco Arquivo temporário de despejo (apagado no close)
+     */
+    public ArmazemMultiInquilino(int maxResidentes, Path arquivoDisco) {
+        if (maxResidentes < 1) {
+            throw new IllegalArgumentException("maxResidentes deve ser positivo");
+        }
+        this.maxResidentes = maxResidentes;
+        this.arquivoDisco = arquivoDisco;
+        this.tabela = new Quadro[16];
+        this.indiceDisco = new TabelaLongLong(16);
+        this.bufferDisco = ByteBuffer.allocate(4096);
+    }
+
+    // ==================== OPERAÇÕES ====================
+
+    /**
+     * Insere (ou atualiza) uma missão no quadro do inquilino
+     */
+    public void inserir(long inquilino, int nivel, String missao) {
+        Quadro quadro = obter(inquilino, true);
+        quadro.inserir(nivel, missao);
+    }
+
+    /**
+     * Busca uma missão no quadro do inquilino
+     * @return String com a missão ou null se não encontrar
+     */
+    public String buscar(long inquilino, int nivel) {
+        Quadro quadro = obter(inquilino, false);
+        return (quadro != null) ? quadro.buscar(nivel) : null;
+    }
+
+    /**
+     * Remove uma missão do quadro do inquilino (quadros vazios são descartados)
+     * @return true se removeu, false se não encontrou
+     */
+    public boolean remover(long inquilino, int nivel) {
+        Quadro quadro = obter(inquilino, false);
+        if (quadro == null || !quadro.remover(nivel)) {
+            return false;
+        }
+        if (quadro.total() == 0) {
+            descartar(quadro);
+        }
+        return true;
+    }
+
+    /**
+     * Lista as missões do inquilino em ordem crescente de nível
+     */
+    public String listarEmOrdem(long inquilino) {
+        Quadro quadro = obter(inquilino, false);
+        return (quadro != null) ? quadro.listarEmOrdem() : "";
+    }
+
+    /**
+     * Retorna o total de missões do inquilino
+     */
+    public int getTotalMissoes(long inquilino) {
+        Quadro quadro = obter(inquilino, false);
+        return (quadro != null) ? quadro.total() : 0;
+    }
+
+    /**
+     * Remove todas as missões do inquilino
+     */
+    public void limpar(long inquilino) {
+        Quadro quadro = obter(inquilino, false);
+        if (quadro != null) {
+            descartar(quadro);
+        }
+    }
+
+    public int getInquilinosResidentes() {
+        return residentes;
+    }
+
+    public int getInquilinosEmDisco() {
+        return indiceDisco.tamanho();
+    }
+
+    public long getBytesEmDisco() {
+        return tamanhoDisco;
+    }
+
+    // ==================== TABELA DE RESIDENTES ====================
+
+    private int posicao(long inquilino) {
+        int mascara = tabela.length - 1;
+        int i = TabelaLongLong.espalhar(inquilino) & mascara;
+        while (tabela[i] != null && tabela[i].inquilino != inquilino) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void adicionarNaTabela(Quadro quadro) {
+        if ((residentes + 1) * 4L > tabela.length * 3L) {
+            Quadro[] antiga = tabela;
+            tabela = new Quadro[antiga.length * 2];
+            for (Quadro q : antiga) {
+                if (q != null) {
+                    tabela[posicao(q.inquilino)] = q;
+                }
+            }
+        }
+        tabela[posicao(quadro.inquilino)] = quadro;
+        residentes++;
+    }
+
+    private void removerDaTabela(Quadro quadro) {
+        int mascara = tabela.length - 1;
+        int vazia = posicao(quadro.inquilino);
+        int j = (vazia + 1) & mascara;
+        while (tabela[j] != null) {
+            int ideal = TabelaLongLong.espalhar(tabela[j].inquilino) & mascara;
+            if (((j - ideal) & mascara) >= ((j - vazia) & mascara)) {
+                tabela[vazia] = tabela[j];
+                vazia = j;
+            }
+            j = (j + 1) & mascara;
+        }
+        tabela[vazia] = null;
+        residentes--;
+    }
+
+    // ==================== LISTA LRU ====================
+
+    private void desencadear(Quadro quadro) {
+        if (quadro.anterior != null) {
+            quadro.anterior.proximo = quadro.proximo;
+        } else {
+            maisRecente = quadro.proximo;
+        }
+        if (quadro.proximo != null) {
+            quadro.proximo.anterior = quadro.anterior;
+        } else {
+            menosRecente = quadro.anterior;
+        }
+        quadro.anterior = null;
+        quadro.proximo = null;
+    }
+
+    private void encadearNoInicio(Quadro quadro) {
+        quadro.proximo = maisRecente;
+        if (maisRecente != null) {
+            maisRecente.anterior = quadro;
+        }
+        maisRecente = quadro;
+        if (menosRecente == null) {
+            menosRecente = quadro;
+        }
+    }
+
+    /**
+     * Localiza o quadro do inquilino, recarregando-o do disco se necessário
+     * @param criar Cria um quadro vazio se o inquilino não existir
+     */
+    private Quadro obter(long inquilino, boolean criar) {
+        Quadro quadro = tabela[posicao(inquilino)];
+        if (quadro != null) {
+            if (quadro != maisRecente) {
+                desencadear(quadro);
+                encadearNoInicio(quadro);
+            }
+            return quadro;
+        }
+
+        long deslocamento = indiceDisco.remover(inquilino);
+        if (deslocamento != Long.MIN_VALUE) {
+            quadro = lerDoDisco(inquilino, deslocamento);
+        } else if (criar) {
+            quadro = new Quadro(inquilino);
+        } else {
+            return null;
+        }
+
+        adicionarNaTabela(quadro);
+        encadearNoInicio(quadro);
+        while (residentes > maxResidentes) {
+            despejar(menosRecente);
+        }
+        return quadro;
+    }
+
+    private void descartar(Quadro quadro) {
+        desencadear(quadro);
+        removerDaTabela(quadro);
+    }
+
+    // ==================== DESPEJO EM DISCO ====================
+
+    private void garantirBuffer(int bytes) {
+        if (bufferDisco.remaining() < bytes) {
+            ByteBuffer maior = ByteBuffer.allocate(Math.max(bufferDisco.capacity() * 2, bufferDisco.position() + bytes));
+            bufferDisco.flip();
+            maior.put(bufferDisco);
+            bufferDisco = maior;
+        }
+    }
+
+    private void escreverMissao(int nivel, String missao) {
+        byte[] bytes = missao.getBytes(StandardCharsets.UTF_8);
+        garantirBuffer(8 + bytes.length);
+        bufferDisco.putInt(nivel).putInt(bytes.length).put(bytes);
+    }
+
+    private void escreverNos(Node node) {
+        if (node != null) {
+            escreverNos(node.esquerda);
+            escreverMissao(node.nivel, node.missao);
+            escreverNos(node.direita);
+        }
+    }
+
+    /**
+     * Grava o quadro no fim do arquivo e o remove da memória.
+     * Registro: [int bytes][long inquilino][int quantidade] + (nivel, tamanho, UTF-8)*
+     */
+    private void despejar(Quadro quadro) {
+        try {
+            if (canalDisco == null) {
+                canalDisco = FileChannel.open(arquivoDisco, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            bufferDisco.clear();
+            bufferDisco.putInt(0).putLong(quadro.inquilino).putInt(quadro.total());
+            if (quadro.arvore != null) {
+                escreverNos(quadro.arvore.getRaiz());
+            } else {
+                for (int i = 0; i < quadro.quantidade; i++) {
+                    escreverMissao(quadro.niveis[i], quadro.missoes[i]);
+                }
+            }
+            bufferDisco.putInt(0, bufferDisco.position());
+            bufferDisco.flip();
+
+            long deslocamento = tamanhoDisco;
+            long posicao = deslocamento;
+            while (bufferDisco.hasRemaining()) {
+                posicao += canalDisco.write(bufferDisco, posicao);
+            }
+            tamanhoDisco = posicao;
+            bytesVivos += posicao - deslocamento;
+
+            descartar(quadro);
+            indiceDisco.colocar(quadro.inquilino, deslocamento);
+
+            if (tamanhoDisco > COMPACTACAO_MINIMA && tamanhoDisco > 2 * bytesVivos) {
+                compactarDisco();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao despejar o inquilino " + quadro.inquilino, e);
+        }
+    }
+
+    /**
+     * Lê o tamanho do registro gravado no deslocamento
+     */
+    private int lerTamanho(long deslocamento) throws IOException {
+        bufferDisco.clear().limit(4);
+        lerCompleto(bufferDisco, deslocamento);
+        return bufferDisco.getInt(0);
+    }
+
+    /**
+     * Reescreve apenas os registros vivos em um arquivo novo e o troca pelo atual
+     */
+    private void compactarDisco() throws IOException {
+        Path temporario = arquivoDisco.resolveSibling(arquivoDisco.getFileName() + ".compactando");
+        long posicaoNova = 0;
+        try (FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < indiceDisco.capacidade(); i++) {
+                if (!indiceDisco.ocupada(i)) {
+                    continue;
+                }
+                long deslocamento = indiceDisco.valorEm(i);
+                int bytes = lerTamanho(deslocamento);
+                long copiados = 0;
+                while (copiados < bytes) {
+                    copiados += canalDisco.transferTo(deslocamento + copiados, bytes - copiados, novo);
+                }
+                indiceDisco.definirValorEm(i, posicaoNova);
+                posicaoNova += bytes;
+            }
+        }
+        canalDisco.close();
+        Files.move(temporario, arquivoDisco, StandardCopyOption.REPLACE_EXISTING);
+        canalDisco = FileChannel.open(arquivoDisco, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        tamanhoDisco = posicaoNova;
+        bytesVivos = posicaoNova;
+    }
+
+    private void lerCompleto(ByteBuffer destino, long posicao) throws IOException {
+        while (destino.hasRemaining()) {
+            int lidos = canalDisco.read(destino, posicao);
+            if (lidos < 0) {
+                throw new IOException("Fim inesperado do arquivo de despejo");
+            }
+            posicao += lidos;
+        }
+    }
+
+    private Quadro lerDoDisco(long inquilino, long deslocamento) {
+        try {
+            int bytes = lerTamanho(deslocamento);
+            bytesVivos -= bytes;
+            bufferDisco.clear();
+            garantirBuffer(bytes);
+            bufferDisco.limit(bytes);
+            lerCompleto(bufferDisco, deslocamento);
+            bufferDisco.flip();
+
+            bufferDisco.getInt();
+            if (bufferDisco.getLong() != inquilino) {
+                throw new IOException("Registro de despejo corrompido para o inquilino " + inquilino);
+            }
+            int quantidade = bufferDisco.getInt();
+            int[] niveis = new int[Math.max(2, quantidade)];
+            String[] missoes = new String[niveis.length];
+            for (int i = 0; i < quantidade; i++) {
+                niveis[i] = bufferDisco.getInt();
+                int tamanho = bufferDisco.getInt();
+                missoes[i] = new String(bufferDisco.array(), bufferDisco.position(), tamanho, StandardCharsets.UTF_8);
+                bufferDisco.position(bufferDisco.position() + tamanho);
+            }
+
+            Quadro quadro = new Quadro(inquilino);
+            if (quantidade > LIMITE_PROMOCAO) {
+                quadro.arvore = new ArvoreAVL();
+                quadro.arvore.carregarOrdenado(niveis, missoes, quantidade);
+                quadro.niveis = null;
+                quadro.missoes = null;
+            } else {
+                quadro.niveis = niveis;
+                quadro.missoes = missoes;
+                quadro.quantidade = quantidade;
+            }
+            return quadro;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao recarregar o inquilino " + inquilino, e);
+        }
+    }
+
+    /**
+     * Fecha e apaga o arquivo de despejo (os quadros despejados são perdidos)
+     */
+    @Override
+    public void close() throws IOException {
+        if (canalDisco != null) {
+            canalDisco.close();
+            canalDisco = null;
+            Files.deleteIfExists(arquivoDisco);
+        }
+        indiceDisco.limpar();
+        tamanhoDisco = 0;
+        bytesVivos = 0;
+    }
+}
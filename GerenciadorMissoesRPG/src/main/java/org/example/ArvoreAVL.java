@@ -1,12 +1,490 @@
 package org.example;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+
 public class ArvoreAVL {
     private Node raiz;
-    private int totalMissoes;
+    private int totalNiveis;         // Níveis distintos (nós da árvore)
+    private int missoesNosBaldes;    // Missões adicionais, além da principal de cada nível
+    private int proximaSequencia;    // Sequência do próximo id de missão
+    private int epocaAtual;   // Nós de épocas anteriores pertencem a versões congeladas
+    private long ultimaVersao;       // Identificador da última versão criada
+    private String missaoRemovida;   // Descrição da última missão removida
+    private int adicionaisRemovidas; // Missões adicionais que saíram com o último nível removido
+    private String missaoAnterior;   // Descrição encontrada pela última alteração (null se ausente)
+    private long idAdicionado;       // Id da missão criada pela última adição
+    private int efeitoAlteracao;     // SEM_MUDANCA, DESCRICAO ou FORMA
+    private int modificacoes;        // Conta nós criados ou tornados mutáveis (invalida cursores)
+    private long copiasNaEscrita;    // Nós copiados por pertencerem a uma versão congelada
+
+    // Cache de buscas repetidas (desativado até ativarCacheBuscas)
+    private int[] cacheNiveis;
+    private String[] cacheRespostas;
+    private boolean[] cacheOcupado;
+    private long acertosCache;
+    private long faltasCache;
+
+    // Efeito de uma alteração na subárvore, para decidir o que refazer na volta
+    private static final int SEM_MUDANCA = 0;   // Nada mudou: o caminho não é copiado
+    private static final int DESCRICAO = 1;     // Só uma descrição mudou: copia o caminho, sem rebalancear
+    private static final int FORMA = 2;         // Nó inserido ou removido: rebalanceia o caminho
+
+    private final List<OuvinteArvore> ouvintes;
+    private final List<EventoArvore> eventosPendentes;
+    private int profundidadeLote;
+
+    private RodaTemporizacao roda;   // Expirações agendadas (criada no primeiro uso)
 
     public ArvoreAVL() {
         this.raiz = null;
-        this.totalMissoes = 0;
+        this.totalNiveis = 0;
+        this.epocaAtual = 0;
+        this.ouvintes = new ArrayList<>();
+        this.eventosPendentes = new ArrayList<>();
+        this.profundidadeLote = 0;
+    }
+
+    /**
+     * Registra um ouvinte para as alterações da árvore
+     */
+    public void adicionarOuvinte(OuvinteArvore ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Remove um ouvinte registrado
+     */
+    public void removerOuvinte(OuvinteArvore ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Inicia um lote: os eventos das operações seguintes são acumulados e
+     * entregues condensados em uma única chamada ao final do lote.
+     * Lotes podem ser aninhados.
+     */
+    public void iniciarLote() {
+        profundidadeLote++;
+    }
+
+    /**
+     * Finaliza o lote corrente, entregando os eventos se for o mais externo
+     */
+    public void finalizarLote() {
+        if (profundidadeLote > 0) {
+            profundidadeLote--;
+        }
+        entregarEventos();
+    }
+
+    /**
+     * Acumula um evento (sem custo quando não há ouvintes)
+     */
+    private void emitir(EventoArvore.Tipo tipo, int nivel, String missao) {
+        if (cacheNiveis != null) {
+            invalidarCache(tipo, nivel);
+        }
+        if (!ouvintes.isEmpty()) {
+            eventosPendentes.add(new EventoArvore(tipo, nivel, missao));
+        }
+    }
+
+    /**
+     * Emite a remoção de um nível, com quantas missões adicionais saíram junto
+     */
+    private void emitirRemocao(int nivel, String missao, int adicionais) {
+        if (cacheNiveis != null) {
+            invalidarCache(EventoArvore.Tipo.REMOVIDA, nivel);
+        }
+        if (!ouvintes.isEmpty()) {
+            eventosPendentes.add(new EventoArvore(nivel, missao, adicionais));
+        }
+    }
+
+    /**
+     * Entrega os eventos pendentes, se não houver lote aberto
+     */
+    private void entregarEventos() {
+        if (profundidadeLote > 0 || eventosPendentes.isEmpty()) {
+            return;
+        }
+        // Um único evento não precisa ser condensado
+        List<EventoArvore> lote = (eventosPendentes.size() == 1)
+                ? Collections.singletonList(eventosPendentes.get(0))
+                : Collections.unmodifiableList(condensar(eventosPendentes));
+        eventosPendentes.clear();
+        if (lote.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < ouvintes.size(); i++) {
+            ouvintes.get(i).aoAlterar(lote);
+        }
+    }
+
+    /**
+     * Condensa os eventos de um lote:
+     * - uma restauração de versão separa o lote: o que veio antes e o que veio
+     *   depois dela são condensados à parte;
+     * - uma limpeza descarta tudo o que veio antes dela;
+     * - eventos do mesmo nível são combinados no efeito líquido
+     *   (inserida + removida se anulam, atualizações sucessivas viram a última, ...),
+     *   exceto removida + inserida quando o nível removido tinha missões
+     *   adicionais: os dois eventos são mantidos, porque uma atualizada diria
+     *   que as adicionais continuam no nível;
+     * - missões adicionais (adicionada/retirada) são mantidas em ordem, exceto
+     *   as de níveis removidos mais adiante no mesmo lote (uma remoção que
+     *   virou atualizada não conta: os ouvintes não a veem);
+     * - rotações são mantidas, na ordem em que ocorreram.
+     */
+    private static List<EventoArvore> condensar(List<EventoArvore> eventos) {
+        for (int i = 0; i < eventos.size(); i++) {
+            if (eventos.get(i).getTipo() == EventoArvore.Tipo.RESTAURADA) {
+                List<EventoArvore> resultado = new ArrayList<>(condensar(eventos.subList(0, i)));
+                resultado.add(eventos.get(i));
+                resultado.addAll(condensar(eventos.subList(i + 1, eventos.size())));
+                return resultado;
+            }
+        }
+
+        boolean limpeza = false;
+        Map<Integer, EventoArvore> porNivel = new HashMap<>();
+        List<Integer> ordemNiveis = new ArrayList<>();
+        List<EventoArvore> rotacoes = new ArrayList<>();
+        List<Integer> posicoesBaldes = new ArrayList<>();
+        Map<Integer, Integer> removidoEm = new HashMap<>();   // Nível -> posição da última remoção
+        Map<Integer, Integer> removidoAntes = new HashMap<>();   // Nível -> remoção anterior à última
+        Map<Integer, EventoArvore> remocoesMantidas = new HashMap<>();   // Removida com adicionais, antes de porNivel
+
+        for (int posicao = 0; posicao < eventos.size(); posicao++) {
+            EventoArvore evento = eventos.get(posicao);
+            switch (evento.getTipo()) {
+                case LIMPEZA:
+                    limpeza = true;
+                    porNivel.clear();
+                    remocoesMantidas.clear();
+                    ordemNiveis.clear();
+                    rotacoes.clear();
+                    posicoesBaldes.clear();
+                    break;
+                case ROTACAO:
+                    rotacoes.add(evento);
+                    break;
+                case ADICIONADA:
+                case RETIRADA:
+                    posicoesBaldes.add(posicao);
+                    break;
+                default:
+                    Integer nivel = evento.getNivel();
+                    if (evento.getTipo() == EventoArvore.Tipo.REMOVIDA) {
+                        Integer antes = removidoEm.put(nivel, posicao);
+                        if (antes != null) {
+                            removidoAntes.put(nivel, antes);
+                        } else {
+                            removidoAntes.remove(nivel);
+                        }
+                    }
+                    EventoArvore anterior = porNivel.get(nivel);
+                    if (anterior == null) {
+                        ordemNiveis.add(nivel);
+                    } else if (anterior.getTipo() == EventoArvore.Tipo.REMOVIDA && anterior.getAdicionais() > 0) {
+                        // Só uma inserção pode seguir a remoção: ela recomeça o nível sem as adicionais
+                        remocoesMantidas.putIfAbsent(nivel, anterior);
+                        porNivel.put(nivel, evento);
+                        break;
+                    }
+                    EventoArvore combinado = combinar(anterior, evento);
+                    if (anterior != null && anterior.getTipo() == EventoArvore.Tipo.REMOVIDA
+                            && combinado.getTipo() == EventoArvore.Tipo.ATUALIZADA) {
+                        // A remoção não chega aos ouvintes: as retiradas de antes dela continuam valendo
+                        Integer antes = removidoAntes.remove(nivel);
+                        if (antes != null) {
+                            removidoEm.put(nivel, antes);
+                        } else {
+                            removidoEm.remove(nivel);
+                        }
+                    }
+                    if (combinado == null) {
+                        porNivel.remove(nivel);
+                    } else {
+                        porNivel.put(nivel, combinado);
+                    }
+            }
+        }
+
+        List<EventoArvore> resultado = new ArrayList<>();
+        if (limpeza) {
+            resultado.add(new EventoArvore(EventoArvore.Tipo.LIMPEZA, 0, null));
+        }
+        for (Integer nivel : ordemNiveis) {
+            EventoArvore remocao = remocoesMantidas.remove(nivel);
+            if (remocao != null) {
+                resultado.add(remocao);
+            }
+            EventoArvore evento = porNivel.remove(nivel);
+            if (evento != null) {
+                resultado.add(evento);
+            }
+        }
+        for (int posicao : posicoesBaldes) {
+            EventoArvore evento = eventos.get(posicao);
+            Integer remocao = removidoEm.get(evento.getNivel());
+            if (remocao == null || remocao < posicao) {
+                resultado.add(evento);
+            }
+        }
+        resultado.addAll(rotacoes);
+        return resultado;
+    }
+
+    /**
+     * Combina dois eventos consecutivos do mesmo nível no seu efeito líquido
+     * @return Evento combinado ou null se os dois se anulam
+     */
+    private static EventoArvore combinar(EventoArvore anterior, EventoArvore novo) {
+        if (anterior == null) {
+            return novo;
+        }
+        EventoArvore.Tipo tipoAnterior = anterior.getTipo();
+        EventoArvore.Tipo tipoNovo = novo.getTipo();
+
+        if (tipoAnterior == EventoArvore.Tipo.INSERIDA) {
+            if (tipoNovo == EventoArvore.Tipo.REMOVIDA) {
+                return null;
+            }
+            return new EventoArvore(EventoArvore.Tipo.INSERIDA, novo.getNivel(), novo.getMissao());
+        }
+        if (tipoAnterior == EventoArvore.Tipo.REMOVIDA && tipoNovo == EventoArvore.Tipo.INSERIDA) {
+            return new EventoArvore(EventoArvore.Tipo.ATUALIZADA, novo.getNivel(), novo.getMissao());
+        }
+        return novo;
+    }
+
+    /**
+     * Estado imutável da árvore em um instante (raiz + contador).
+     * Versões compartilham todos os nós que não foram alterados entre elas.
+     */
+    static final class Versao {
+        final Node raiz;
+        final int totalNiveis;
+        final int missoesNosBaldes;
+        final long id;
+
+        private Versao(Node raiz, int totalNiveis, int missoesNosBaldes, long id) {
+            this.raiz = raiz;
+            this.totalNiveis = totalNiveis;
+            this.missoesNosBaldes = missoesNosBaldes;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Congela o estado atual e o devolve como versão, em O(1).
+     * A partir daqui, qualquer alteração copia os nós tocados (cópia na escrita)
+     * em vez de modificá-los, preservando a versão capturada. Como nada nela
+     * muda mais, a versão pode ser lida por outra thread (CheckpointMissoes).
+     */
+    Versao capturarVersao() {
+        epocaAtual++;
+        return new Versao(raiz, totalNiveis, missoesNosBaldes, ++ultimaVersao);
+    }
+
+    /**
+     * Restaura uma versão capturada anteriormente, em O(1).
+     * Os ouvintes recebem um único evento RESTAURADA com a versão que estava
+     * em uso (congelada aqui) e a restaurada; quem precisa saber o que mudou
+     * chama diferencas com as duas.
+     */
+    void restaurarVersao(Versao versao) {
+        Versao anterior = new Versao(raiz, totalNiveis, missoesNosBaldes, ++ultimaVersao);
+        raiz = versao.raiz;
+        totalNiveis = versao.totalNiveis;
+        missoesNosBaldes = versao.missoesNosBaldes;
+        epocaAtual++;
+        modificacoes++;
+        if (cacheNiveis != null) {
+            Arrays.fill(cacheOcupado, false);
+        }
+
+        if (!ouvintes.isEmpty()) {
+            eventosPendentes.add(new EventoArvore(anterior, versao));
+            entregarEventos();
+        }
+    }
+
+    /**
+     * Diferenças entre duas versões, em ordem de nível: INSERIDA (só em
+     * depois, seguida de uma ADICIONADA por missão adicional), REMOVIDA (só em
+     * antes, com a missão antiga e as adicionais junto) e ATUALIZADA da
+     * principal; nos níveis presentes nas duas, RETIRADA e ADICIONADA para as
+     * adicionais que saíram ou entraram (comparadas pelo id). As subárvores
+     * que as duas versões compartilham são puladas sem serem percorridas,
+     * então o custo acompanha o que mudou entre elas, e não o tamanho da árvore.
+     */
+    static List<EventoArvore> diferencas(Versao antes, Versao depois) {
+        List<EventoArvore> resultado = new ArrayList<>();
+        PilhaDiferencas a = new PilhaDiferencas(antes.raiz);
+        PilhaDiferencas b = new PilhaDiferencas(depois.raiz);
+        while (a.tamanho > 0 || b.tamanho > 0) {
+            Node topoA = (a.tamanho > 0) ? a.topo() : null;
+            Node topoB = (b.tamanho > 0) ? b.topo() : null;
+            int alturaA = (topoA != null && !a.abertoNoTopo()) ? topoA.altura : 0;
+            int alturaB = (topoB != null && !b.abertoNoTopo()) ? topoB.altura : 0;
+
+            if (alturaA > 0 && topoA == topoB && alturaB > 0) {
+                a.descartar();   // Subárvore compartilhada: mesmas missões
+                b.descartar();
+            } else if (alturaA > 0 || alturaB > 0) {
+                // Abre a subárvore mais alta até os dois topos serem nós isolados
+                if (alturaA >= alturaB) {
+                    a.abrir();
+                } else {
+                    b.abrir();
+                }
+            } else if (topoB == null || (topoA != null && topoA.nivel < topoB.nivel)) {
+                resultado.add(new EventoArvore(topoA.nivel, topoA.missao, missoesNoBalde(topoA)));
+                a.descartar();
+            } else if (topoA == null || topoB.nivel < topoA.nivel) {
+                resultado.add(new EventoArvore(EventoArvore.Tipo.INSERIDA, topoB.nivel, topoB.missao));
+                diferencasBaldes(topoB.nivel, null, topoB.balde, resultado);
+                b.descartar();
+            } else {
+                if (!topoA.missao.equals(topoB.missao)) {
+                    resultado.add(new EventoArvore(EventoArvore.Tipo.ATUALIZADA, topoB.nivel, topoB.missao));
+                }
+                diferencasBaldes(topoB.nivel, topoA.balde, topoB.balde, resultado);
+                a.descartar();
+                b.descartar();
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Missões adicionais que saíram (RETIRADA) ou entraram (ADICIONADA) entre
+     * dois baldes do mesmo nível; os dois estão em ordem de sequência
+     */
+    private static void diferencasBaldes(int nivel, BaldeMissoes antes, BaldeMissoes depois,
+                                         List<EventoArvore> resultado) {
+        if (antes == depois) {
+            return;
+        }
+        int tamanhoAntes = (antes != null) ? antes.tamanho : 0;
+        int tamanhoDepois = (depois != null) ? depois.tamanho : 0;
+        int i = 0;
+        int j = 0;
+        while (i < tamanhoAntes || j < tamanhoDepois) {
+            if (j == tamanhoDepois || (i < tamanhoAntes && antes.sequencias[i] < depois.sequencias[j])) {
+                resultado.add(new EventoArvore(EventoArvore.Tipo.RETIRADA, nivel, antes.missoes[i++]));
+            } else if (i == tamanhoAntes || depois.sequencias[j] < antes.sequencias[i]) {
+                resultado.add(new EventoArvore(EventoArvore.Tipo.ADICIONADA, nivel, depois.missoes[j++]));
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Percurso em ordem de uma versão em que cada item da pilha é uma
+     * subárvore inteira (fechada) ou um único nó (aberto)
+     */
+    private static final class PilhaDiferencas {
+        private Node[] nos = new Node[32];
+        private boolean[] abertos = new boolean[32];
+        private int tamanho;
+
+        PilhaDiferencas(Node raiz) {
+            empilhar(raiz, false);
+        }
+
+        private void empilhar(Node node, boolean aberto) {
+            if (node == null) {
+                return;
+            }
+            if (tamanho == nos.length) {
+                nos = Arrays.copyOf(nos, tamanho * 2);
+                abertos = Arrays.copyOf(abertos, tamanho * 2);
+            }
+            nos[tamanho] = node;
+            abertos[tamanho] = aberto;
+            tamanho++;
+        }
+
+        Node topo() {
+            return nos[tamanho - 1];
+        }
+
+        boolean abertoNoTopo() {
+            return abertos[tamanho - 1];
+        }
+
+        void descartar() {
+            nos[--tamanho] = null;
+        }
+
+        /**
+         * Troca a subárvore do topo por: esquerda, o próprio nó, direita
+         */
+        void abrir() {
+            Node node = topo();
+            descartar();
+            empilhar(node.direita, false);
+            empilhar(node, true);
+            empilhar(node.esquerda, false);
+        }
+    }
+
+    /**
+     * Retorna o nó pronto para ser alterado: o próprio nó se ele pertence à
+     * época atual, ou uma cópia se ele faz parte de uma versão congelada
+     */
+    private Node mutavel(Node node) {
+        modificacoes++;
+        if (node == null || node.epoca == epocaAtual) {
+            return node;
+        }
+        copiasNaEscrita++;
+        return new Node(node, epocaAtual);
+    }
+
+    /**
+     * Cria um nó na época atual, com uma nova sequência para a missão principal
+     */
+    private Node novoNo(int nivel, String missao) {
+        modificacoes++;
+        Node node = new Node(nivel, missao);
+        node.epoca = epocaAtual;
+        node.sequencia = proximaSequencia++;
+        return node;
+    }
+
+    /**
+     * Retorna o balde do nó (já da época atual) pronto para ser alterado,
+     * criando-o ou copiando-o de uma versão congelada se preciso
+     */
+    private BaldeMissoes baldeMutavel(Node node) {
+        if (node.balde == null) {
+            node.balde = new BaldeMissoes(epocaAtual);
+        } else if (node.balde.epoca != epocaAtual) {
+            node.balde = new BaldeMissoes(node.balde, epocaAtual);
+        }
+        return node.balde;
+    }
+
+    /**
+     * Retorna a quantidade de missões adicionais do nó
+     */
+    private static int missoesNoBalde(Node node) {
+        return (node.balde == null) ? 0 : node.balde.tamanho;
     }
 
     /**
@@ -25,12 +503,105 @@ public class ArvoreAVL {
     }
 
     /**
-     * Atualiza a altura de um nó
+     * Retorna a soma dos pesos de uma subárvore
+     */
+    private static long somaPesos(Node node) {
+        return (node == null) ? 0 : node.somaPesos;
+    }
+
+    /**
+     * Atualiza a altura e os agregados (pesos e recompensas) de um nó a partir
+     * dos filhos. Rotações e balanceamento passam por aqui, então os
+     * agregados acompanham qualquer mudança de forma.
      */
     private void atualizarAltura(Node node) {
         if (node != null) {
-            node.altura = 1 + Math.max(altura(node.esquerda), altura(node.direita));
+            Node esquerda = node.esquerda;
+            Node direita = node.direita;
+            node.altura = 1 + Math.max(altura(esquerda), altura(direita));
+            node.somaPesos = somaPesos(esquerda) + node.peso + somaPesos(direita);
+            atualizarRecompensas(node, esquerda, direita);
+        }
+    }
+
+    /**
+     * Recalcula os agregados de recompensa do nó. Sem recompensas na
+     * subárvore, o nó fica sem RecompensasNo; um RecompensasNo de versão
+     * congelada é copiado antes de ser alterado.
+     */
+    private void atualizarRecompensas(Node node, Node esquerda, Node direita) {
+        RecompensasNo proprias = node.recompensas;
+        RecompensasNo daEsquerda = (esquerda != null) ? esquerda.recompensas : null;
+        RecompensasNo daDireita = (direita != null) ? direita.recompensas : null;
+        int xp = (proprias != null) ? proprias.xp : 0;
+        int ouro = (proprias != null) ? proprias.ouro : 0;
+        if (xp == 0 && ouro == 0 && daEsquerda == null && daDireita == null) {
+            node.recompensas = null;
+            return;
+        }
+        RecompensasNo r = proprias;
+        if (r == null || r.epoca != epocaAtual) {
+            r = new RecompensasNo(epocaAtual, xp, ouro);
+            node.recompensas = r;
+        }
+        r.somaXp = xp;
+        r.somaOuro = ouro;
+        r.minXp = r.maxXp = xp;
+        r.minOuro = r.maxOuro = ouro;
+        if (esquerda != null) {
+            agregarRecompensas(r, daEsquerda);
+        }
+        if (direita != null) {
+            agregarRecompensas(r, daDireita);
+        }
+    }
+
+    /**
+     * Inclui a subárvore de um filho (filho null = subárvore só com zeros)
+     */
+    private static void agregarRecompensas(RecompensasNo r, RecompensasNo filho) {
+        if (filho == null) {
+            r.minXp = Math.min(r.minXp, 0);
+            r.minOuro = Math.min(r.minOuro, 0);
+            return;
+        }
+        r.somaXp += filho.somaXp;
+        r.somaOuro += filho.somaOuro;
+        r.minXp = Math.min(r.minXp, filho.minXp);
+        r.maxXp = Math.max(r.maxXp, filho.maxXp);
+        r.minOuro = Math.min(r.minOuro, filho.minOuro);
+        r.maxOuro = Math.max(r.maxOuro, filho.maxOuro);
+    }
+
+    /**
+     * Grava as recompensas do próprio nó (já da época atual); os agregados
+     * são refeitos pelo atualizarAltura seguinte
+     */
+    private void definirRecompensasProprias(Node node, int xp, int ouro) {
+        RecompensasNo r = node.recompensas;
+        if (r == null && xp == 0 && ouro == 0) {
+            return;
         }
+        if (r == null || r.epoca != epocaAtual) {
+            node.recompensas = new RecompensasNo(epocaAtual, xp, ouro);
+        } else {
+            r.xp = xp;
+            r.ouro = ouro;
+        }
+    }
+
+    /**
+     * Retorna o xp do próprio nó
+     */
+    static int xp(Node node) {
+        return (node.recompensas != null) ? node.recompensas.xp : 0;
+    }
+
+    /**
+     * Retorna o ouro do próprio nó
+     */
+    static int ouro(Node node) {
+        return (node.recompensas != null) ? node.recompensas.ouro : 0;
     }
 
     /**
@@ -42,7 +613,8 @@ public class ArvoreAVL {
      *   A   B                    B   C
      */
     private Node rotacaoDireita(Node y) {
-        Node x = y.esquerda;
+        y = mutavel(y);
+        Node x = mutavel(y.esquerda);
         Node B = x.direita;
 
         // Realizar rotação
@@ -53,6 +625,7 @@ public class ArvoreAVL {
         atualizarAltura(y);
         atualizarAltura(x);
 
+        emitir(EventoArvore.Tipo.ROTACAO, x.nivel, null);
         return x;
     }
 
@@ -65,7 +638,8 @@ public class ArvoreAVL {
      *     B   C              A   B
      */
     private Node rotacaoEsquerda(Node x) {
-        Node y = x.direita;
+        x = mutavel(x);
+        Node y = mutavel(x.direita);
         Node B = y.esquerda;
 
         // Realizar rotação
@@ -76,11 +650,13 @@ public class ArvoreAVL {
         atualizarAltura(x);
         atualizarAltura(y);
 
+        emitir(EventoArvore.Tipo.ROTACAO, y.nivel, null);
         return y;
     }
 
     /**
      * Balanceia um nó após inserção ou remoção
+     * (o nó recebido já deve pertencer à época atual)
      */
     private Node balancear(Node node) {
         if (node == null) return null;
@@ -117,45 +693,292 @@ public class ArvoreAVL {
     }
 
     /**
-     * Insere uma nova missão na árvore
+     * Insere uma nova missão na árvore (se o nível já existe, substitui a
+     * missão principal; as adicionais são mantidas)
      * @param nivel Nível de dificuldade (chave)
      * @param missao Descrição da missão
+     * @throws IllegalArgumentException se missao for null (para remover, use remover)
      */
     public void inserir(int nivel, String missao) {
-        raiz = inserirRecursivo(raiz, nivel, missao);
-        totalMissoes++;
+        exigirMissao(missao);
+        raiz = alterarRecursivo(raiz, nivel, missao, null);
+        if (roda != null) {
+            roda.cancelar(nivel);
+        }
+        entregarEventos();
+    }
+
+    /**
+     * Insere uma missão que expira no instante agora + ttl
+     * @param nivel Nível de dificuldade (chave)
+     * @param missao Descrição da missão
+     * @param ttl Tempo de vida, na mesma unidade passada a expirar (mínimo 1)
+     * @param agora Instante atual, no mesmo relógio passado a expirar
+     */
+    public void inserir(int nivel, String missao, long ttl, long agora) {
+        inserir(nivel, missao);
+        obterRoda(agora).agendar(nivel, agora + Math.max(1, ttl));
+    }
+
+    /**
+     * Insere a missão somente se o nível estiver vazio
+     * @return Descrição que já ocupava o nível (nada é alterado) ou null se inseriu
+     */
+    public String inserirSeAusente(int nivel, String missao) {
+        exigirMissao(missao);
+        return alterar(nivel, (n, atual) -> (atual != null) ? atual : missao);
+    }
+
+    /**
+     * Calcula e insere a missão somente se o nível estiver vazio
+     * (a função não é chamada se o nível já tem missão; se retornar null, nada é inserido)
+     * @return Descrição que já ocupava o nível ou null se estava vazio
+     */
+    public String computeSeAusente(int nivel, IntFunction<String> funcao) {
+        return alterar(nivel, (n, atual) -> (atual != null) ? atual : funcao.apply(n));
+    }
+
+    /**
+     * Substitui a descrição somente se o nível já tiver missão
+     * @return Descrição anterior ou null se o nível estava vazio (nada é inserido)
+     */
+    public String substituir(int nivel, String missao) {
+        exigirMissao(missao);
+        return alterar(nivel, (n, atual) -> (atual != null) ? missao : null);
+    }
+
+    /**
+     * Calcula a nova descrição do nível a partir da atual (null se vazio).
+     * Se a função retornar null, a missão é removida (ou nada é inserido).
+     * @return Descrição anterior ou null se o nível estava vazio
+     */
+    public String computar(int nivel, FuncaoMissao funcao) {
+        return alterar(nivel, funcao);
+    }
+
+    /**
+     * Insere a missão se o nível estiver vazio; caso contrário combina a
+     * descrição atual com a nova (se a combinação for null, remove a missão)
+     * @return Descrição anterior ou null se o nível estava vazio
+     */
+    public String mesclar(int nivel, String missao, BinaryOperator<String> combinar) {
+        exigirMissao(missao);
+        return alterar(nivel, (n, atual) -> (atual == null) ? missao : combinar.apply(atual, missao));
+    }
+
+    /**
+     * Rejeita uma descrição null: só os resultados de funções (computar,
+     * computeSeAusente, a combinação de mesclar) usam null para remover
+     */
+    private static void exigirMissao(String missao) {
+        if (missao == null) {
+            throw new IllegalArgumentException("Descrição da missão não pode ser null");
+        }
+    }
+
+    /**
+     * Busca e altera o nível em uma única descida da raiz.
+     * Peso e expiração são mantidos quando só a descrição muda.
+     */
+    private String alterar(int nivel, FuncaoMissao funcao) {
+        raiz = alterarRecursivo(raiz, nivel, null, funcao);
+        String anterior = missaoAnterior;
+        missaoAnterior = null;
+        if (roda != null && efeitoAlteracao == FORMA) {
+            roda.cancelar(nivel);
+        }
+        entregarEventos();
+        return anterior;
     }
 
-    private Node inserirRecursivo(Node node, int nivel, String missao) {
-        // Inserção normal de BST
+    /**
+     * Desce até o nível e aplica a alteração: com funcao == null, grava a
+     * missão informada; senão, grava o resultado da função (null remove).
+     * Na volta, o caminho só é copiado se algo mudou e só é rebalanceado se
+     * um nó foi inserido ou removido.
+     */
+    private Node alterarRecursivo(Node node, int nivel, String missao, FuncaoMissao funcao) {
         if (node == null) {
-            return new Node(nivel, missao);
+            // Nível vazio - inserção normal de BST
+            missaoAnterior = null;
+            String nova = (funcao == null) ? missao : funcao.aplicar(nivel, null);
+            if (nova == null) {
+                efeitoAlteracao = SEM_MUDANCA;
+                return null;
+            }
+            efeitoAlteracao = FORMA;
+            totalNiveis++;
+            emitir(EventoArvore.Tipo.INSERIDA, nivel, nova);
+            return novoNo(nivel, nova);
         }
 
         if (nivel < node.nivel) {
-            node.esquerda = inserirRecursivo(node.esquerda, nivel, missao);
+            Node esquerda = alterarRecursivo(node.esquerda, nivel, missao, funcao);
+            if (efeitoAlteracao == SEM_MUDANCA) {
+                return node;
+            }
+            node = mutavel(node);
+            node.esquerda = esquerda;
         } else if (nivel > node.nivel) {
-            node.direita = inserirRecursivo(node.direita, nivel, missao);
+            Node direita = alterarRecursivo(node.direita, nivel, missao, funcao);
+            if (efeitoAlteracao == SEM_MUDANCA) {
+                return node;
+            }
+            node = mutavel(node);
+            node.direita = direita;
         } else {
-            // Nível duplicado - atualiza a missão
-            node.missao = missao;
-            totalMissoes--;
+            // Nível encontrado
+            missaoAnterior = node.missao;
+            String nova = (funcao == null) ? missao : funcao.aplicar(nivel, node.missao);
+            if (nova == null) {
+                // Remoção: o nó alvo já é a raiz da subárvore
+                node = removerRecursivo(node, nivel);
+                missaoRemovida = null;
+                efeitoAlteracao = FORMA;
+                emitirRemocao(nivel, missaoAnterior, adicionaisRemovidas);
+                return node;
+            }
+            if (nova == node.missao) {
+                efeitoAlteracao = SEM_MUDANCA;
+                return node;
+            }
+            node = mutavel(node);
+            node.missao = nova;
+            efeitoAlteracao = DESCRICAO;
+            emitir(EventoArvore.Tipo.ATUALIZADA, nivel, nova);
             return node;
         }
 
-        // Balancear o nó
-        return balancear(node);
+        // Balancear o nó somente se a forma da subárvore mudou
+        return (efeitoAlteracao == FORMA) ? balancear(node) : node;
+    }
+
+    /**
+     * Carga em massa de missões já ordenadas por nível.
+     * Com a árvore vazia, constrói diretamente uma árvore perfeitamente
+     * balanceada em O(m), sem rotações. Caso contrário, intercala com as
+     * missões existentes (as novas prevalecem em níveis repetidos) e
+     * reconstrói em O(n + m).
+     * @param niveis Níveis em ordem estritamente crescente
+     * @param missoes Descrições correspondentes
+     * @param quantidade Quantas posições dos vetores usar
+     */
+    public void carregarOrdenado(int[] niveis, String[] missoes, int quantidade) {
+        for (int i = 1; i < quantidade; i++) {
+            if (niveis[i] <= niveis[i - 1]) {
+                throw new IllegalArgumentException("Níveis devem estar em ordem estritamente crescente (posição " + i + ")");
+            }
+        }
+        for (int i = 0; i < quantidade; i++) {
+            exigirMissao(missoes[i]);
+        }
+        if (quantidade == 0) {
+            return;
+        }
+        if (roda != null && roda.getPendentes() > 0) {
+            for (int i = 0; i < quantidade; i++) {
+                roda.cancelar(niveis[i]);
+            }
+        }
+
+        iniciarLote();
+        if (raiz == null) {
+            for (int i = 0; i < quantidade; i++) {
+                emitir(EventoArvore.Tipo.INSERIDA, niveis[i], missoes[i]);
+            }
+            raiz = construirBalanceada(niveis, missoes, null, 0, quantidade - 1);
+            totalNiveis = quantidade;
+        } else {
+            // Intercalar as missões existentes (em ordem) com as novas
+            int existentes = totalNiveis;
+            int[] niveisExistentes = new int[existentes];
+            String[] missoesExistentes = new String[existentes];
+            Node[] nosExistentes = new Node[existentes];
+            coletarEmOrdem(raiz, niveisExistentes, missoesExistentes, nosExistentes, 0);
+
+            // Níveis repetidos mantêm id, missões adicionais, peso e recompensas;
+            // níveis novos recebem os padrões
+            int[] niveisFinais = new int[existentes + quantidade];
+            String[] missoesFinais = new String[existentes + quantidade];
+            Node[] nosFinais = new Node[existentes + quantidade];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < existentes || j < quantidade) {
+                if (j == quantidade || (i < existentes && niveisExistentes[i] < niveis[j])) {
+                    niveisFinais[k] = niveisExistentes[i];
+                    nosFinais[k] = nosExistentes[i];
+                    missoesFinais[k++] = missoesExistentes[i++];
+                } else {
+                    boolean repetido = i < existentes && niveisExistentes[i] == niveis[j];
+                    emitir(repetido ? EventoArvore.Tipo.ATUALIZADA : EventoArvore.Tipo.INSERIDA, niveis[j], missoes[j]);
+                    nosFinais[k] = repetido ? nosExistentes[i++] : null;
+                    niveisFinais[k] = niveis[j];
+                    missoesFinais[k++] = missoes[j++];
+                }
+            }
+            raiz = construirBalanceada(niveisFinais, missoesFinais, nosFinais, 0, k - 1);
+            totalNiveis = k;
+        }
+        finalizarLote();
+    }
+
+    /**
+     * Constrói uma subárvore perfeitamente balanceada a partir de vetores ordenados
+     * @param anteriores Nós antigos dos mesmos níveis, dos quais id, balde, peso
+     *                   e recompensas são copiados (null, ou posições null, para os padrões)
+     */
+    private Node construirBalanceada(int[] niveis, String[] missoes, Node[] anteriores, int inicio, int fim) {
+        if (inicio > fim) {
+            return null;
+        }
+        int meio = (inicio + fim) >>> 1;
+        Node node = novoNo(niveis[meio], missoes[meio]);
+        if (anteriores != null && anteriores[meio] != null) {
+            node.peso = anteriores[meio].peso;
+            definirRecompensasProprias(node, xp(anteriores[meio]), ouro(anteriores[meio]));
+            node.sequencia = anteriores[meio].sequencia;
+            node.balde = anteriores[meio].balde;
+        }
+        node.esquerda = construirBalanceada(niveis, missoes, anteriores, inicio, meio - 1);
+        node.direita = construirBalanceada(niveis, missoes, anteriores, meio + 1, fim);
+        atualizarAltura(node);
+        return node;
+    }
+
+    /**
+     * Copia as missões em ordem para os vetores, a partir da posição indicada
+     * @return Próxima posição livre
+     */
+    private int coletarEmOrdem(Node node, int[] niveis, String[] missoes, Node[] nos, int posicao) {
+        if (node == null) {
+            return posicao;
+        }
+        posicao = coletarEmOrdem(node.esquerda, niveis, missoes, nos, posicao);
+        niveis[posicao] = node.nivel;
+        missoes[posicao] = node.missao;
+        nos[posicao] = node;
+        return coletarEmOrdem(node.direita, niveis, missoes, nos, posicao + 1);
     }
 
     /**
-     * Remove uma missão da árvore pelo nível
+     * Remove um nível da árvore, com todas as suas missões
      * @param nivel Nível da missão a ser removida
      * @return true se removeu, false se não encontrou
      */
     public boolean remover(int nivel) {
-        int antigo = totalMissoes;
+        int antigo = totalNiveis;
         raiz = removerRecursivo(raiz, nivel);
-        return totalMissoes < antigo;
+        if (totalNiveis < antigo) {
+            emitirRemocao(nivel, missaoRemovida, adicionaisRemovidas);
+            missaoRemovida = null;
+            if (roda != null) {
+                roda.cancelar(nivel);
+            }
+            entregarEventos();
+            return true;
+        }
+        return false;
     }
 
     private Node removerRecursivo(Node node, int nivel) {
@@ -164,13 +987,28 @@ public class ArvoreAVL {
         }
 
         // Procurar o nó a ser removido
+        // (se nada foi removido abaixo, o nó não é copiado nem rebalanceado)
+        int antes = totalNiveis;
         if (nivel < node.nivel) {
-            node.esquerda = removerRecursivo(node.esquerda, nivel);
+            Node esquerda = removerRecursivo(node.esquerda, nivel);
+            if (totalNiveis == antes) {
+                return node;
+            }
+            node = mutavel(node);
+            node.esquerda = esquerda;
         } else if (nivel > node.nivel) {
-            node.direita = removerRecursivo(node.direita, nivel);
+            Node direita = removerRecursivo(node.direita, nivel);
+            if (totalNiveis == antes) {
+                return node;
+            }
+            node = mutavel(node);
+            node.direita = direita;
         } else {
-            // Nó encontrado - remover
-            totalMissoes--;
+            // Nó encontrado - remover (com todas as missões do nível)
+            totalNiveis--;
+            missoesNosBaldes -= missoesNoBalde(node);
+            missaoRemovida = node.missao;
+            adicionaisRemovidas = missoesNoBalde(node);
 
             // Caso 1: Nó folha ou com um filho
             if (node.esquerda == null) {
@@ -182,43 +1020,618 @@ public class ArvoreAVL {
             // Caso 2: Nó com dois filhos
             // Encontrar o sucessor (menor nó da subárvore direita)
             Node sucessor = encontrarMinimo(node.direita);
+            String removida = node.missao;
+            int adicionaisDaRemovida = adicionaisRemovidas;
+            node = mutavel(node);
             node.nivel = sucessor.nivel;
             node.missao = sucessor.missao;
+            node.peso = sucessor.peso;
+            definirRecompensasProprias(node, xp(sucessor), ouro(sucessor));
+            node.sequencia = sucessor.sequencia;
+            node.balde = sucessor.balde;
             node.direita = removerRecursivo(node.direita, sucessor.nivel);
-            totalMissoes++;
+            totalNiveis++;
+            missoesNosBaldes += missoesNoBalde(sucessor);
+            missaoRemovida = removida;
+            adicionaisRemovidas = adicionaisDaRemovida;
         }
 
         // Balancear o nó
         return balancear(node);
     }
 
-    private Node encontrarMinimo(Node node) {
-        while (node.esquerda != null) {
-            node = node.esquerda;
+    /**
+     * Remove vários níveis em uma única passada: a árvore é percorrida uma vez,
+     * dividindo os níveis ordenados pela chave de cada nó, e cada nó restante
+     * no caminho é reequilibrado uma só vez ao juntar suas subárvores.
+     * Custo O(k log(n/k + 1)) para k níveis, em vez de k remoções independentes.
+     * Níveis ausentes são ignorados.
+     * @param niveis Níveis a remover (em qualquer ordem)
+     * @param quantidade Quantas posições do vetor usar
+     * @return Quantidade de níveis removidos (cada um com todas as suas missões)
+     */
+    public int removerEmLote(int[] niveis, int quantidade) {
+        if (quantidade == 0 || raiz == null) {
+            return 0;
+        }
+        int[] ordenados = Arrays.copyOf(niveis, quantidade);
+        Arrays.sort(ordenados);
+        int distintos = 1;
+        for (int i = 1; i < quantidade; i++) {
+            if (ordenados[i] != ordenados[distintos - 1]) {
+                ordenados[distintos++] = ordenados[i];
+            }
+        }
+
+        int antigo = totalNiveis;
+        iniciarLote();
+        raiz = removerFaixa(raiz, ordenados, 0, distintos);
+        finalizarLote();
+        return antigo - totalNiveis;
+    }
+
+    /**
+     * Remove da subárvore os níveis ordenados em niveis[inicio, fim)
+     */
+    private Node removerFaixa(Node node, int[] niveis, int inicio, int fim) {
+        if (node == null || inicio == fim) {
+            return node;
+        }
+        int antes = totalNiveis;
+        if (fim - inicio == 1) {
+            // Um único nível na faixa: remoção comum, sem divisão nem junção
+            node = removerRecursivo(node, niveis[inicio]);
+            if (totalNiveis < antes) {
+                emitirRemocao(niveis[inicio], missaoRemovida, adicionaisRemovidas);
+                missaoRemovida = null;
+                if (roda != null) {
+                    roda.cancelar(niveis[inicio]);
+                }
+            }
+            return node;
+        }
+        int i = Arrays.binarySearch(niveis, inicio, fim, node.nivel);
+        boolean removido = i >= 0;
+        int corte = removido ? i : -i - 1;
+        Node esquerda = removerFaixa(node.esquerda, niveis, inicio, corte);
+        Node direita = removerFaixa(node.direita, niveis, removido ? corte + 1 : corte, fim);
+
+        if (removido) {
+            totalNiveis--;
+            missoesNosBaldes -= missoesNoBalde(node);
+            emitirRemocao(node.nivel, node.missao, missoesNoBalde(node));
+            if (roda != null) {
+                roda.cancelar(node.nivel);
+            }
+            return juntar(esquerda, direita);
+        }
+        // Nada removido abaixo: o nó não é copiado nem reequilibrado
+        if (totalNiveis == antes) {
+            return node;
+        }
+        return unir(esquerda, mutavel(node), direita);
+    }
+
+    /**
+     * Une duas árvores AVL e um nó intermediário (todas as chaves da esquerda
+     * menores que as do meio, e estas menores que as da direita), com
+     * alturas arbitrárias. Desce pela borda da árvore mais alta até a altura
+     * da outra e reequilibra na volta: O(|diferença de alturas|).
+     * @param meio Nó da época atual; seus filhos são substituídos
+     */
+    private Node unir(Node esquerda, Node meio, Node direita) {
+        if (altura(esquerda) > altura(direita) + 1) {
+            Node node = mutavel(esquerda);
+            node.direita = unir(node.direita, meio, direita);
+            return balancear(node);
+        }
+        if (altura(direita) > altura(esquerda) + 1) {
+            Node node = mutavel(direita);
+            node.esquerda = unir(esquerda, meio, node.esquerda);
+            return balancear(node);
+        }
+        meio.esquerda = esquerda;
+        meio.direita = direita;
+        atualizarAltura(meio);
+        return meio;
+    }
+
+    /**
+     * Une duas árvores AVL sem nó intermediário, usando o maior nó da esquerda
+     */
+    private Node juntar(Node esquerda, Node direita) {
+        if (esquerda == null) {
+            return direita;
+        }
+        if (direita == null) {
+            return esquerda;
+        }
+        Node[] maximo = new Node[1];
+        Node resto = removerMaximo(esquerda, maximo);
+        return unir(resto, mutavel(maximo[0]), direita);
+    }
+
+    private Node removerMaximo(Node node, Node[] maximo) {
+        if (node.direita == null) {
+            maximo[0] = node;
+            return node.esquerda;
+        }
+        Node direita = removerMaximo(node.direita, maximo);
+        node = mutavel(node);
+        node.direita = direita;
+        return balancear(node);
+    }
+
+    private Node encontrarMinimo(Node node) {
+        while (node.esquerda != null) {
+            node = node.esquerda;
         }
         return node;
     }
 
     /**
-     * Busca uma missão pelo nível
+     * Busca a missão principal de um nível
      * @param nivel Nível da missão
      * @return String com a missão ou null se não encontrar
      */
     public String buscar(int nivel) {
-        Node node = buscarRecursivo(raiz, nivel);
+        if (cacheNiveis != null) {
+            return buscarComCache(nivel);
+        }
+        Node node = buscarNo(nivel);
         return (node != null) ? node.toString() : null;
     }
 
-    private Node buscarRecursivo(Node node, int nivel) {
-        if (node == null || node.nivel == nivel) {
+    /**
+     * Busca o nó de um nível, sem formatar o resultado
+     */
+    Node buscarNo(int nivel) {
+        Node node = raiz;
+        while (node != null && node.nivel != nivel) {
+            node = (nivel < node.nivel) ? node.esquerda : node.direita;
+        }
+        return node;
+    }
+
+    // ==================== CACHE DE BUSCAS ====================
+
+    /**
+     * Ativa um cache das respostas de buscar para níveis consultados
+     * repetidamente (inclusive os ausentes): cada posição guarda um nível e a
+     * resposta já formatada, e um acerto não desce a árvore. Só a posição do
+     * nível alterado é invalidada, então escritas em outros níveis não
+     * esvaziam o cache.
+     * @param entradas Número de posições (arredondado para potência de 2; 0 desativa)
+     */
+    public void ativarCacheBuscas(int entradas) {
+        if (entradas < 0) {
+            throw new IllegalArgumentException("Número de entradas negativo: " + entradas);
+        }
+        if (entradas == 0) {
+            cacheNiveis = null;
+            cacheRespostas = null;
+            cacheOcupado = null;
+            return;
+        }
+        int tamanho = Integer.highestOneBit(Math.min(entradas, 1 << 30));
+        if (tamanho < entradas) {
+            tamanho <<= 1;
+        }
+        cacheNiveis = new int[tamanho];
+        cacheRespostas = new String[tamanho];
+        cacheOcupado = new boolean[tamanho];
+        acertosCache = 0;
+        faltasCache = 0;
+    }
+
+    /**
+     * Posição do nível no cache (espalha níveis vizinhos entre as posições)
+     */
+    private int posicaoCache(int nivel) {
+        return (nivel * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(cacheNiveis.length))
+                & (cacheNiveis.length - 1);
+    }
+
+    private String buscarComCache(int nivel) {
+        int posicao = posicaoCache(nivel);
+        if (cacheOcupado[posicao] && cacheNiveis[posicao] == nivel) {
+            acertosCache++;
+            return cacheRespostas[posicao];
+        }
+        faltasCache++;
+        Node node = buscarNo(nivel);
+        String resposta = (node != null) ? node.toString() : null;
+        cacheNiveis[posicao] = nivel;
+        cacheRespostas[posicao] = resposta;
+        cacheOcupado[posicao] = true;
+        return resposta;
+    }
+
+    /**
+     * Descarta a resposta guardada de um nível cuja missão principal mudou
+     * (ou todas, em uma limpeza)
+     */
+    private void invalidarCache(EventoArvore.Tipo tipo, int nivel) {
+        switch (tipo) {
+            case INSERIDA:
+            case ATUALIZADA:
+            case REMOVIDA:
+                int posicao = posicaoCache(nivel);
+                if (cacheNiveis[posicao] == nivel) {
+                    cacheOcupado[posicao] = false;
+                }
+                break;
+            case LIMPEZA:
+                Arrays.fill(cacheOcupado, false);
+                break;
+            default:
+                // Rotações e missões adicionais não mudam a resposta de buscar
+        }
+    }
+
+    public long getAcertosCacheBuscas() {
+        return acertosCache;
+    }
+
+    public long getFaltasCacheBuscas() {
+        return faltasCache;
+    }
+
+    // ==================== CURSOR ====================
+
+    /**
+     * Cria um cursor para acessos com localidade (níveis próximos do anterior)
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cursor que lembra o caminho da raiz até o último nível acessado, com a
+     * faixa de níveis da subárvore de cada nó do caminho. Cada acesso sobe
+     * do fim do caminho até o primeiro nó cuja faixa contém o nível e só
+     * desce por nós novos a partir dali: para um nível a distância d do
+     * anterior, subida e descida passam por O(log d) nós, em vez de O(log n)
+     * a partir da raiz. Em saltos longos a subida chega perto da raiz e o
+     * custo é o de uma busca comum.
+     *
+     * A inserção só encurta a descida. Um nível novo muda a soma de pesos
+     * (e os agregados de recompensas) de todos os ancestrais, então a volta
+     * vai até a raiz e a inserção continua O(log n); ela segue pelos nós já
+     * guardados no caminho, sem comparações nem recursão, e acima do ponto em
+     * que a altura deixa de mudar só recalcula os agregados, sem rebalancear.
+     * Só trocar a descrição de um nível existente para no primeiro ancestral
+     * que já podia ser alterado no lugar. Uma alteração feita fora do cursor
+     * invalida o caminho, e o acesso seguinte recomeça da raiz.
+     *
+     * O ganho está nas inserções quase em ordem (importações) e nas buscas
+     * sequenciais ou em rajadas de níveis vizinhos. Em acessos espalhados, o
+     * topo da árvore já está em cache e buscas independentes a partir da raiz
+     * se sobrepõem no processador, enquanto cada acesso do cursor depende do
+     * anterior: aí a busca pela raiz é mais rápida (benchmark "localidade").
+     * Como a árvore, o cursor não é seguro para várias threads.
+     */
+    public final class Cursor {
+        private static final int ALTURA_MAXIMA = 64;   // Uma AVL de 2^32 nós tem altura menor que 47
+
+        private final Node[] caminho = new Node[ALTURA_MAXIMA];
+        private final long[] minimos = new long[ALTURA_MAXIMA];   // Faixa aberta de níveis da subárvore
+        private final long[] maximos = new long[ALTURA_MAXIMA];   // de cada nó do caminho
+        private int profundidade;
+        private int modificacoesVistas;
+
+        private Cursor() {
+        }
+
+        /**
+         * Sobe do fim do caminho guardado até o nó mais fundo cuja subárvore
+         * contém o nível (recomeçando da raiz se a árvore mudou desde o último
+         * acesso). As faixas são encaixadas, então a primeira que contém o
+         * nível, de baixo para cima, é a desse nó: o custo é o da distância
+         * subida, não o da altura do caminho.
+         * @return Posição desse nó no caminho ou -1 se a árvore está vazia
+         */
+        private int subir(int nivel) {
+            if (profundidade == 0 || modificacoesVistas != modificacoes || caminho[0] != raiz) {
+                if (raiz == null) {
+                    profundidade = 0;
+                    return -1;
+                }
+                caminho[0] = raiz;
+                minimos[0] = Long.MIN_VALUE;
+                maximos[0] = Long.MAX_VALUE;
+                profundidade = 1;
+                modificacoesVistas = modificacoes;
+            }
+            int i = profundidade - 1;
+            while (nivel <= minimos[i] || nivel >= maximos[i]) {
+                i--;   // A raiz (faixa ilimitada) sempre contém o nível
+            }
+            profundidade = i + 1;
+            return i;
+        }
+
+        /**
+         * Desce do fim do caminho até o nível ou, se ele não existe, até o nó
+         * sob o qual seria inserido, guardando o caminho
+         */
+        private Node descer(int nivel) {
+            int topo = profundidade - 1;
+            Node node = caminho[topo];
+            long minimo = minimos[topo];
+            long maximo = maximos[topo];
+            while (node.nivel != nivel) {
+                Node filho;
+                if (nivel < node.nivel) {
+                    filho = node.esquerda;
+                    maximo = node.nivel;
+                } else {
+                    filho = node.direita;
+                    minimo = node.nivel;
+                }
+                if (filho == null) {
+                    break;
+                }
+                caminho[++topo] = filho;
+                minimos[topo] = minimo;
+                maximos[topo] = maximo;
+                node = filho;
+            }
+            profundidade = topo + 1;
+            return node;
+        }
+
+        /**
+         * Busca a missão principal de um nível a partir do último acesso
+         * @return String com a missão ou null se não encontrar (mesmo formato de ArvoreAVL.buscar)
+         */
+        public String buscar(int nivel) {
+            Node node = buscarNo(nivel);
+            return (node != null) ? node.toString() : null;
+        }
+
+        /**
+         * Busca o nó de um nível, sem formatar o resultado
+         */
+        Node buscarNo(int nivel) {
+            if (subir(nivel) < 0) {
+                return null;
+            }
+            Node node = descer(nivel);
+            return (node.nivel == nivel) ? node : null;
+        }
+
+        /**
+         * Insere (ou substitui a principal) como ArvoreAVL.inserir, descendo a
+         * partir da subárvore do caminho que contém o nível
+         */
+        public void inserir(int nivel, String missao) {
+            exigirMissao(missao);
+            int topo = subir(nivel);
+            if (topo < 0) {
+                ArvoreAVL.this.inserir(nivel, missao);
+                return;
+            }
+            Node subarvore = alterarRecursivo(caminho[topo], nivel, missao, null);
+            int efeito = efeitoAlteracao;
+            caminho[topo] = subarvore;
+            profundidade = topo + 1;   // Abaixo do topo, a forma pode ter mudado
+
+            // Volta até a raiz pelo caminho guardado, como na volta da recursão
+            boolean rebalancear = true;
+            for (int i = topo - 1; i >= 0 && efeito != SEM_MUDANCA; i--) {
+                Node pai = caminho[i];
+                Node node = mutavel(pai);
+                boolean esquerda = nivel < node.nivel;
+                if (efeito == DESCRICAO && node == pai && (esquerda ? node.esquerda : node.direita) == subarvore) {
+                    break;   // Alterado no lugar: os ancestrais já apontam para a subárvore
+                }
+                if (esquerda) {
+                    node.esquerda = subarvore;
+                } else {
+                    node.direita = subarvore;
+                }
+                if (efeito != FORMA) {
+                    subarvore = node;
+                } else if (rebalancear) {
+                    int alturaAntes = node.altura;
+                    subarvore = balancear(node);
+                    rebalancear = subarvore != node || node.altura != alturaAntes;
+                } else {
+                    atualizarAltura(node);   // Altura estável daqui para cima: só os agregados mudam
+                    subarvore = node;
+                }
+                if (subarvore != node) {
+                    profundidade = i + 1;   // Rotação: a posição e sua faixa continuam valendo, o caminho abaixo não
+                }
+                caminho[i] = subarvore;
+            }
+            raiz = caminho[0];
+            modificacoesVistas = modificacoes;
+
+            if (roda != null) {
+                roda.cancelar(nivel);
+            }
+            entregarEventos();
+        }
+    }
+
+    // ==================== VÁRIAS MISSÕES POR NÍVEL ====================
+
+    /**
+     * Monta o id de uma missão: nível nos 32 bits altos, sequência nos baixos.
+     * As sequências vêm de um contador da árvore, então ids não se repetem
+     * (nem depois de desfazer), e só o nível já leva ao nó certo.
+     */
+    private static long id(int nivel, int sequencia) {
+        return ((long) nivel << 32) | (sequencia & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retorna o nível de uma missão a partir do seu id
+     */
+    public static int nivelDoId(long id) {
+        return (int) (id >> 32);
+    }
+
+    /**
+     * Adiciona uma missão ao nível sem substituir as que já existem.
+     * A altura da árvore depende só dos níveis distintos: adicionar a um
+     * nível ocupado não cria nó nem rebalanceia. A primeira missão do nível
+     * é a principal (a usada por buscar, inserir e as demais operações por nível).
+     * @return Id estável da nova missão (não muda com rotações ou remoções de outras)
+     */
+    public long adicionar(int nivel, String missao) {
+        exigirMissao(missao);
+        raiz = adicionarRecursivo(raiz, nivel, missao);
+        entregarEventos();
+        return idAdicionado;
+    }
+
+    private Node adicionarRecursivo(Node node, int nivel, String missao) {
+        if (node == null) {
+            Node novo = novoNo(nivel, missao);
+            totalNiveis++;
+            idAdicionado = id(nivel, novo.sequencia);
+            efeitoAlteracao = FORMA;
+            emitir(EventoArvore.Tipo.INSERIDA, nivel, missao);
+            return novo;
+        }
+
+        if (nivel < node.nivel) {
+            Node esquerda = adicionarRecursivo(node.esquerda, nivel, missao);
+            node = mutavel(node);
+            node.esquerda = esquerda;
+        } else if (nivel > node.nivel) {
+            Node direita = adicionarRecursivo(node.direita, nivel, missao);
+            node = mutavel(node);
+            node.direita = direita;
+        } else {
+            // Nível ocupado: a missão vai para o balde do nó
+            node = mutavel(node);
+            int sequencia = proximaSequencia++;
+            baldeMutavel(node).adicionar(sequencia, missao);
+            missoesNosBaldes++;
+            idAdicionado = id(nivel, sequencia);
+            efeitoAlteracao = DESCRICAO;
+            emitir(EventoArvore.Tipo.ADICIONADA, nivel, missao);
             return node;
         }
+        return (efeitoAlteracao == FORMA) ? balancear(node) : node;
+    }
+
+    /**
+     * Busca uma missão pelo id
+     * @return Descrição da missão ou null se o id não existe (mais)
+     */
+    public String buscarPorId(long id) {
+        Node node = buscarNo(nivelDoId(id));
+        if (node == null) {
+            return null;
+        }
+        int sequencia = (int) id;
+        if (node.sequencia == sequencia) {
+            return node.missao;
+        }
+        int posicao = (node.balde != null) ? node.balde.posicao(sequencia) : -1;
+        return (posicao >= 0) ? node.balde.missoes[posicao] : null;
+    }
+
+    /**
+     * Remove uma única missão pelo id. Se for a principal, a missão
+     * adicional mais antiga passa a ser a principal; se for a única do
+     * nível, o nível é removido (como em remover).
+     * @return true se removeu, false se o id não existe
+     */
+    public boolean removerPorId(long id) {
+        int nivel = nivelDoId(id);
+        int sequencia = (int) id;
+        Node node = buscarNo(nivel);
+        if (node == null) {
+            return false;
+        }
+        if (node.sequencia != sequencia && (node.balde == null || node.balde.posicao(sequencia) < 0)) {
+            return false;
+        }
+        if (node.balde == null) {
+            return remover(nivel);
+        }
+        raiz = retirarRecursivo(raiz, nivel, sequencia);
+        missoesNosBaldes--;
+        entregarEventos();
+        return true;
+    }
 
+    /**
+     * Retira a missão do nível (que continua ocupado), copiando só o caminho:
+     * a forma não muda, então não há rebalanceamento
+     */
+    private Node retirarRecursivo(Node node, int nivel, int sequencia) {
+        node = mutavel(node);
         if (nivel < node.nivel) {
-            return buscarRecursivo(node.esquerda, nivel);
+            node.esquerda = retirarRecursivo(node.esquerda, nivel, sequencia);
+        } else if (nivel > node.nivel) {
+            node.direita = retirarRecursivo(node.direita, nivel, sequencia);
         } else {
-            return buscarRecursivo(node.direita, nivel);
+            BaldeMissoes balde = baldeMutavel(node);
+            if (node.sequencia == sequencia) {
+                // Principal retirada: a adicional mais antiga sai do balde e vira a principal
+                emitir(EventoArvore.Tipo.RETIRADA, nivel, balde.missoes[0]);
+                node.sequencia = balde.sequencias[0];
+                node.missao = balde.missoes[0];
+                balde.retirar(0);
+                emitir(EventoArvore.Tipo.ATUALIZADA, nivel, node.missao);
+            } else {
+                int posicao = balde.posicao(sequencia);
+                emitir(EventoArvore.Tipo.RETIRADA, nivel, balde.missoes[posicao]);
+                balde.retirar(posicao);
+            }
+            if (balde.tamanho == 0) {
+                node.balde = null;
+            }
         }
+        return node;
+    }
+
+    /**
+     * Retorna as descrições de todas as missões do nível, a principal primeiro
+     * e as adicionais em ordem de criação (vetor vazio se o nível não existe)
+     */
+    public String[] buscarTodas(int nivel) {
+        Node node = buscarNo(nivel);
+        if (node == null) {
+            return new String[0];
+        }
+        String[] todas = new String[1 + missoesNoBalde(node)];
+        todas[0] = node.missao;
+        if (node.balde != null) {
+            System.arraycopy(node.balde.missoes, 0, todas, 1, node.balde.tamanho);
+        }
+        return todas;
+    }
+
+    /**
+     * Retorna os ids das missões do nível, na mesma ordem de buscarTodas
+     */
+    public long[] buscarIds(int nivel) {
+        Node node = buscarNo(nivel);
+        if (node == null) {
+            return new long[0];
+        }
+        long[] ids = new long[1 + missoesNoBalde(node)];
+        ids[0] = id(nivel, node.sequencia);
+        for (int i = 1; i < ids.length; i++) {
+            ids[i] = id(nivel, node.balde.sequencias[i - 1]);
+        }
+        return ids;
+    }
+
+    /**
+     * Retorna quantas missões o nível tem (0 se não existe)
+     */
+    public int getQuantidadeNoNivel(int nivel) {
+        Node node = buscarNo(nivel);
+        return (node != null) ? 1 + missoesNoBalde(node) : 0;
     }
 
     /**
@@ -234,6 +1647,9 @@ public class ArvoreAVL {
         if (node != null) {
             listarEmOrdemRecursivo(node.esquerda, sb);
             sb.append(node.toString()).append("\n");
+            for (int i = 0; i < missoesNoBalde(node); i++) {
+                sb.append(String.format("[Nível %d] %s\n", node.nivel, node.balde.missoes[i]));
+            }
             listarEmOrdemRecursivo(node.direita, sb);
         }
     }
@@ -254,8 +1670,9 @@ public class ArvoreAVL {
         if (node != null) {
             sb.append(prefixo);
             sb.append(isUltimo ? "└── " : "├── ");
-            sb.append(String.format("Nv%d (h=%d, FB=%d): %s\n",
-                    node.nivel, node.altura, fatorBalanceamento(node), node.missao));
+            sb.append(String.format("Nv%d (h=%d, FB=%d): %s%s\n",
+                    node.nivel, node.altura, fatorBalanceamento(node), node.missao,
+                    (node.balde != null) ? " (+" + node.balde.tamanho + ")" : ""));
 
             String novoPrefixo = prefixo + (isUltimo ? "    " : "│   ");
 
@@ -270,6 +1687,366 @@ public class ArvoreAVL {
         }
     }
 
+    /**
+     * Verifica todas as invariantes da árvore em uma única passada O(n):
+     * ordenação estrita das chaves, altura, agregados e balde de cada nó,
+     * |FB| ≤ 1 e contadores de níveis e de missões iguais aos reais.
+     * @throws IllegalStateException descrevendo a primeira violação encontrada
+     */
+    public void validar() {
+        int[] nos = new int[2];
+        validarRecursivo(raiz, Long.MIN_VALUE, Long.MAX_VALUE, nos);
+        if (nos[0] != totalNiveis) {
+            throw new IllegalStateException(
+                    "totalNiveis = " + totalNiveis + ", mas a árvore tem " + nos[0] + " nós");
+        }
+        if (nos[1] != missoesNosBaldes) {
+            throw new IllegalStateException(
+                    "missoesNosBaldes = " + missoesNosBaldes + ", mas os baldes têm " + nos[1] + " missões");
+        }
+    }
+
+    /**
+     * Valida a subárvore e retorna sua altura real; o total de nós é acumulado
+     * em contador[0] e o de missões nos baldes em contador[1]
+     */
+    private int validarRecursivo(Node node, long minimo, long maximo, int[] contador) {
+        if (node == null) {
+            return 0;
+        }
+        if (node.nivel <= minimo || node.nivel >= maximo) {
+            throw new IllegalStateException("Nível " + node.nivel + " fora da ordem (esperado entre "
+                    + minimo + " e " + maximo + ")");
+        }
+        if (node.epoca > epocaAtual) {
+            throw new IllegalStateException("Nível " + node.nivel + " com época futura " + node.epoca);
+        }
+
+        int alturaEsquerda = validarRecursivo(node.esquerda, minimo, node.nivel, contador);
+        int alturaDireita = validarRecursivo(node.direita, node.nivel, maximo, contador);
+        contador[0]++;
+        if (node.balde != null) {
+            // Sequências crescentes (busca binária), todas posteriores à da principal
+            BaldeMissoes balde = node.balde;
+            if (balde.tamanho == 0 || balde.epoca > epocaAtual) {
+                throw new IllegalStateException("Nível " + node.nivel + " com balde vazio ou de época futura");
+            }
+            int anterior = node.sequencia;
+            for (int i = 0; i < balde.tamanho; i++) {
+                if (balde.sequencias[i] <= anterior || balde.missoes[i] == null) {
+                    throw new IllegalStateException("Nível " + node.nivel + " com balde fora de ordem na posição " + i);
+                }
+                anterior = balde.sequencias[i];
+            }
+            contador[1] += balde.tamanho;
+        }
+
+        int alturaReal = 1 + Math.max(alturaEsquerda, alturaDireita);
+        if (node.altura != alturaReal) {
+            throw new IllegalStateException("Nível " + node.nivel + " com altura " + node.altura
+                    + ", mas a altura real é " + alturaReal);
+        }
+        if (Math.abs(alturaEsquerda - alturaDireita) > 1) {
+            throw new IllegalStateException("Nível " + node.nivel + " desbalanceado (FB = "
+                    + (alturaEsquerda - alturaDireita) + ")");
+        }
+        // As somas dos filhos já foram conferidas na recursão
+        long somaReal = somaPesos(node.esquerda) + node.peso + somaPesos(node.direita);
+        if (node.peso < 0 || node.somaPesos != somaReal) {
+            throw new IllegalStateException("Nível " + node.nivel + " com soma de pesos " + node.somaPesos
+                    + ", mas a soma real é " + somaReal + " (peso " + node.peso + ")");
+        }
+        // Recalcula em um nó avulso (época -1: nunca reaproveita o RecompensasNo do nó real)
+        Node esperado = new Node(node.nivel, null);
+        esperado.recompensas = new RecompensasNo(-1, xp(node), ouro(node));
+        atualizarRecompensas(esperado, node.esquerda, node.direita);
+        RecompensasNo r = node.recompensas;
+        RecompensasNo e = esperado.recompensas;
+        if (xp(node) < 0 || ouro(node) < 0 || (r == null) != (e == null)
+                || (r != null && (r.somaXp != e.somaXp || r.somaOuro != e.somaOuro
+                        || r.minXp != e.minXp || r.maxXp != e.maxXp
+                        || r.minOuro != e.minOuro || r.maxOuro != e.maxOuro))) {
+            throw new IllegalStateException("Nível " + node.nivel + " com agregados de recompensa divergentes ("
+                    + descreverRecompensas(r) + "; esperado " + descreverRecompensas(e) + ")");
+        }
+        return alturaReal;
+    }
+
+    private static String descreverRecompensas(RecompensasNo r) {
+        if (r == null) {
+            return "sem recompensas";
+        }
+        return "xp " + r.somaXp + " [" + r.minXp + ", " + r.maxXp + "], ouro " + r.somaOuro
+                + " [" + r.minOuro + ", " + r.maxOuro + "]";
+    }
+
+    // ==================== SORTEIO PONDERADO ====================
+
+    /**
+     * Define o peso de uma missão no sorteio ponderado (padrão 1; 0 a exclui).
+     * Atualiza as somas no caminho até a raiz: O(log n).
+     * Atualizar a descrição de um nível mantém o seu peso.
+     * @return true se a missão existe, false caso contrário
+     */
+    public boolean definirPeso(int nivel, int peso) {
+        if (peso < 0) {
+            throw new IllegalArgumentException("Peso não pode ser negativo: " + peso);
+        }
+        Node node = buscarNo(nivel);
+        if (node == null) {
+            return false;
+        }
+        if (node.peso != peso) {
+            raiz = definirAtributosRecursivo(raiz, nivel, peso, xp(node), ouro(node));
+        }
+        return true;
+    }
+
+    /**
+     * Grava peso e recompensas do nível (que deve existir), copiando o
+     * caminho e recalculando os agregados até a raiz
+     */
+    private Node definirAtributosRecursivo(Node node, int nivel, int peso, int xp, int ouro) {
+        node = mutavel(node);
+        if (nivel < node.nivel) {
+            node.esquerda = definirAtributosRecursivo(node.esquerda, nivel, peso, xp, ouro);
+        } else if (nivel > node.nivel) {
+            node.direita = definirAtributosRecursivo(node.direita, nivel, peso, xp, ouro);
+        } else {
+            node.peso = peso;
+            definirRecompensasProprias(node, xp, ouro);
+        }
+        atualizarAltura(node);
+        return node;
+    }
+
+    /**
+     * Retorna o peso de uma missão ou -1 se ela não existe
+     */
+    public int getPeso(int nivel) {
+        Node node = buscarNo(nivel);
+        return (node != null) ? node.peso : -1;
+    }
+
+    /**
+     * Retorna a soma dos pesos de todas as missões
+     */
+    public long getPesoTotal() {
+        return somaPesos(raiz);
+    }
+
+    /**
+     * Sorteia um nível com probabilidade proporcional ao peso da missão,
+     * descendo uma vez pela árvore guiado pelas somas das subárvores:
+     * O(log n), sem alocação.
+     * @return Nível sorteado
+     * @throws NoSuchElementException se não há missões com peso positivo
+     */
+    public int sortearPonderado(Random rng) {
+        long total = somaPesos(raiz);
+        if (total == 0) {
+            throw new NoSuchElementException("Nenhuma missão com peso positivo");
+        }
+        return localizarPorPeso(sortearAte(rng, total));
+    }
+
+    /**
+     * Sorteia k níveis (com reposição) para o vetor de destino, O(log n) cada
+     * e sem alocação.
+     * @param destino Vetor com pelo menos k posições
+     * @param k Quantidade de sorteios
+     * @throws NoSuchElementException se não há missões com peso positivo
+     */
+    public void sortearPonderado(Random rng, int[] destino, int k) {
+        long total = somaPesos(raiz);
+        if (k > 0 && total == 0) {
+            throw new NoSuchElementException("Nenhuma missão com peso positivo");
+        }
+        for (int i = 0; i < k; i++) {
+            destino[i] = localizarPorPeso(sortearAte(rng, total));
+        }
+    }
+
+    /**
+     * Encontra o nível cuja faixa acumulada de pesos (em ordem) contém o alvo
+     */
+    private int localizarPorPeso(long alvo) {
+        Node node = raiz;
+        while (true) {
+            long esquerda = somaPesos(node.esquerda);
+            if (alvo < esquerda) {
+                node = node.esquerda;
+            } else if (alvo < esquerda + node.peso) {
+                return node.nivel;
+            } else {
+                alvo -= esquerda + node.peso;
+                node = node.direita;
+            }
+        }
+    }
+
+    /**
+     * Inteiro uniforme em [0, limite), sem viés (Random.nextLong(limite) só existe a partir do Java 17)
+     */
+    private static long sortearAte(Random rng, long limite) {
+        long bits;
+        long valor;
+        do {
+            bits = rng.nextLong() >>> 1;
+            valor = bits % limite;
+        } while (bits - valor + (limite - 1) < 0);
+        return valor;
+    }
+
+    // ==================== RECOMPENSAS ====================
+
+    /**
+     * Define as recompensas de uma missão (padrão 0 e 0).
+     * Atualiza os agregados no caminho até a raiz: O(log n).
+     * Atualizar a descrição de um nível mantém suas recompensas.
+     * @return true se a missão existe, false caso contrário
+     */
+    public boolean definirRecompensa(int nivel, int xp, int ouro) {
+        if (xp < 0 || ouro < 0) {
+            throw new IllegalArgumentException("Recompensas não podem ser negativas: xp " + xp + ", ouro " + ouro);
+        }
+        Node node = buscarNo(nivel);
+        if (node == null) {
+            return false;
+        }
+        if (xp(node) != xp || ouro(node) != ouro) {
+            raiz = definirAtributosRecursivo(raiz, nivel, node.peso, xp, ouro);
+        }
+        return true;
+    }
+
+    /**
+     * Retorna o xp de uma missão ou -1 se ela não existe
+     */
+    public int getXp(int nivel) {
+        Node node = buscarNo(nivel);
+        return (node != null) ? xp(node) : -1;
+    }
+
+    /**
+     * Retorna o ouro de uma missão ou -1 se ela não existe
+     */
+    public int getOuro(int nivel) {
+        Node node = buscarNo(nivel);
+        return (node != null) ? ouro(node) : -1;
+    }
+
+    /**
+     * Soma, mínimo e máximo de xp e ouro das missões com nível em [de, ate].
+     * Usa os agregados das subárvores: desce até o primeiro nó dentro da
+     * faixa e depois percorre só as duas bordas, O(log n).
+     */
+    public ResumoRecompensas resumirRecompensas(int de, int ate) {
+        ResumoRecompensas resumo = new ResumoRecompensas();
+        Node node = raiz;
+        while (node != null && (node.nivel < de || node.nivel > ate)) {
+            node = (node.nivel < de) ? node.direita : node.esquerda;
+        }
+        if (node == null) {
+            return resumo;
+        }
+        resumo.acumular(node);
+
+        // Borda esquerda: nós a partir de "de" entram com toda a subárvore direita
+        Node atual = node.esquerda;
+        while (atual != null) {
+            if (atual.nivel >= de) {
+                resumo.acumular(atual);
+                resumo.acumularSubarvore(atual.direita);
+                atual = atual.esquerda;
+            } else {
+                atual = atual.direita;
+            }
+        }
+        // Borda direita: nós até "ate" entram com toda a subárvore esquerda
+        atual = node.direita;
+        while (atual != null) {
+            if (atual.nivel <= ate) {
+                resumo.acumular(atual);
+                resumo.acumularSubarvore(atual.esquerda);
+                atual = atual.direita;
+            } else {
+                atual = atual.esquerda;
+            }
+        }
+        return resumo;
+    }
+
+    // ==================== EXPIRAÇÃO ====================
+
+    /**
+     * Retorna a roda, criando-a no instante informado se ainda não existe
+     */
+    private RodaTemporizacao obterRoda(long agora) {
+        if (roda == null) {
+            roda = new RodaTemporizacao(agora);
+        }
+        return roda;
+    }
+
+    /**
+     * Agenda (ou reagenda) a expiração de uma missão existente para o
+     * instante agora + ttl
+     * @param ttl Tempo de vida (mínimo 1)
+     * @param agora Instante atual, no mesmo relógio passado a expirar
+     * @return true se a missão existe, false caso contrário
+     */
+    public boolean definirExpiracao(int nivel, long ttl, long agora) {
+        if (buscarNo(nivel) == null) {
+            return false;
+        }
+        obterRoda(agora).agendar(nivel, agora + Math.max(1, ttl));
+        return true;
+    }
+
+    /**
+     * Torna a missão permanente novamente
+     * @return true se havia expiração agendada
+     */
+    public boolean cancelarExpiracao(int nivel) {
+        return roda != null && roda.cancelar(nivel);
+    }
+
+    /**
+     * Retorna o instante em que a missão expira ou -1 se ela não expira
+     */
+    public long getExpiracao(int nivel) {
+        return (roda != null) ? roda.expiracao(nivel) : -1;
+    }
+
+    /**
+     * Retorna quantas expirações estão agendadas
+     */
+    public int getExpiracoesPendentes() {
+        return (roda != null) ? roda.getPendentes() : 0;
+    }
+
+    /**
+     * Avança o relógio de expiração e remove, em um único lote, as missões
+     * vencidas até o instante informado. O custo não depende de quantas
+     * expirações estão pendentes, só de quantas vencem.
+     * Os prazos são absolutos (o instante passado ao agendar mais o tempo
+     * de vida). inserir, definirExpiracao e este método devem receber
+     * instantes do mesmo relógio, que não retrocede; instantes anteriores
+     * ao último já processado são ignorados.
+     * As expirações não fazem parte das versões do histórico: uma missão
+     * restaurada por desfazer expira se ainda houver expiração agendada.
+     * @param agora Instante atual (na unidade escolhida, ex.: milissegundos)
+     * @return Quantidade de níveis removidos (cada um com todas as suas missões)
+     */
+    public int expirar(long agora) {
+        if (roda == null) {
+            return 0;
+        }
+        int vencidas = roda.avancar(agora);
+        return (vencidas > 0) ? removerEmLote(roda.getExpiradas(), vencidas) : 0;
+    }
+
     /**
      * Verifica se a árvore está vazia
      */
@@ -278,10 +2055,32 @@ public class ArvoreAVL {
     }
 
     /**
-     * Retorna o total de missões
+     * Retorna a raiz (uso interno do pacote: relatórios e ferramentas)
+     */
+    Node getRaiz() {
+        return raiz;
+    }
+
+    /**
+     * Retorna o total de missões (a principal e as adicionais de cada nível)
      */
     public int getTotalMissoes() {
-        return totalMissoes;
+        return totalNiveis + missoesNosBaldes;
+    }
+
+    /**
+     * Retorna o total de níveis distintos (nós da árvore)
+     */
+    public int getTotalNiveis() {
+        return totalNiveis;
+    }
+
+    /**
+     * Retorna quantos nós as escritas já copiaram por pertencerem a uma
+     * versão congelada (histórico, checkpoint ou capturarVersao)
+     */
+    public long getCopiasNaEscrita() {
+        return copiasNaEscrita;
     }
 
     /**
@@ -289,6 +2088,12 @@ public class ArvoreAVL {
      */
     public void limpar() {
         raiz = null;
-        totalMissoes = 0;
+        totalNiveis = 0;
+        missoesNosBaldes = 0;
+        if (roda != null) {
+            roda.limpar();
+        }
+        emitir(EventoArvore.Tipo.LIMPEZA, 0, null);
+        entregarEventos();
     }
 }
\ No newline at end of file
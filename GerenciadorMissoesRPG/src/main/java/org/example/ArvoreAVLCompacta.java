@@ -0,0 +1,275 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Variante compacta da árvore AVL de missões.
+ *
+ * Em vez de um objeto Node por missão, os nós ficam em vetores paralelos
+ * (estrutura de vetores) e os filhos são índices int:
+ * - chaveAltura: nível nos 32 bits altos e altura no byte baixo (um long)
+ * - esquerda / direita: índices dos filhos (0 = nenhum)
+ * - missoes: descrição da missão
+ *
+ * São 20 bytes por nó, contra o cabeçalho de objeto, as referências e o
+ * alinhamento de um Node. Não suporta histórico de versões nem eventos.
+ */
+public class ArvoreAVLCompacta {
+    private static final int NENHUM = 0;   // Índice 0 é reservado como "nulo"
+
+    private long[] chaveAltura;
+    private int[] esquerda;
+    private int[] direita;
+    private String[] missoes;
+
+    private int raiz;
+    private int proximoLivre;   // Próximo índice nunca usado
+    private int listaLivres;    // Índices liberados por remoções (encadeados em esquerda)
+    private int totalMissoes;
+    private boolean removeu;
+
+    public ArvoreAVLCompacta() {
+        this(16);
+    }
+
+    /**
+     * Construtor com capacidade inicial
+     * @param capacidade Número de missões esperado
+     */
+    public ArvoreAVLCompacta(int capacidade) {
+        int tamanho = Math.max(2, capacidade + 1);
+        this.chaveAltura = new long[tamanho];
+        this.esquerda = new int[tamanho];
+        this.direita = new int[tamanho];
+        this.missoes = new String[tamanho];
+        this.raiz = NENHUM;
+        this.proximoLivre = 1;
+        this.listaLivres = NENHUM;
+        this.totalMissoes = 0;
+    }
+
+    private static long empacotar(int nivel, int altura) {
+        return ((long) nivel << 32) | (altura & 0xFF);
+    }
+
+    private int nivel(int no) {
+        return (int) (chaveAltura[no] >> 32);
+    }
+
+    private int altura(int no) {
+        return (no == NENHUM) ? 0 : (int) (chaveAltura[no] & 0xFF);
+    }
+
+    private void atualizarAltura(int no) {
+        int altura = 1 + Math.max(altura(esquerda[no]), altura(direita[no]));
+        chaveAltura[no] = (chaveAltura[no] & ~0xFFL) | altura;
+    }
+
+    private int fatorBalanceamento(int no) {
+        return (no == NENHUM) ? 0 : altura(esquerda[no]) - altura(direita[no]);
+    }
+
+    /**
+     * Aloca um índice para um novo nó, reaproveitando índices removidos
+     */
+    private int alocar(int nivel, String missao) {
+        int no;
+        if (listaLivres != NENHUM) {
+            no = listaLivres;
+            listaLivres = esquerda[no];
+        } else {
+            if (proximoLivre == chaveAltura.length) {
+                int capacidade = chaveAltura.length + (chaveAltura.length >> 1);
+                chaveAltura = Arrays.copyOf(chaveAltura, capacidade);
+                esquerda = Arrays.copyOf(esquerda, capacidade);
+                direita = Arrays.copyOf(direita, capacidade);
+                missoes = Arrays.copyOf(missoes, capacidade);
+            }
+            no = proximoLivre++;
+        }
+        chaveAltura[no] = empacotar(nivel, 1);
+        esquerda[no] = NENHUM;
+        direita[no] = NENHUM;
+        missoes[no] = missao;
+        return no;
+    }
+
+    private void liberar(int no) {
+        missoes[no] = null;
+        direita[no] = NENHUM;
+        esquerda[no] = listaLivres;
+        listaLivres = no;
+    }
+
+    private int rotacaoDireita(int y) {
+        int x = esquerda[y];
+        esquerda[y] = direita[x];
+        direita[x] = y;
+        atualizarAltura(y);
+        atualizarAltura(x);
+        return x;
+    }
+
+    private int rotacaoEsquerda(int x) {
+        int y = direita[x];
+        direita[x] = esquerda[y];
+        esquerda[y] = x;
+        atualizarAltura(x);
+        atualizarAltura(y);
+        return y;
+    }
+
+    private int balancear(int no) {
+        atualizarAltura(no);
+        int balance = fatorBalanceamento(no);
+
+        if (balance > 1) {
+            if (fatorBalanceamento(esquerda[no]) < 0) {
+                esquerda[no] = rotacaoEsquerda(esquerda[no]);
+            }
+            return rotacaoDireita(no);
+        }
+        if (balance < -1) {
+            if (fatorBalanceamento(direita[no]) > 0) {
+                direita[no] = rotacaoDireita(direita[no]);
+            }
+            return rotacaoEsquerda(no);
+        }
+        return no;
+    }
+
+    /**
+     * Insere uma nova missão na árvore (nível duplicado atualiza a missão)
+     * @param nivel Nível de dificuldade (chave)
+     * @param missao Descrição da missão
+     */
+    public void inserir(int nivel, String missao) {
+        raiz = inserirRecursivo(raiz, nivel, missao);
+    }
+
+    private int inserirRecursivo(int no, int nivel, String missao) {
+        if (no == NENHUM) {
+            totalMissoes++;
+            return alocar(nivel, missao);
+        }
+
+        int atual = nivel(no);
+        if (nivel < atual) {
+            esquerda[no] = inserirRecursivo(esquerda[no], nivel, missao);
+        } else if (nivel > atual) {
+            direita[no] = inserirRecursivo(direita[no], nivel, missao);
+        } else {
+            missoes[no] = missao;
+            return no;
+        }
+        return balancear(no);
+    }
+
+    /**
+     * Remove uma missão da árvore pelo nível
+     * @return true se removeu, false se não encontrou
+     */
+    public boolean remover(int nivel) {
+        removeu = false;
+        raiz = removerRecursivo(raiz, nivel);
+        return removeu;
+    }
+
+    private int removerRecursivo(int no, int nivel) {
+        if (no == NENHUM) {
+            return NENHUM;
+        }
+
+        int atual = nivel(no);
+        if (nivel < atual) {
+            esquerda[no] = removerRecursivo(esquerda[no], nivel);
+        } else if (nivel > atual) {
+            direita[no] = removerRecursivo(direita[no], nivel);
+        } else {
+            if (esquerda[no] == NENHUM || direita[no] == NENHUM) {
+                int filho = (esquerda[no] == NENHUM) ? direita[no] : esquerda[no];
+                liberar(no);
+                totalMissoes--;
+                removeu = true;
+                return filho;
+            }
+
+            // Nó com dois filhos: copiar o sucessor e removê-lo da direita
+            int sucessor = direita[no];
+            while (esquerda[sucessor] != NENHUM) {
+                sucessor = esquerda[sucessor];
+            }
+            int nivelSucessor = nivel(sucessor);
+            missoes[no] = missoes[sucessor];
+            chaveAltura[no] = empacotar(nivelSucessor, altura(no));
+            direita[no] = removerRecursivo(direita[no], nivelSucessor);
+        }
+        return balancear(no);
+    }
+
+    /**
+     * Busca uma missão pelo nível
+     * @return String com a missão ou null se não encontrar
+     */
+    public String buscar(int nivel) {
+        int no = raiz;
+        while (no != NENHUM) {
+            int atual = nivel(no);
+            if (nivel == atual) {
+                return String.format("[Nível %d] %s", atual, missoes[no]);
+            }
+            no = (nivel < atual) ? esquerda[no] : direita[no];
+        }
+        return null;
+    }
+
+    /**
+     * Retorna todas as missões em ordem crescente de nível
+     */
+    public String listarEmOrdem() {
+        StringBuilder sb = new StringBuilder();
+        listarEmOrdemRecursivo(raiz, sb);
+        return sb.toString();
+    }
+
+    private void listarEmOrdemRecursivo(int no, StringBuilder sb) {
+        if (no != NENHUM) {
+            listarEmOrdemRecursivo(esquerda[no], sb);
+            sb.append(String.format("[Nível %d] %s", nivel(no), missoes[no])).append("\n");
+            listarEmOrdemRecursivo(direita[no], sb);
+        }
+    }
+
+    public boolean estaVazia() {
+        return raiz == NENHUM;
+    }
+
+    public int getTotalMissoes() {
+        return totalMissoes;
+    }
+
+    /**
+     * Retorna a capacidade alocada dos vetores (em nós)
+     */
+    int getCapacidade() {
+        return chaveAltura.length;
+    }
+
+    /**
+     * Percorre as descrições armazenadas (usado no relatório de memória)
+     */
+    String[] getMissoes() {
+        return missoes;
+    }
+
+    /**
+     * Limpa todas as missões
+     */
+    public void limpar() {
+        Arrays.fill(missoes, null);
+        raiz = NENHUM;
+        proximoLivre = 1;
+        listaLivres = NENHUM;
+        totalMissoes = 0;
+    }
+}
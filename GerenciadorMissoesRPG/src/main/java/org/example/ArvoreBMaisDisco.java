@@ -0,0 +1,868 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Índice de missões em disco (árvore B+), para catálogos maiores que o heap.
+ *
+ * O arquivo é dividido em páginas de 8 KB, mapeadas em memória e acessadas
+ * por um cache de tamanho fixo (CachePaginas, com despejo pelo relógio):
+ * o heap usado é o do cache mais o filtro de Bloom (~1,2 byte por missão
+ * esperada), qualquer que seja o tamanho do catálogo. Se o catálogo passa
+ * do esperado, o filtro é reconstruído com o dobro das missões atuais.
+ * - Página 0: cabeçalho do arquivo (raiz, altura, totais)
+ * - Páginas internas: até 1021 chaves separadoras e os filhos entre elas
+ * - Folhas: vetor de entradas (nível, posição, tamanho) ordenado por nível
+ *   no início da página e as descrições em UTF-8 crescendo a partir do fim;
+ *   cada folha aponta para a seguinte, então percursos em ordem leem as
+ *   folhas em sequência, sem voltar aos nós internos.
+ * O filtro de Bloom fica no heap e é reconstruído ao abrir o arquivo e
+ * quando recebe mais níveis do que comporta (lendo as folhas em sequência,
+ * o que também descarta os níveis removidos): buscas e remoções de níveis
+ * ausentes quase nunca tocam as páginas.
+ *
+ * Inserções no fim da folha mais à direita (níveis crescentes, como numa
+ * carga ordenada) dividem a página deixando a esquerda 90% cheia, em vez de
+ * ao meio: as páginas ficam densas e ainda sobra espaço para inserções
+ * posteriores no meio da faixa sem dividir cada folha. A remoção não funde páginas: uma folha pode ficar vazia e é
+ * reaproveitada por inserções na mesma faixa de níveis.
+ *
+ * Não há registro de transações: sincronizar() (ou close()) grava as páginas
+ * alteradas e o cabeçalho; alterações posteriores se perdem em uma queda.
+ * Descrições são limitadas a 2000 bytes em UTF-8. Não suporta várias missões
+ * por nível, histórico de versões nem eventos. Não é thread-safe.
+ */
+public class ArvoreBMaisDisco implements AutoCloseable {
+    public static final int MAX_BYTES_MISSAO = 2000;
+
+    private static final int PAGINAS_EM_CACHE_PADRAO = 2048;          // 16 MB
+    private static final long MISSOES_ESPERADAS_PADRAO = 1_000_000L;
+
+    // Cabeçalho do arquivo (página 0)
+    private static final int MAGICO = 0x4D495353;   // "MISS"
+    private static final int FORMATO = 1;
+    private static final int ARQ_MAGICO = 0;
+    private static final int ARQ_FORMATO = 4;
+    private static final int ARQ_TAMANHO_PAGINA = 8;
+    private static final int ARQ_RAIZ = 12;
+    private static final int ARQ_TOTAL_PAGINAS = 16;
+    private static final int ARQ_ALTURA = 20;
+    private static final int ARQ_TOTAL_MISSOES = 24;
+
+    // Cabeçalho das páginas
+    private static final byte FOLHA = 1;
+    private static final byte INTERNO = 2;
+    private static final int TIPO = 0;
+    private static final int QUANTIDADE = 2;       // short
+    private static final int PROXIMA = 4;          // Folha seguinte (0 = nenhuma)
+    private static final int INICIO_DADOS = 8;     // Início das descrições (folha)
+    private static final int LIXO = 12;            // Bytes de descrições removidas (folha)
+    private static final int CABECALHO = 16;
+
+    // Folha: entradas de 8 bytes (nível, posição, tamanho) a partir do cabeçalho
+    private static final int BYTES_ENTRADA = 8;
+    // Interno: primeiro filho e depois pares (chave, filho à direita da chave)
+    private static final int PRIMEIRO_FILHO = CABECALHO;
+    private static final int PARES = CABECALHO + 4;
+    private static final int MAX_CHAVES_INTERNO = (CachePaginas.TAMANHO_PAGINA - PARES) / 8;
+    // Ocupação da página da esquerda nas divisões causadas por inserções em ordem crescente
+    private static final int PREENCHIMENTO_SEQUENCIAL = 90;
+
+    private final FileChannel canal;
+    private final CachePaginas cache;
+    private final long missoesEsperadas;   // Tamanho mínimo do filtro de Bloom
+    private FiltroBloom filtro;
+    private long niveisNoFiltro;           // Níveis adicionados desde que o filtro foi construído
+
+    private int raiz;
+    private int altura;          // Níveis de páginas (1 = só a raiz folha)
+    private int totalPaginas;
+    private long totalMissoes;
+    private long consultasEvitadas;
+
+    // Resultado da divisão de uma página, passado ao pai
+    private int separadorSubida;
+    private int paginaSubida;
+
+    // Áreas de trabalho das divisões
+    private final byte[] copia = new byte[CachePaginas.TAMANHO_PAGINA];
+    private final ByteBuffer visaoCopia = ByteBuffer.wrap(copia);
+    private final int[] chavesDivisao = new int[MAX_CHAVES_INTERNO + 1];
+    private final int[] filhosDivisao = new int[MAX_CHAVES_INTERNO + 2];
+
+    /**
+     * Abre (ou cria) o índice com o cache e o filtro padrão
+     * @param arquivo Arquivo do índice
+     */
+    public ArvoreBMaisDisco(Path arquivo) throws IOException {
+        this(arquivo, PAGINAS_EM_CACHE_PADRAO, MISSOES_ESPERADAS_PADRAO);
+    }
+
+    /**
+     * Abre (ou cria) o índice
+     * @param arquivo Arquivo do índice
+     * @param paginasEmCache Páginas de 8 KB mantidas no heap (mínimo 16)
+     * @param missoesEsperadas Tamanho esperado do catálogo, para dimensionar o filtro de Bloom
+     *                         (um catálogo maior só custa reconstruções do filtro)
+     */
+    public ArvoreBMaisDisco(Path arquivo, int paginasEmCache, long missoesEsperadas) throws IOException {
+        this.missoesEsperadas = missoesEsperadas;
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // O cabeçalho é conferido antes de mapear (mapear estende o arquivo)
+            boolean novo = canal.size() == 0;
+            if (!novo) {
+                lerCabecalho(arquivo);
+            }
+            this.cache = new CachePaginas(canal, paginasEmCache);
+            if (novo) {
+                cache.garantirSegmento(0);
+                iniciarVazia();
+                this.filtro = new FiltroBloom(missoesEsperadas);
+                gravarCabecalho();
+            } else {
+                this.filtro = new FiltroBloom(Math.max(missoesEsperadas, totalMissoes));
+                reconstruirFiltro();
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private void iniciarVazia() {
+        totalPaginas = 1;
+        raiz = alocarPagina();
+        int q = cache.fixarNova(raiz);
+        formatarFolha(cache.visao(q));
+        cache.liberar(q);
+        altura = 1;
+        totalMissoes = 0;
+    }
+
+    private void lerCabecalho(Path arquivo) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(ARQ_TOTAL_MISSOES + Long.BYTES);
+        while (cabecalho.hasRemaining()) {
+            if (canal.read(cabecalho, cabecalho.position()) < 0) {
+                break;
+            }
+        }
+        if (cabecalho.hasRemaining() || cabecalho.getInt(ARQ_MAGICO) != MAGICO
+                || cabecalho.getInt(ARQ_FORMATO) != FORMATO
+                || cabecalho.getInt(ARQ_TAMANHO_PAGINA) != CachePaginas.TAMANHO_PAGINA) {
+            throw new IOException("Arquivo não é um índice de missões compatível: " + arquivo);
+        }
+        raiz = cabecalho.getInt(ARQ_RAIZ);
+        totalPaginas = cabecalho.getInt(ARQ_TOTAL_PAGINAS);
+        altura = cabecalho.getInt(ARQ_ALTURA);
+        totalMissoes = cabecalho.getLong(ARQ_TOTAL_MISSOES);
+    }
+
+    private void gravarCabecalho() {
+        MappedByteBuffer cabecalho = cache.segmento(0);
+        cabecalho.putInt(ARQ_MAGICO, MAGICO);
+        cabecalho.putInt(ARQ_FORMATO, FORMATO);
+        cabecalho.putInt(ARQ_TAMANHO_PAGINA, CachePaginas.TAMANHO_PAGINA);
+        cabecalho.putInt(ARQ_RAIZ, raiz);
+        cabecalho.putInt(ARQ_TOTAL_PAGINAS, totalPaginas);
+        cabecalho.putInt(ARQ_ALTURA, altura);
+        cabecalho.putLong(ARQ_TOTAL_MISSOES, totalMissoes);
+    }
+
+    /**
+     * Percorre as folhas em sequência e adiciona todos os níveis ao filtro
+     */
+    private void reconstruirFiltro() {
+        niveisNoFiltro = totalMissoes;
+        int pagina = descerAteFolha(Integer.MIN_VALUE);
+        while (pagina != 0) {
+            int q = cache.fixar(pagina);
+            ByteBuffer p = cache.visao(q);
+            int n = quantidade(p);
+            for (int i = 0; i < n; i++) {
+                filtro.adicionar(chaveFolha(p, i));
+            }
+            pagina = p.getInt(PROXIMA);
+            cache.liberar(q);
+        }
+    }
+
+    private int alocarPagina() {
+        return totalPaginas++;
+    }
+
+    // ==================== LAYOUT DAS PÁGINAS ====================
+
+    private static int quantidade(ByteBuffer p) {
+        return p.getShort(QUANTIDADE) & 0xFFFF;
+    }
+
+    private static void formatarFolha(ByteBuffer p) {
+        p.put(TIPO, FOLHA);
+        p.putShort(QUANTIDADE, (short) 0);
+        p.putInt(PROXIMA, 0);
+        p.putInt(INICIO_DADOS, CachePaginas.TAMANHO_PAGINA);
+        p.putInt(LIXO, 0);
+    }
+
+    private static int chaveFolha(ByteBuffer p, int i) {
+        return p.getInt(CABECALHO + i * BYTES_ENTRADA);
+    }
+
+    private static int posicaoDados(ByteBuffer p, int i) {
+        return p.getShort(CABECALHO + i * BYTES_ENTRADA + 4) & 0xFFFF;
+    }
+
+    private static int tamanhoDados(ByteBuffer p, int i) {
+        return p.getShort(CABECALHO + i * BYTES_ENTRADA + 6) & 0xFFFF;
+    }
+
+    private static int livreContiguo(ByteBuffer p, int n) {
+        return p.getInt(INICIO_DADOS) - (CABECALHO + n * BYTES_ENTRADA);
+    }
+
+    private static int chaveInterno(ByteBuffer p, int i) {
+        return p.getInt(PARES + i * 8);
+    }
+
+    private static int filhoInterno(ByteBuffer p, int i) {
+        return (i == 0) ? p.getInt(PRIMEIRO_FILHO) : p.getInt(PARES + (i - 1) * 8 + 4);
+    }
+
+    /**
+     * Busca binária na folha
+     * @return Posição do nível ou -(ponto de inserção) - 1
+     */
+    private static int buscarNaFolha(ByteBuffer p, int n, int chave) {
+        int baixo = 0;
+        int alto = n - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int atual = chaveFolha(p, meio);
+            if (atual < chave) {
+                baixo = meio + 1;
+            } else if (atual > chave) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -(baixo + 1);
+    }
+
+    /**
+     * Índice do filho que cobre a chave: número de separadores menores ou iguais a ela
+     */
+    private static int indiceFilho(ByteBuffer p, int n, int chave) {
+        int baixo = 0;
+        int alto = n;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (chaveInterno(p, meio) <= chave) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private int descerAteFolha(int chave) {
+        int pagina = raiz;
+        for (int nivelArvore = altura; nivelArvore > 1; nivelArvore--) {
+            int q = cache.fixar(pagina);
+            ByteBuffer p = cache.visao(q);
+            pagina = filhoInterno(p, indiceFilho(p, quantidade(p), chave));
+            cache.liberar(q);
+        }
+        return pagina;
+    }
+
+    // ==================== INSERÇÃO ====================
+
+    /**
+     * Insere uma nova missão no índice (nível duplicado atualiza a missão)
+     * @param nivel Nível de dificuldade (chave)
+     * @param missao Descrição da missão (até MAX_BYTES_MISSAO bytes em UTF-8)
+     */
+    public void inserir(int nivel, String missao) {
+        byte[] dados = missao.getBytes(StandardCharsets.UTF_8);
+        if (dados.length > MAX_BYTES_MISSAO) {
+            throw new IllegalArgumentException("Descrição com " + dados.length
+                    + " bytes (máximo " + MAX_BYTES_MISSAO + ")");
+        }
+        long antes = totalMissoes;
+        if (inserirRecursivo(raiz, altura, nivel, dados, true)) {
+            int novaRaiz = alocarPagina();
+            int q = cache.fixarNova(novaRaiz);
+            ByteBuffer p = cache.visao(q);
+            p.put(TIPO, INTERNO);
+            p.putShort(QUANTIDADE, (short) 1);
+            p.putInt(PRIMEIRO_FILHO, raiz);
+            p.putInt(PARES, separadorSubida);
+            p.putInt(PARES + 4, paginaSubida);
+            cache.liberar(q);
+            raiz = novaRaiz;
+            altura++;
+        }
+        if (totalMissoes > antes) {
+            filtro.adicionar(nivel);
+            if (++niveisNoFiltro > filtro.getCapacidade()) {
+                // Acima da capacidade os falsos positivos crescem: reconstrói com folga
+                filtro = new FiltroBloom(Math.max(missoesEsperadas, 2 * totalMissoes));
+                reconstruirFiltro();
+            }
+        }
+    }
+
+    /**
+     * Insere na subárvore da página
+     * @param maisADireita true se a página está no caminho mais à direita da árvore
+     * @return true se a página foi dividida (separadorSubida e paginaSubida preenchidos)
+     */
+    private boolean inserirRecursivo(int pagina, int nivelArvore, int chave, byte[] dados, boolean maisADireita) {
+        if (nivelArvore == 1) {
+            return inserirNaFolha(pagina, chave, dados);
+        }
+        int q = cache.fixar(pagina);
+        ByteBuffer p = cache.visao(q);
+        int n = quantidade(p);
+        int i = indiceFilho(p, n, chave);
+        int filho = filhoInterno(p, i);
+        cache.liberar(q);
+
+        boolean ultimoFilho = maisADireita && i == n;
+        if (!inserirRecursivo(filho, nivelArvore - 1, chave, dados, ultimoFilho)) {
+            return false;
+        }
+        return inserirNoInterno(pagina, i, separadorSubida, paginaSubida, ultimoFilho);
+    }
+
+    private boolean inserirNaFolha(int pagina, int chave, byte[] dados) {
+        int q = cache.fixar(pagina);
+        try {
+            ByteBuffer p = cache.visao(q);
+            byte[] b = cache.bytes(q);
+            cache.marcarSujo(q);
+            int n = quantidade(p);
+            int pos = buscarNaFolha(p, n, chave);
+            if (pos >= 0) {
+                retirarDaFolha(p, b, n--, pos);
+            } else {
+                pos = -pos - 1;
+                totalMissoes++;
+            }
+
+            int necessario = BYTES_ENTRADA + dados.length;
+            if (livreContiguo(p, n) < necessario && livreContiguo(p, n) + p.getInt(LIXO) >= necessario) {
+                compactar(p, b, n);
+            }
+            if (livreContiguo(p, n) >= necessario) {
+                colocarNaFolha(p, b, n, pos, chave, dados, 0, dados.length);
+                return false;
+            }
+            dividirFolha(q, n, pos, chave, dados);
+            return true;
+        } finally {
+            cache.liberar(q);
+        }
+    }
+
+    /**
+     * Coloca a entrada na posição, com a descrição no início da área de dados
+     */
+    private static void colocarNaFolha(ByteBuffer p, byte[] b, int n, int pos, int chave,
+                                       byte[] origem, int inicio, int tamanho) {
+        int dados = p.getInt(INICIO_DADOS) - tamanho;
+        System.arraycopy(origem, inicio, b, dados, tamanho);
+        int entrada = CABECALHO + pos * BYTES_ENTRADA;
+        System.arraycopy(b, entrada, b, entrada + BYTES_ENTRADA, (n - pos) * BYTES_ENTRADA);
+        p.putInt(entrada, chave);
+        p.putShort(entrada + 4, (short) dados);
+        p.putShort(entrada + 6, (short) tamanho);
+        p.putShort(QUANTIDADE, (short) (n + 1));
+        p.putInt(INICIO_DADOS, dados);
+    }
+
+    /**
+     * Retira a entrada da posição; a descrição vira lixo, exceto se for a
+     * última gravada (no início da área de dados), que é devolvida direto
+     */
+    private static void retirarDaFolha(ByteBuffer p, byte[] b, int n, int pos) {
+        int dados = posicaoDados(p, pos);
+        int tamanho = tamanhoDados(p, pos);
+        if (dados == p.getInt(INICIO_DADOS)) {
+            p.putInt(INICIO_DADOS, dados + tamanho);
+        } else {
+            p.putInt(LIXO, p.getInt(LIXO) + tamanho);
+        }
+        int entrada = CABECALHO + pos * BYTES_ENTRADA;
+        System.arraycopy(b, entrada + BYTES_ENTRADA, b, entrada, (n - pos - 1) * BYTES_ENTRADA);
+        p.putShort(QUANTIDADE, (short) (n - 1));
+    }
+
+    /**
+     * Regrava as descrições juntas no fim da página, eliminando o lixo
+     */
+    private void compactar(ByteBuffer p, byte[] b, int n) {
+        System.arraycopy(b, 0, copia, 0, copia.length);
+        int dados = CachePaginas.TAMANHO_PAGINA;
+        for (int i = 0; i < n; i++) {
+            int tamanho = tamanhoDados(visaoCopia, i);
+            dados -= tamanho;
+            System.arraycopy(copia, posicaoDados(visaoCopia, i), b, dados, tamanho);
+            p.putShort(CABECALHO + i * BYTES_ENTRADA + 4, (short) dados);
+        }
+        p.putInt(INICIO_DADOS, dados);
+        p.putInt(LIXO, 0);
+    }
+
+    /**
+     * Divide a folha cheia (com n entradas) ao inserir a nova entrada na posição pos
+     */
+    private void dividirFolha(int q, int n, int pos, int chave, byte[] dados) {
+        ByteBuffer p = cache.visao(q);
+        byte[] b = cache.bytes(q);
+        int total = n + 1;
+        int proxima = p.getInt(PROXIMA);
+
+        // Entradas na esquerda: até PREENCHIMENTO_SEQUENCIAL% da página se a nova
+        // entrada vai para o fim da última folha, senão metade dos bytes de cada lado
+        int esquerda = 0;
+        int acumulado = 0;
+        if (pos == n && proxima == 0) {
+            int limite = (CachePaginas.TAMANHO_PAGINA - CABECALHO) * PREENCHIMENTO_SEQUENCIAL / 100;
+            while (esquerda < total - 1
+                    && acumulado + BYTES_ENTRADA + tamanhoVirtual(p, esquerda, pos, dados) <= limite) {
+                acumulado += BYTES_ENTRADA + tamanhoVirtual(p, esquerda, pos, dados);
+                esquerda++;
+            }
+        } else {
+            int totalBytes = 0;
+            for (int j = 0; j < total; j++) {
+                totalBytes += BYTES_ENTRADA + tamanhoVirtual(p, j, pos, dados);
+            }
+            while (esquerda < total - 1 && acumulado * 2 < totalBytes) {
+                acumulado += BYTES_ENTRADA + tamanhoVirtual(p, esquerda, pos, dados);
+                esquerda++;
+            }
+        }
+        esquerda = Math.max(1, esquerda);
+
+        System.arraycopy(b, 0, copia, 0, copia.length);
+
+        int direita = alocarPagina();
+        int qd = cache.fixarNova(direita);
+        try {
+            ByteBuffer pd = cache.visao(qd);
+            byte[] bd = cache.bytes(qd);
+            formatarFolha(pd);
+            for (int j = esquerda; j < total; j++) {
+                anexarVirtual(pd, bd, j - esquerda, j, pos, chave, dados);
+            }
+            pd.putInt(PROXIMA, proxima);
+            separadorSubida = chaveFolha(pd, 0);
+        } finally {
+            cache.liberar(qd);
+        }
+
+        if (esquerda != n || pos != n) {
+            formatarFolha(p);
+            for (int j = 0; j < esquerda; j++) {
+                anexarVirtual(p, b, j, j, pos, chave, dados);
+            }
+        }
+        p.putInt(PROXIMA, direita);
+        paginaSubida = direita;
+    }
+
+    /**
+     * Tamanho da descrição da j-ésima entrada da folha com a nova entrada inserida em pos
+     */
+    private static int tamanhoVirtual(ByteBuffer p, int j, int pos, byte[] dados) {
+        if (j == pos) {
+            return dados.length;
+        }
+        return tamanhoDados(p, (j < pos) ? j : j - 1);
+    }
+
+    /**
+     * Anexa ao fim da folha em construção a j-ésima entrada da folha original
+     * (em copia) com a nova entrada inserida em pos
+     */
+    private void anexarVirtual(ByteBuffer destino, byte[] b, int n, int j, int pos, int chave, byte[] dados) {
+        if (j == pos) {
+            colocarNaFolha(destino, b, n, n, chave, dados, 0, dados.length);
+        } else {
+            int i = (j < pos) ? j : j - 1;
+            colocarNaFolha(destino, b, n, n, chaveFolha(visaoCopia, i), copia,
+                    posicaoDados(visaoCopia, i), tamanhoDados(visaoCopia, i));
+        }
+    }
+
+    /**
+     * Insere o separador na posição i do nó interno, com o novo filho à sua direita
+     * @param sequencial true se a inserção é no fim do nó mais à direita
+     * @return true se o nó foi dividido
+     */
+    private boolean inserirNoInterno(int pagina, int i, int separador, int novoFilho, boolean sequencial) {
+        int q = cache.fixar(pagina);
+        try {
+            ByteBuffer p = cache.visao(q);
+            byte[] b = cache.bytes(q);
+            cache.marcarSujo(q);
+            int n = quantidade(p);
+            if (n < MAX_CHAVES_INTERNO) {
+                int par = PARES + i * 8;
+                System.arraycopy(b, par, b, par + 8, (n - i) * 8);
+                p.putInt(par, separador);
+                p.putInt(par + 4, novoFilho);
+                p.putShort(QUANTIDADE, (short) (n + 1));
+                return false;
+            }
+
+            int total = n + 1;
+            filhosDivisao[0] = p.getInt(PRIMEIRO_FILHO);
+            for (int k = 0; k < n; k++) {
+                chavesDivisao[k] = chaveInterno(p, k);
+                filhosDivisao[k + 1] = filhoInterno(p, k + 1);
+            }
+            System.arraycopy(chavesDivisao, i, chavesDivisao, i + 1, n - i);
+            System.arraycopy(filhosDivisao, i + 1, filhosDivisao, i + 2, n - i);
+            chavesDivisao[i] = separador;
+            filhosDivisao[i + 1] = novoFilho;
+
+            // A chave do meio sobe; em inserções sequenciais, a da posição PREENCHIMENTO_SEQUENCIAL%
+            int meio = (sequencial && i == n) ? total * PREENCHIMENTO_SEQUENCIAL / 100 : total / 2;
+            escreverInterno(p, 0, meio);
+
+            int direita = alocarPagina();
+            int qd = cache.fixarNova(direita);
+            escreverInterno(cache.visao(qd), meio + 1, total);
+            cache.liberar(qd);
+
+            separadorSubida = chavesDivisao[meio];
+            paginaSubida = direita;
+            return true;
+        } finally {
+            cache.liberar(q);
+        }
+    }
+
+    /**
+     * Escreve no nó as chaves [de, ate) da área de divisão e os filhos [de, ate]
+     */
+    private void escreverInterno(ByteBuffer p, int de, int ate) {
+        p.put(TIPO, INTERNO);
+        p.putShort(QUANTIDADE, (short) (ate - de));
+        p.putInt(PRIMEIRO_FILHO, filhosDivisao[de]);
+        for (int k = de; k < ate; k++) {
+            p.putInt(PARES + (k - de) * 8, chavesDivisao[k]);
+            p.putInt(PARES + (k - de) * 8 + 4, filhosDivisao[k + 1]);
+        }
+    }
+
+    // ==================== REMOÇÃO E BUSCA ====================
+
+    /**
+     * Remove uma missão do índice pelo nível
+     * @return true se removeu, false se não encontrou
+     */
+    public boolean remover(int nivel) {
+        if (!filtro.talvezContenha(nivel)) {
+            consultasEvitadas++;
+            return false;
+        }
+        int q = cache.fixar(descerAteFolha(nivel));
+        try {
+            ByteBuffer p = cache.visao(q);
+            int n = quantidade(p);
+            int pos = buscarNaFolha(p, n, nivel);
+            if (pos < 0) {
+                return false;
+            }
+            retirarDaFolha(p, cache.bytes(q), n, pos);
+            cache.marcarSujo(q);
+            totalMissoes--;
+            return true;
+        } finally {
+            cache.liberar(q);
+        }
+    }
+
+    /**
+     * Busca uma missão pelo nível
+     * @return String com a missão ou null se não encontrar
+     */
+    public String buscar(int nivel) {
+        if (!filtro.talvezContenha(nivel)) {
+            consultasEvitadas++;
+            return null;
+        }
+        int q = cache.fixar(descerAteFolha(nivel));
+        try {
+            ByteBuffer p = cache.visao(q);
+            int pos = buscarNaFolha(p, quantidade(p), nivel);
+            if (pos < 0) {
+                return null;
+            }
+            return String.format("[Nível %d] %s", nivel, descricao(q, pos));
+        } finally {
+            cache.liberar(q);
+        }
+    }
+
+    private String descricao(int q, int pos) {
+        ByteBuffer p = cache.visao(q);
+        return new String(cache.bytes(q), posicaoDados(p, pos), tamanhoDados(p, pos), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Percorre em ordem crescente as missões com nível entre de e ate (inclusive),
+     * seguindo o encadeamento das folhas. O índice não deve ser alterado durante o percurso.
+     * @param acao Recebe a descrição e o nível de cada missão
+     * @return Número de missões percorridas
+     */
+    public long percorrerFaixa(int de, int ate, ObjIntConsumer<String> acao) {
+        if (de > ate) {
+            return 0;
+        }
+        long percorridas = 0;
+        int pagina = descerAteFolha(de);
+        while (pagina != 0) {
+            int q = cache.fixar(pagina);
+            try {
+                ByteBuffer p = cache.visao(q);
+                int n = quantidade(p);
+                int pos = buscarNaFolha(p, n, de);
+                for (int i = (pos >= 0) ? pos : -pos - 1; i < n; i++) {
+                    int nivel = chaveFolha(p, i);
+                    if (nivel > ate) {
+                        return percorridas;
+                    }
+                    acao.accept(descricao(q, i), nivel);
+                    percorridas++;
+                }
+                pagina = p.getInt(PROXIMA);
+            } finally {
+                cache.liberar(q);
+            }
+        }
+        return percorridas;
+    }
+
+    /**
+     * Retorna todas as missões em ordem crescente de nível
+     */
+    public String listarEmOrdem() {
+        StringBuilder sb = new StringBuilder();
+        percorrerFaixa(Integer.MIN_VALUE, Integer.MAX_VALUE, (missao, nivel) ->
+                sb.append(String.format("[Nível %d] %s", nivel, missao)).append("\n"));
+        return sb.toString();
+    }
+
+    public boolean estaVazia() {
+        return totalMissoes == 0;
+    }
+
+    public long getTotalMissoes() {
+        return totalMissoes;
+    }
+
+    /**
+     * Níveis de páginas da raiz até as folhas
+     */
+    public int getAltura() {
+        return altura;
+    }
+
+    /**
+     * Páginas em uso no arquivo (incluindo o cabeçalho)
+     */
+    public int getTotalPaginas() {
+        return totalPaginas;
+    }
+
+    /**
+     * Buscas e remoções respondidas só pelo filtro de Bloom, sem ler páginas
+     */
+    public long getConsultasEvitadas() {
+        return consultasEvitadas;
+    }
+
+    public long getAcertosCache() {
+        return cache.getAcertos();
+    }
+
+    public long getFaltasCache() {
+        return cache.getFaltas();
+    }
+
+    /**
+     * Resumo das estatísticas para exibição
+     */
+    public String resumo() {
+        long acessos = cache.getAcertos() + cache.getFaltas();
+        return String.format("%,d missões em %,d páginas (altura %d, %,d MB) | "
+                        + "cache: %d quadros, %.1f%% de acertos, %,d páginas gravadas | "
+                        + "filtro de Bloom: %,d KB, %,d consultas evitadas",
+                totalMissoes, totalPaginas, altura, (long) totalPaginas * CachePaginas.TAMANHO_PAGINA >> 20,
+                cache.getQuadros(), (acessos == 0) ? 0.0 : 100.0 * cache.getAcertos() / acessos,
+                cache.getEscritas(), filtro.getBytes() >> 10, consultasEvitadas);
+    }
+
+    /**
+     * Limpa todas as missões (o arquivo mantém o tamanho e as páginas são reaproveitadas)
+     */
+    public void limpar() {
+        cache.descartar();
+        filtro.limpar();
+        niveisNoFiltro = 0;
+        iniciarVazia();
+    }
+
+    /**
+     * Grava as páginas alteradas e o cabeçalho e sincroniza o arquivo com o disco
+     */
+    public void sincronizar() {
+        gravarCabecalho();
+        cache.sincronizar();
+    }
+
+    /**
+     * Sincroniza e fecha o arquivo
+     */
+    @Override
+    public void close() throws IOException {
+        sincronizar();
+        canal.close();
+    }
+
+    // ==================== VALIDAÇÃO ====================
+
+    /**
+     * Verifica as invariantes da árvore B+: ordem e limites das chaves, folhas
+     * todas na mesma profundidade e encadeadas em ordem, layout das folhas,
+     * contagem de missões e presença no filtro de Bloom
+     * @throws IllegalStateException se alguma invariante for violada
+     */
+    public void validar() {
+        long[] contagem = new long[1];
+        int[] folhaAnterior = {0};
+        validarRecursivo(raiz, altura, Long.MIN_VALUE, Long.MAX_VALUE, contagem, folhaAnterior);
+        if (folhaAnterior[0] != 0) {
+            int q = cache.fixar(folhaAnterior[0]);
+            int proxima = cache.visao(q).getInt(PROXIMA);
+            cache.liberar(q);
+            if (proxima != 0) {
+                throw new IllegalStateException("Última folha " + folhaAnterior[0] + " aponta para " + proxima);
+            }
+        }
+        if (contagem[0] != totalMissoes) {
+            throw new IllegalStateException(
+                    "totalMissoes = " + totalMissoes + ", mas as folhas têm " + contagem[0] + " missões");
+        }
+    }
+
+    /**
+     * Valida a subárvore com chaves em [minimo, maximo)
+     */
+    private void validarRecursivo(int pagina, int nivelArvore, long minimo, long maximo,
+                                  long[] contagem, int[] folhaAnterior) {
+        if (pagina <= 0 || pagina >= totalPaginas) {
+            throw new IllegalStateException("Página " + pagina + " fora do arquivo (" + totalPaginas + " páginas)");
+        }
+        int q = cache.fixar(pagina);
+        ByteBuffer p = cache.visao(q);
+        int n = quantidade(p);
+        byte tipo = p.get(TIPO);
+        if (tipo != ((nivelArvore == 1) ? FOLHA : INTERNO)) {
+            cache.liberar(q);
+            throw new IllegalStateException("Página " + pagina + " do tipo " + tipo + " na altura " + nivelArvore);
+        }
+
+        if (nivelArvore == 1) {
+            try {
+                validarFolha(pagina, p, n, minimo, maximo);
+                if (folhaAnterior[0] != 0) {
+                    int qa = cache.fixar(folhaAnterior[0]);
+                    int proxima = cache.visao(qa).getInt(PROXIMA);
+                    cache.liberar(qa);
+                    if (proxima != pagina) {
+                        throw new IllegalStateException("Folha " + folhaAnterior[0] + " aponta para "
+                                + proxima + " em vez de " + pagina);
+                    }
+                }
+            } finally {
+                cache.liberar(q);
+            }
+            folhaAnterior[0] = pagina;
+            contagem[0] += n;
+            return;
+        }
+
+        int[] chaves = new int[n];
+        int[] filhos = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            filhos[i] = filhoInterno(p, i);
+            if (i < n) {
+                chaves[i] = chaveInterno(p, i);
+            }
+        }
+        cache.liberar(q);
+        if (n == 0 || n > MAX_CHAVES_INTERNO) {
+            throw new IllegalStateException("Página interna " + pagina + " com " + n + " chaves");
+        }
+        long anterior = minimo;
+        for (int i = 0; i <= n; i++) {
+            long proximo = (i < n) ? chaves[i] : maximo;
+            if (proximo < anterior || proximo > maximo || (i > 0 && proximo == anterior)) {
+                throw new IllegalStateException("Página interna " + pagina + " com chave " + proximo
+                        + " fora da ordem na posição " + i);
+            }
+            validarRecursivo(filhos[i], nivelArvore - 1, anterior, proximo, contagem, folhaAnterior);
+            anterior = proximo;
+        }
+    }
+
+    private void validarFolha(int pagina, ByteBuffer p, int n, long minimo, long maximo) {
+        int inicioDados = p.getInt(INICIO_DADOS);
+        if (inicioDados < CABECALHO + n * BYTES_ENTRADA || inicioDados > CachePaginas.TAMANHO_PAGINA) {
+            throw new IllegalStateException("Folha " + pagina + " com área de dados em " + inicioDados
+                    + " para " + n + " entradas");
+        }
+        long usados = 0;
+        int anterior = 0;
+        for (int i = 0; i < n; i++) {
+            int chave = chaveFolha(p, i);
+            if ((i > 0 && chave <= anterior) || chave < minimo || chave >= maximo) {
+                throw new IllegalStateException("Folha " + pagina + " com nível " + chave
+                        + " fora da ordem (esperado entre " + minimo + " e " + maximo + ")");
+            }
+            int dados = posicaoDados(p, i);
+            int tamanho = tamanhoDados(p, i);
+            if (dados < inicioDados || dados + tamanho > CachePaginas.TAMANHO_PAGINA) {
+                throw new IllegalStateException("Folha " + pagina + " com descrição do nível " + chave
+                        + " fora da área de dados");
+            }
+            if (!filtro.talvezContenha(chave)) {
+                throw new IllegalStateException("Nível " + chave + " ausente do filtro de Bloom");
+            }
+            usados += tamanho;
+            anterior = chave;
+        }
+        if (usados + p.getInt(LIXO) != CachePaginas.TAMANHO_PAGINA - inicioDados) {
+            throw new IllegalStateException("Folha " + pagina + " com " + usados + " bytes usados e "
+                    + p.getInt(LIXO) + " de lixo, mas área de dados de "
+                    + (CachePaginas.TAMANHO_PAGINA - inicioDados) + " bytes");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Missões adicionais de um nível (além da missão principal do nó).
+ *
+ * Vetores paralelos de sequências e descrições, em ordem crescente de
+ * sequência (a ordem de criação), então a busca por id é binária e a
+ * remoção preserva a ordem. Como os nós, o balde pertence a uma época:
+ * baldes de épocas anteriores fazem parte de versões congeladas e são
+ * copiados antes de qualquer alteração.
+ */
+final class BaldeMissoes {
+    final int epoca;
+    int[] sequencias;
+    String[] missoes;
+    int tamanho;
+
+    BaldeMissoes(int epoca) {
+        this.epoca = epoca;
+        this.sequencias = new int[4];
+        this.missoes = new String[4];
+    }
+
+    /**
+     * Cópia para a época informada (cópia na escrita)
+     */
+    BaldeMissoes(BaldeMissoes outro, int epoca) {
+        this.epoca = epoca;
+        this.sequencias = Arrays.copyOf(outro.sequencias, Math.max(4, outro.tamanho + 1));
+        this.missoes = Arrays.copyOf(outro.missoes, sequencias.length);
+        this.tamanho = outro.tamanho;
+    }
+
+    /**
+     * Acrescenta uma missão ao final (a sequência deve ser maior que todas as atuais)
+     */
+    void adicionar(int sequencia, String missao) {
+        if (tamanho == sequencias.length) {
+            int capacidade = tamanho + (tamanho >> 1) + 1;
+            sequencias = Arrays.copyOf(sequencias, capacidade);
+            missoes = Arrays.copyOf(missoes, capacidade);
+        }
+        sequencias[tamanho] = sequencia;
+        missoes[tamanho++] = missao;
+    }
+
+    /**
+     * Retorna a posição da sequência no balde ou -1 se ela não está presente
+     */
+    int posicao(int sequencia) {
+        int posicao = Arrays.binarySearch(sequencias, 0, tamanho, sequencia);
+        return (posicao >= 0) ? posicao : -1;
+    }
+
+    /**
+     * Retira a missão da posição, mantendo a ordem das demais
+     */
+    void retirar(int posicao) {
+        int seguintes = tamanho - posicao - 1;
+        System.arraycopy(sequencias, posicao + 1, sequencias, posicao, seguintes);
+        System.arraycopy(missoes, posicao + 1, missoes, posicao, seguintes);
+        missoes[--tamanho] = null;
+    }
+}
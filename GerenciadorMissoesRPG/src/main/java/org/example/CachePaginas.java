@@ -0,0 +1,255 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cache de páginas de tamanho fixo de um arquivo mapeado em memória.
+ *
+ * O arquivo é mapeado em segmentos de 64 MB (um MappedByteBuffer é limitado
+ * a 2 GB), criados à medida que o arquivo cresce. As páginas em uso são
+ * copiadas para quadros no heap, em número fixo: o heap ocupado não depende
+ * do tamanho do arquivo. Quando é preciso um quadro livre, o ponteiro do
+ * relógio percorre os quadros dando uma segunda chance a quem foi usado desde
+ * a última volta; quadros fixados não são escolhidos, e o quadro escolhido é
+ * copiado de volta para o mapeamento se estiver sujo.
+ *
+ * Uso: fixar (ou fixarNova), ler e alterar o quadro por visao(), marcarSujo
+ * se alterou e liberar. Não é thread-safe.
+ */
+final class CachePaginas {
+    static final int TAMANHO_PAGINA = 8192;
+    private static final int PAGINAS_POR_SEGMENTO = 8192;   // 64 MB por segmento
+    private static final long BYTES_SEGMENTO = (long) TAMANHO_PAGINA * PAGINAS_POR_SEGMENTO;
+    private static final int SEM_PAGINA = -1;
+
+    private final FileChannel canal;
+    private final List<MappedByteBuffer> segmentos = new ArrayList<>();
+
+    private final byte[][] quadros;
+    private final ByteBuffer[] visoes;
+    private final int[] paginaDoQuadro;
+    private final int[] fixacoes;
+    private final boolean[] sujo;
+    private final boolean[] referenciado;
+    private final TabelaLongLong quadroDaPagina;
+    private int ponteiro;
+
+    private long acertos;
+    private long faltas;
+    private long escritas;
+
+    /**
+     * @param canal Arquivo aberto para leitura e escrita
+     * @param quadros Número de páginas mantidas no heap (mínimo 16)
+     */
+    CachePaginas(FileChannel canal, int quadros) throws IOException {
+        int quantidade = Math.max(16, quadros);
+        this.canal = canal;
+        this.quadros = new byte[quantidade][];
+        this.visoes = new ByteBuffer[quantidade];
+        this.paginaDoQuadro = new int[quantidade];
+        this.fixacoes = new int[quantidade];
+        this.sujo = new boolean[quantidade];
+        this.referenciado = new boolean[quantidade];
+        this.quadroDaPagina = new TabelaLongLong(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            this.quadros[i] = new byte[TAMANHO_PAGINA];
+            this.visoes[i] = ByteBuffer.wrap(this.quadros[i]);
+        }
+        Arrays.fill(paginaDoQuadro, SEM_PAGINA);
+
+        long segmentosExistentes = (canal.size() + BYTES_SEGMENTO - 1) / BYTES_SEGMENTO;
+        for (long i = 0; i < segmentosExistentes; i++) {
+            mapearSegmento();
+        }
+    }
+
+    /**
+     * Páginas cobertas pelos segmentos mapeados
+     */
+    long getPaginasMapeadas() {
+        return (long) segmentos.size() * PAGINAS_POR_SEGMENTO;
+    }
+
+    /**
+     * Fixa a página em um quadro, lendo-a do mapeamento se não estiver no cache
+     * @return Índice do quadro (válido até liberar)
+     */
+    int fixar(int pagina) {
+        long quadro = quadroDaPagina.obter(pagina);
+        if (quadro != Long.MIN_VALUE) {
+            int q = (int) quadro;
+            acertos++;
+            fixacoes[q]++;
+            referenciado[q] = true;
+            return q;
+        }
+        faltas++;
+        int q = ocupar(pagina);
+        MappedByteBuffer segmento = segmento(pagina);
+        segmento.position(deslocamento(pagina));
+        segmento.get(quadros[q]);
+        return q;
+    }
+
+    /**
+     * Fixa uma página recém-alocada: o quadro é zerado (sem ler o arquivo) e já fica sujo
+     */
+    int fixarNova(int pagina) {
+        long quadro = quadroDaPagina.obter(pagina);
+        int q;
+        if (quadro != Long.MIN_VALUE) {
+            q = (int) quadro;
+            fixacoes[q]++;
+            referenciado[q] = true;
+        } else {
+            garantirSegmento(pagina);
+            q = ocupar(pagina);
+        }
+        Arrays.fill(quadros[q], (byte) 0);
+        sujo[q] = true;
+        return q;
+    }
+
+    ByteBuffer visao(int quadro) {
+        return visoes[quadro];
+    }
+
+    byte[] bytes(int quadro) {
+        return quadros[quadro];
+    }
+
+    void marcarSujo(int quadro) {
+        sujo[quadro] = true;
+    }
+
+    void liberar(int quadro) {
+        fixacoes[quadro]--;
+    }
+
+    /**
+     * Escolhe um quadro para a página pelo algoritmo do relógio e o deixa fixado
+     */
+    private int ocupar(int pagina) {
+        int q = escolherVitima();
+        if (paginaDoQuadro[q] != SEM_PAGINA) {
+            if (sujo[q]) {
+                gravar(q);
+            }
+            quadroDaPagina.remover(paginaDoQuadro[q]);
+        }
+        paginaDoQuadro[q] = pagina;
+        quadroDaPagina.colocar(pagina, q);
+        fixacoes[q] = 1;
+        referenciado[q] = true;
+        sujo[q] = false;
+        return q;
+    }
+
+    private int escolherVitima() {
+        // Duas voltas bastam para limpar todos os bits de referência
+        for (int passos = 0; passos < 2 * quadros.length; passos++) {
+            int q = ponteiro;
+            ponteiro = (ponteiro + 1 == quadros.length) ? 0 : ponteiro + 1;
+            if (fixacoes[q] > 0) {
+                continue;
+            }
+            if (referenciado[q]) {
+                referenciado[q] = false;
+                continue;
+            }
+            return q;
+        }
+        throw new IllegalStateException("Todos os " + quadros.length + " quadros do cache estão fixados");
+    }
+
+    private void gravar(int quadro) {
+        int pagina = paginaDoQuadro[quadro];
+        MappedByteBuffer segmento = segmento(pagina);
+        segmento.position(deslocamento(pagina));
+        segmento.put(quadros[quadro]);
+        sujo[quadro] = false;
+        escritas++;
+    }
+
+    /**
+     * Copia os quadros sujos para o mapeamento e o sincroniza com o disco
+     */
+    void sincronizar() {
+        for (int q = 0; q < quadros.length; q++) {
+            if (sujo[q]) {
+                gravar(q);
+            }
+        }
+        for (MappedByteBuffer segmento : segmentos) {
+            segmento.force();
+        }
+    }
+
+    /**
+     * Descarta todas as páginas do cache sem gravá-las
+     */
+    void descartar() {
+        for (int q = 0; q < quadros.length; q++) {
+            if (fixacoes[q] > 0) {
+                throw new IllegalStateException("Quadro " + q + " ainda fixado");
+            }
+            paginaDoQuadro[q] = SEM_PAGINA;
+            sujo[q] = false;
+            referenciado[q] = false;
+        }
+        quadroDaPagina.limpar();
+    }
+
+    /**
+     * Acesso direto ao mapeamento (usado para o cabeçalho do arquivo, fora do cache)
+     */
+    MappedByteBuffer segmento(int pagina) {
+        return segmentos.get(pagina / PAGINAS_POR_SEGMENTO);
+    }
+
+    static int deslocamento(int pagina) {
+        return (pagina % PAGINAS_POR_SEGMENTO) * TAMANHO_PAGINA;
+    }
+
+    /**
+     * Mapeia segmentos até cobrir a página (o arquivo cresce ao mapear)
+     */
+    void garantirSegmento(int pagina) {
+        while (pagina >= getPaginasMapeadas()) {
+            try {
+                mapearSegmento();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void mapearSegmento() throws IOException {
+        long inicio = segmentos.size() * BYTES_SEGMENTO;
+        segmentos.add(canal.map(FileChannel.MapMode.READ_WRITE, inicio, BYTES_SEGMENTO));
+    }
+
+    int getQuadros() {
+        return quadros.length;
+    }
+
+    long getAcertos() {
+        return acertos;
+    }
+
+    long getFaltas() {
+        return faltas;
+    }
+
+    long getEscritas() {
+        return escritas;
+    }
+}
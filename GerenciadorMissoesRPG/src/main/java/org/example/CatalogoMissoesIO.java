@@ -0,0 +1,804 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Importação e exportação em fluxo de catálogos de missões, em CSV ou JSON Lines.
+ *
+ * A leitura usa FileChannel sobre o próprio vetor do analisador (8 MB) e a
+ * escrita, blocos de 1 MB codificados no heap. O analisador trabalha
+ * diretamente sobre os bytes (sem regex, split ou String por linha): a única
+ * alocação por registro é a String da descrição.
+ * A importação ordena os registros e alimenta a carga em massa da árvore;
+ * a exportação percorre a árvore em ordem e escreve direto no buffer.
+ *
+ * CSV:   cabeçalho opcional, exatamente "nivel,missao" (qualquer outra primeira
+ *        linha é lida como registro); descrição entre aspas quando contém
+ *        vírgula, aspas ou quebra de linha (aspas internas duplicadas). Aspas
+ *        só delimitam um campo que começa com elas; no meio de um campo
+ *        simples são parte do texto.
+ * JSONL: um objeto por linha: {"nivel":15,"missao":"Derrotar 5 slimes"}
+ */
+public final class CatalogoMissoesIO {
+
+    /**
+     * Formatos suportados
+     */
+    public enum Formato {
+        CSV, JSONL
+    }
+
+    private static final int TAMANHO_BUFFER = 8 << 20;   // 8 MB
+
+    private CatalogoMissoesIO() {
+    }
+
+    /**
+     * Deduz o formato pela extensão do arquivo (.csv ou .jsonl/.json)
+     * @return Formato ou null se a extensão não for reconhecida
+     */
+    public static Formato detectarFormato(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase();
+        if (nome.endsWith(".csv")) {
+            return Formato.CSV;
+        }
+        if (nome.endsWith(".jsonl") || nome.endsWith(".json")) {
+            return Formato.JSONL;
+        }
+        return null;
+    }
+
+    // ==================== IMPORTAÇÃO ====================
+
+    /**
+     * Importa um catálogo para a árvore. Níveis repetidos no arquivo ficam com
+     * a última ocorrência; níveis já existentes na árvore são sobrescritos.
+     * @return Número de registros lidos do arquivo
+     */
+    public static int importar(Path arquivo, Formato formato, ArvoreAVL arvore) throws IOException {
+        return importar(arquivo, formato, arvore, false);
+    }
+
+    /**
+     * Importa um catálogo para a árvore. Em ambos os modos, a missão principal
+     * de níveis já existentes na árvore é sobrescrita.
+     * @param manterRepetidos false: níveis repetidos ficam com a última ocorrência;
+     *                        true: a primeira ocorrência de cada nível é a missão
+     *                        principal e as demais são adicionadas ao nível, na
+     *                        ordem do arquivo (o inverso da exportação)
+     * @return Número de registros lidos do arquivo
+     */
+    public static int importar(Path arquivo, Formato formato, ArvoreAVL arvore, boolean manterRepetidos)
+            throws IOException {
+        Analisador analisador = new Analisador(formato);
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            byte[] dados = new byte[TAMANHO_BUFFER];
+            int pendentes = 0;   // Bytes de um registro incompleto no início de dados
+            boolean fim = false;
+
+            while (!fim) {
+                if (pendentes == dados.length) {
+                    // Registro maior que o buffer inteiro
+                    dados = Arrays.copyOf(dados, dados.length * 2);
+                }
+                // Lê logo após o registro incompleto, direto no vetor do analisador
+                int lidos = canal.read(ByteBuffer.wrap(dados, pendentes, dados.length - pendentes));
+                int total = pendentes;
+                if (lidos < 0) {
+                    fim = true;
+                } else {
+                    total += lidos;
+                }
+
+                int consumidos = analisador.processar(dados, total, fim);
+                pendentes = total - consumidos;
+                System.arraycopy(dados, consumidos, dados, 0, pendentes);
+            }
+        }
+
+        int quantidade = analisador.quantidade;
+        if (!manterRepetidos) {
+            ordenarSemRepetidos(analisador);
+            arvore.carregarOrdenado(analisador.niveis, analisador.missoes, analisador.quantidade);
+            return quantidade;
+        }
+
+        // Primeiras ocorrências pela carga em massa; as demais, adicionadas ao nível
+        long[] chaves = ordenarPorNivel(analisador);
+        int[] niveis = new int[quantidade];
+        String[] missoes = new String[quantidade];
+        int principais = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (i == 0 || (chaves[i] >>> 32) != (chaves[i - 1] >>> 32)) {
+                int posicao = (int) chaves[i];
+                niveis[principais] = analisador.niveis[posicao];
+                missoes[principais++] = analisador.missoes[posicao];
+            }
+        }
+        arvore.iniciarLote();
+        try {
+            arvore.carregarOrdenado(niveis, missoes, principais);
+            for (int i = 1; i < quantidade; i++) {
+                if ((chaves[i] >>> 32) == (chaves[i - 1] >>> 32)) {
+                    int posicao = (int) chaves[i];
+                    arvore.adicionar(analisador.niveis[posicao], analisador.missoes[posicao]);
+                }
+            }
+        } finally {
+            arvore.finalizarLote();
+        }
+        return quantidade;
+    }
+
+    /**
+     * Ordena as posições dos registros por nível e, no mesmo nível, pela
+     * ordem do arquivo. Nível e posição são empacotados em um long
+     * (nível nos 32 bits altos, posição nos baixos).
+     */
+    private static long[] ordenarPorNivel(Analisador analisador) {
+        long[] chaves = new long[analisador.quantidade];
+        for (int i = 0; i < chaves.length; i++) {
+            chaves[i] = ((long) (analisador.niveis[i] ^ Integer.MIN_VALUE) << 32) | i;
+        }
+        Arrays.sort(chaves);
+        return chaves;
+    }
+
+    /**
+     * Ordena os registros por nível mantendo apenas a última ocorrência de cada um.
+     * Nível e posição são empacotados em um long, então a ordenação é de primitivos.
+     */
+    private static void ordenarSemRepetidos(Analisador analisador) {
+        int quantidade = analisador.quantidade;
+        int[] niveis = analisador.niveis;
+        boolean ordenado = true;
+        for (int i = 1; i < quantidade && ordenado; i++) {
+            ordenado = niveis[i] > niveis[i - 1];
+        }
+        if (ordenado) {
+            return;
+        }
+
+        long[] chaves = ordenarPorNivel(analisador);
+
+        int[] niveisOrdenados = new int[quantidade];
+        String[] missoesOrdenadas = new String[quantidade];
+        int unicos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            boolean ultimaOcorrencia = i == quantidade - 1 || (chaves[i] >>> 32) != (chaves[i + 1] >>> 32);
+            if (ultimaOcorrencia) {
+                int posicao = (int) chaves[i];
+                niveisOrdenados[unicos] = niveis[posicao];
+                missoesOrdenadas[unicos++] = analisador.missoes[posicao];
+            }
+        }
+        analisador.niveis = niveisOrdenados;
+        analisador.missoes = missoesOrdenadas;
+        analisador.quantidade = unicos;
+    }
+
+    /**
+     * Analisador incremental de registros sobre um vetor de bytes
+     */
+    private static final class Analisador {
+        private final Formato formato;
+        int[] niveis = new int[1024];
+        String[] missoes = new String[1024];
+        int quantidade;
+
+        private byte[] texto = new byte[256];   // Descrição com escapes resolvidos
+        private long linha;
+        private boolean primeiroRegistro = true;
+
+        // Resultado do registro corrente
+        private int nivel;
+        private String missao;
+        private int fimNumero;
+
+        Analisador(Formato formato) {
+            this.formato = formato;
+        }
+
+        private IOException erro(String mensagem) {
+            return new IOException("Linha " + linha + ": " + mensagem);
+        }
+
+        /**
+         * Processa todos os registros completos em dados[0, total)
+         * @param ultimo true se não há mais dados (o resto é o último registro)
+         * @return Quantidade de bytes consumidos
+         */
+        int processar(byte[] dados, int total, boolean ultimo) throws IOException {
+            int posicao = 0;
+            while (posicao < total) {
+                int fimRegistro = encontrarFim(dados, posicao, total);
+                if (fimRegistro < 0) {
+                    if (!ultimo) {
+                        return posicao;
+                    }
+                    fimRegistro = total;
+                }
+
+                linha++;
+                int fimConteudo = fimRegistro;
+                if (fimConteudo > posicao && dados[fimConteudo - 1] == '\r') {
+                    fimConteudo--;
+                }
+                if (fimConteudo > posicao && !linhaEmBranco(dados, posicao, fimConteudo)) {
+                    analisarRegistro(dados, posicao, fimConteudo);
+                }
+                posicao = fimRegistro + 1;
+            }
+            return Math.min(posicao, total);
+        }
+
+        /**
+         * Encontra o '\n' que encerra o registro (em CSV, ignorando os que estão
+         * dentro de um campo entre aspas; uma aspa só abre um campo no início
+         * dele, e "" dentro do campo é uma aspa escapada)
+         * @return Posição do '\n' ou -1 se o registro está incompleto
+         */
+        private int encontrarFim(byte[] dados, int inicio, int total) {
+            boolean csv = formato == Formato.CSV;
+            boolean entreAspas = false;
+            boolean inicioCampo = true;
+            for (int i = inicio; i < total; i++) {
+                byte b = dados[i];
+                if (entreAspas) {
+                    if (b == '"') {
+                        if (i + 1 == total) {
+                            return -1;   // Ainda não se sabe se é "" ou o fechamento
+                        }
+                        if (dados[i + 1] == '"') {
+                            i++;
+                        } else {
+                            entreAspas = false;
+                        }
+                    }
+                    continue;
+                }
+                if (b == '\n') {
+                    return i;
+                }
+                if (csv) {
+                    entreAspas = b == '"' && inicioCampo;
+                    inicioCampo = b == ',';
+                }
+            }
+            return -1;
+        }
+
+        private boolean linhaEmBranco(byte[] dados, int inicio, int fim) {
+            for (int i = inicio; i < fim; i++) {
+                if (dados[i] != ' ' && dados[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void analisarRegistro(byte[] dados, int inicio, int fim) throws IOException {
+            if (formato == Formato.CSV) {
+                // Cabeçalho opcional: só a primeira linha, e só se for exatamente o cabeçalho
+                if (primeiroRegistro) {
+                    primeiroRegistro = false;
+                    if (igual(dados, inicio, fim, CABECALHO_CSV)) {
+                        return;
+                    }
+                }
+                analisarCsv(dados, inicio, fim);
+            } else {
+                analisarJson(dados, inicio, fim);
+            }
+            adicionar(nivel, missao);
+        }
+
+        private void adicionar(int nivel, String missao) {
+            if (quantidade == niveis.length) {
+                niveis = Arrays.copyOf(niveis, quantidade * 2);
+                missoes = Arrays.copyOf(missoes, quantidade * 2);
+            }
+            niveis[quantidade] = nivel;
+            missoes[quantidade++] = missao;
+        }
+
+        /**
+         * Lê um inteiro a partir de inicio; a posição seguinte fica em fimNumero
+         */
+        private int lerInteiro(byte[] dados, int inicio, int fim) throws IOException {
+            int i = inicio;
+            boolean negativo = false;
+            if (i < fim && (dados[i] == '-' || dados[i] == '+')) {
+                negativo = dados[i] == '-';
+                i++;
+            }
+            long valor = 0;
+            int digitos = 0;
+            while (i < fim && dados[i] >= '0' && dados[i] <= '9') {
+                valor = valor * 10 + (dados[i] - '0');
+                if (valor > (long) Integer.MAX_VALUE + 1) {
+                    throw erro("nível fora do intervalo de int");
+                }
+                digitos++;
+                i++;
+            }
+            if (digitos == 0) {
+                throw erro("nível inválido");
+            }
+            if (negativo) {
+                valor = -valor;
+            }
+            if (valor > Integer.MAX_VALUE) {
+                throw erro("nível fora do intervalo de int");
+            }
+            fimNumero = i;
+            return (int) valor;
+        }
+
+        private void garantirTexto(int tamanho) {
+            if (tamanho > texto.length) {
+                texto = Arrays.copyOf(texto, Math.max(texto.length * 2, tamanho));
+            }
+        }
+
+        private void analisarCsv(byte[] dados, int inicio, int fim) throws IOException {
+            nivel = lerInteiro(dados, inicio, fim);
+            int i = fimNumero;
+            if (i >= fim || dados[i] != ',') {
+                throw erro("esperado ',' após o nível");
+            }
+            i++;
+
+            if (i < fim && dados[i] == '"') {
+                // Campo entre aspas: "" representa uma aspa
+                int tamanho = 0;
+                garantirTexto(fim - i);
+                i++;
+                while (true) {
+                    if (i >= fim) {
+                        throw erro("aspas não fechadas");
+                    }
+                    byte b = dados[i++];
+                    if (b == '"') {
+                        if (i < fim && dados[i] == '"') {
+                            texto[tamanho++] = '"';
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        texto[tamanho++] = b;
+                    }
+                }
+                if (i < fim && dados[i] != ',') {
+                    throw erro("conteúdo após as aspas de fechamento");
+                }
+                missao = new String(texto, 0, tamanho, StandardCharsets.UTF_8);
+            } else {
+                // Campo simples: até a próxima vírgula (colunas extras são ignoradas)
+                int fimCampo = i;
+                while (fimCampo < fim && dados[fimCampo] != ',') {
+                    fimCampo++;
+                }
+                missao = new String(dados, i, fimCampo - i, StandardCharsets.UTF_8);
+            }
+        }
+
+        private int pularEspacos(byte[] dados, int i, int fim) {
+            while (i < fim && (dados[i] == ' ' || dados[i] == '\t')) {
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean igual(byte[] dados, int inicio, int fim, byte[] esperado) {
+            if (fim - inicio != esperado.length) {
+                return false;
+            }
+            for (int i = 0; i < esperado.length; i++) {
+                if (dados[inicio + i] != esperado[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static final byte[] CABECALHO_CSV = "nivel,missao".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] CHAVE_NIVEL = "nivel".getBytes(StandardCharsets.UTF_8);
+        private static final byte[] CHAVE_MISSAO = "missao".getBytes(StandardCharsets.UTF_8);
+
+        private void analisarJson(byte[] dados, int inicio, int fim) throws IOException {
+            boolean temNivel = false;
+            boolean temMissao = false;
+            int i = pularEspacos(dados, inicio, fim);
+            if (i >= fim || dados[i] != '{') {
+                throw erro("esperado '{'");
+            }
+            i = pularEspacos(dados, i + 1, fim);
+
+            while (i < fim && dados[i] != '}') {
+                // Chave (sem escapes: só comparamos com "nivel" e "missao")
+                if (dados[i] != '"') {
+                    throw erro("esperada chave entre aspas");
+                }
+                int inicioChave = i + 1;
+                int fimChave = inicioChave;
+                while (fimChave < fim && dados[fimChave] != '"') {
+                    fimChave++;
+                }
+                i = pularEspacos(dados, fimChave + 1, fim);
+                if (i >= fim || dados[i] != ':') {
+                    throw erro("esperado ':'");
+                }
+                i = pularEspacos(dados, i + 1, fim);
+
+                if (igual(dados, inicioChave, fimChave, CHAVE_NIVEL)) {
+                    nivel = lerInteiro(dados, i, fim);
+                    i = fimNumero;
+                    temNivel = true;
+                } else if (igual(dados, inicioChave, fimChave, CHAVE_MISSAO)) {
+                    i = lerTextoJson(dados, i, fim);
+                    temMissao = true;
+                } else {
+                    i = pularValorJson(dados, i, fim);
+                }
+
+                i = pularEspacos(dados, i, fim);
+                if (i < fim && dados[i] == ',') {
+                    i = pularEspacos(dados, i + 1, fim);
+                } else if (i >= fim || dados[i] != '}') {
+                    throw erro("esperado ',' ou '}'");
+                }
+            }
+            if (!temNivel || !temMissao) {
+                throw erro("registro sem \"nivel\" ou \"missao\"");
+            }
+        }
+
+        /**
+         * Lê uma string JSON para this.missao, resolvendo escapes
+         * @return Posição após a aspa de fechamento
+         */
+        private int lerTextoJson(byte[] dados, int i, int fim) throws IOException {
+            if (i >= fim || dados[i] != '"') {
+                throw erro("\"missao\" deve ser uma string");
+            }
+            i++;
+            int tamanho = 0;
+            garantirTexto(fim - i);
+            while (true) {
+                if (i >= fim) {
+                    throw erro("string não fechada");
+                }
+                byte b = dados[i++];
+                if (b == '"') {
+                    break;
+                }
+                if (b != '\\') {
+                    texto[tamanho++] = b;
+                    continue;
+                }
+                if (i >= fim) {
+                    throw erro("escape incompleto");
+                }
+                byte escape = dados[i++];
+                switch (escape) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        texto[tamanho++] = escape;
+                        break;
+                    case 'b':
+                        texto[tamanho++] = '\b';
+                        break;
+                    case 'f':
+                        texto[tamanho++] = '\f';
+                        break;
+                    case 'n':
+                        texto[tamanho++] = '\n';
+                        break;
+                    case 'r':
+                        texto[tamanho++] = '\r';
+                        break;
+                    case 't':
+                        texto[tamanho++] = '\t';
+                        break;
+                    case 'u':
+                        int codigo = lerHex(dados, i, fim);
+                        i += 4;
+                        // Par substituto (caracteres fora do plano básico)
+                        if (Character.isHighSurrogate((char) codigo) && i + 6 <= fim
+                                && dados[i] == '\\' && dados[i + 1] == 'u') {
+                            int baixo = lerHex(dados, i + 2, fim);
+                            if (Character.isLowSurrogate((char) baixo)) {
+                                codigo = Character.toCodePoint((char) codigo, (char) baixo);
+                                i += 6;
+                            }
+                        }
+                        tamanho = escreverUtf8(codigo, tamanho);
+                        break;
+                    default:
+                        throw erro("escape inválido \\" + (char) escape);
+                }
+            }
+            missao = new String(texto, 0, tamanho, StandardCharsets.UTF_8);
+            return i;
+        }
+
+        private int lerHex(byte[] dados, int i, int fim) throws IOException {
+            if (i + 4 > fim) {
+                throw erro("escape \\u incompleto");
+            }
+            int valor = 0;
+            for (int k = 0; k < 4; k++) {
+                int digito = Character.digit(dados[i + k], 16);
+                if (digito < 0) {
+                    throw erro("escape \\u inválido");
+                }
+                valor = (valor << 4) | digito;
+            }
+            return valor;
+        }
+
+        private int escreverUtf8(int codigo, int posicao) {
+            garantirTexto(posicao + 4);
+            if (codigo < 0x80) {
+                texto[posicao++] = (byte) codigo;
+            } else if (codigo < 0x800) {
+                texto[posicao++] = (byte) (0xC0 | (codigo >> 6));
+                texto[posicao++] = (byte) (0x80 | (codigo & 0x3F));
+            } else if (codigo < 0x10000) {
+                texto[posicao++] = (byte) (0xE0 | (codigo >> 12));
+                texto[posicao++] = (byte) (0x80 | ((codigo >> 6) & 0x3F));
+                texto[posicao++] = (byte) (0x80 | (codigo & 0x3F));
+            } else {
+                texto[posicao++] = (byte) (0xF0 | (codigo >> 18));
+                texto[posicao++] = (byte) (0x80 | ((codigo >> 12) & 0x3F));
+                texto[posicao++] = (byte) (0x80 | ((codigo >> 6) & 0x3F));
+                texto[posicao++] = (byte) (0x80 | (codigo & 0x3F));
+            }
+            return posicao;
+        }
+
+        /**
+         * Pula um valor JSON simples (string, número, true, false ou null)
+         */
+        private int pularValorJson(byte[] dados, int i, int fim) throws IOException {
+            if (i < fim && dados[i] == '"') {
+                i++;
+                while (i < fim && dados[i] != '"') {
+                    i += (dados[i] == '\\') ? 2 : 1;
+                }
+                if (i >= fim) {
+                    throw erro("string não fechada");
+                }
+                return i + 1;
+            }
+            if (i < fim && (dados[i] == '{' || dados[i] == '[')) {
+                throw erro("valores aninhados não são suportados");
+            }
+            while (i < fim && dados[i] != ',' && dados[i] != '}' && dados[i] != ' ') {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    // ==================== EXPORTAÇÃO ====================
+
+    /**
+     * Exporta todas as missões em ordem crescente de nível (níveis com várias
+     * missões geram um registro por missão, a principal primeiro)
+     * @return Número de missões exportadas
+     */
+    public static long exportar(ArvoreAVL arvore, Path arquivo, Formato formato) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return exportar(arvore.getRaiz(), canal, formato);
+        }
+    }
+
+    /**
+     * Exporta a (sub)árvore a partir da raiz para o canal, percorrendo em ordem
+     * com uma pilha explícita do tamanho da altura da árvore
+     */
+    static long exportar(Node raiz, FileChannel canal, Formato formato) throws IOException {
+        Escritor escritor = new Escritor(canal, formato);
+        if (formato == Formato.CSV) {
+            escritor.escreverAscii("nivel,missao\n");
+        }
+
+        long exportadas = 0;
+        Node[] pilha = new Node[(raiz == null) ? 1 : raiz.altura + 1];
+        int topo = 0;
+        Node node = raiz;
+        while (node != null || topo > 0) {
+            while (node != null) {
+                pilha[topo++] = node;
+                node = node.esquerda;
+            }
+            node = pilha[--topo];
+            escritor.escreverRegistro(node.nivel, node.missao);
+            exportadas++;
+            if (node.balde != null) {
+                for (int i = 0; i < node.balde.tamanho; i++) {
+                    escritor.escreverRegistro(node.nivel, node.balde.missoes[i]);
+                }
+                exportadas += node.balde.tamanho;
+            }
+            node = node.direita;
+        }
+
+        escritor.descarregar();
+        return exportadas;
+    }
+
+    /**
+     * Codifica registros em um bloco no heap, escrito no canal quando enche.
+     * Não há buffer direto próprio: o canal copia o bloco para o buffer
+     * temporário que a JVM reaproveita em cada thread, então uma exportação
+     * (a cada checkpoint, por exemplo) não reserva memória fora do heap.
+     */
+    private static final class Escritor {
+        private static final int TAMANHO_BLOCO = 1 << 20;   // 1 MB
+
+        private final FileChannel canal;
+        private final Formato formato;
+        private final byte[] bloco;
+        private final ByteBuffer envoltorio;   // Visão do bloco para o canal
+        private int posicao;
+
+        Escritor(FileChannel canal, Formato formato) {
+            this.canal = canal;
+            this.formato = formato;
+            this.bloco = new byte[TAMANHO_BLOCO];
+            this.envoltorio = ByteBuffer.wrap(bloco);
+        }
+
+        private void despejarBloco() throws IOException {
+            envoltorio.clear();
+            envoltorio.limit(posicao);
+            while (envoltorio.hasRemaining()) {
+                canal.write(envoltorio);
+            }
+            posicao = 0;
+        }
+
+        void descarregar() throws IOException {
+            despejarBloco();
+        }
+
+        private void garantir(int bytes) throws IOException {
+            if (posicao + bytes > bloco.length) {
+                despejarBloco();
+            }
+        }
+
+        void escreverAscii(String texto) throws IOException {
+            garantir(texto.length());
+            for (int i = 0; i < texto.length(); i++) {
+                bloco[posicao++] = (byte) texto.charAt(i);
+            }
+        }
+
+        private void escreverInt(int valor) {
+            long absoluto = Math.abs((long) valor);
+            if (valor < 0) {
+                bloco[posicao++] = '-';
+            }
+            int digitos = 1;
+            for (long limite = 10; limite <= absoluto && digitos < 10; limite *= 10) {
+                digitos++;
+            }
+            int fim = posicao + digitos;
+            for (int i = fim - 1; i >= posicao; i--) {
+                bloco[i] = (byte) ('0' + absoluto % 10);
+                absoluto /= 10;
+            }
+            posicao = fim;
+        }
+
+        void escreverRegistro(int nivel, String missao) throws IOException {
+            garantir(64);
+            if (formato == Formato.CSV) {
+                escreverInt(nivel);
+                bloco[posicao++] = ',';
+                boolean aspas = precisaAspas(missao);
+                if (aspas) {
+                    bloco[posicao++] = '"';
+                }
+                escreverTexto(missao);
+                garantir(2);
+                if (aspas) {
+                    bloco[posicao++] = '"';
+                }
+            } else {
+                escreverAscii("{\"nivel\":");
+                escreverInt(nivel);
+                escreverAscii(",\"missao\":\"");
+                escreverTexto(missao);
+                garantir(3);
+                bloco[posicao++] = '"';
+                bloco[posicao++] = '}';
+            }
+            bloco[posicao++] = '\n';
+        }
+
+        private static boolean precisaAspas(String texto) {
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Codifica o texto em UTF-8 com os escapes do formato
+         * (até 6 bytes por caractere, no escape hexadecimal do JSON)
+         */
+        private void escreverTexto(String texto) throws IOException {
+            for (int i = 0; i < texto.length(); i++) {
+                garantir(6);
+                char c = texto.charAt(i);
+                if (formato == Formato.CSV) {
+                    if (c == '"') {
+                        bloco[posicao++] = '"';
+                    }
+                } else if (c == '"' || c == '\\') {
+                    bloco[posicao++] = '\\';
+                } else if (c < 0x20) {
+                    escreverControleJson(c);
+                    continue;
+                }
+
+                if (c < 0x80) {
+                    bloco[posicao++] = (byte) c;
+                } else if (c < 0x800) {
+                    bloco[posicao++] = (byte) (0xC0 | (c >> 6));
+                    bloco[posicao++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                        && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                    int codigo = Character.toCodePoint(c, texto.charAt(++i));
+                    bloco[posicao++] = (byte) (0xF0 | (codigo >> 18));
+                    bloco[posicao++] = (byte) (0x80 | ((codigo >> 12) & 0x3F));
+                    bloco[posicao++] = (byte) (0x80 | ((codigo >> 6) & 0x3F));
+                    bloco[posicao++] = (byte) (0x80 | (codigo & 0x3F));
+                } else {
+                    bloco[posicao++] = (byte) (0xE0 | (c >> 12));
+                    bloco[posicao++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bloco[posicao++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void escreverControleJson(char c) {
+            bloco[posicao++] = '\\';
+            switch (c) {
+                case '\n':
+                    bloco[posicao++] = 'n';
+                    break;
+                case '\r':
+                    bloco[posicao++] = 'r';
+                    break;
+                case '\t':
+                    bloco[posicao++] = 't';
+                    break;
+                default:
+                    bloco[posicao++] = 'u';
+                    bloco[posicao++] = '0';
+                    bloco[posicao++] = '0';
+                    bloco[posicao++] = (byte) Character.forDigit(c >> 4, 16);
+                    bloco[posicao++] = (byte) Character.forDigit(c & 0xF, 16);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoints da árvore de missões em segundo plano, sem pausar quem a altera.
+ *
+ * Na thread que altera a árvore, salvar() apenas congela a versão atual
+ * (capturarVersao, O(1)): a partir daí as alterações copiam os nós que
+ * tocam, e a versão congelada não muda mais. Uma thread de fundo percorre
+ * essa versão e a grava no formato de catálogo (blocos grandes e
+ * sequenciais), em um arquivo temporário que é sincronizado com o disco e
+ * depois renomeado atomicamente sobre o destino — quem lê o destino vê o
+ * checkpoint anterior ou o novo, nunca um arquivo pela metade.
+ *
+ * Checkpoints pedidos enquanto outro está em andamento entram em fila, cada
+ * um com a sua versão. A classe não é thread-safe do lado de quem chama:
+ * salvar() deve ser chamado na mesma thread que altera a árvore.
+ */
+public final class CheckpointMissoes implements AutoCloseable {
+    private final ArvoreAVL arvore;
+    private final ThreadPoolExecutor executor;
+
+    // Parada do escritor (medida na thread que chama salvar)
+    private long checkpointsIniciados;
+    private long paradaTotalNanos;
+    private long paradaMaximaNanos;
+
+    // Resultado dos checkpoints (escrito pela thread de fundo)
+    private volatile long checkpointsConcluidos;
+    private volatile long falhas;
+    private volatile long ultimaDuracaoNanos;
+    private volatile long ultimosBytes;
+
+    /**
+     * @param arvore Árvore a ser salva
+     */
+    public CheckpointMissoes(ArvoreAVL arvore) {
+        this.arvore = arvore;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), tarefa -> {
+            Thread thread = new Thread(tarefa, "checkpoint-missoes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A thread já existe no primeiro salvar(), que não paga a sua criação
+        this.executor.prestartCoreThread();
+    }
+
+    /**
+     * Congela a versão atual e a grava em segundo plano
+     * @param destino Arquivo de destino (substituído atomicamente ao final)
+     * @param formato Formato de catálogo
+     * @return Futuro com o número de missões gravadas (falha com UncheckedIOException)
+     */
+    public CompletableFuture<Long> salvar(Path destino, CatalogoMissoesIO.Formato formato) {
+        long inicio = System.nanoTime();
+        ArvoreAVL.Versao versao = arvore.capturarVersao();
+        CompletableFuture<Long> futuro = CompletableFuture.supplyAsync(() -> {
+            try {
+                return gravar(versao, destino, formato);
+            } catch (IOException e) {
+                falhas++;
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+        long parada = System.nanoTime() - inicio;
+        checkpointsIniciados++;
+        paradaTotalNanos += parada;
+        paradaMaximaNanos = Math.max(paradaMaximaNanos, parada);
+        return futuro;
+    }
+
+    /**
+     * Grava a versão congelada (na thread de fundo) e publica o arquivo
+     */
+    private long gravar(ArvoreAVL.Versao versao, Path destino, CatalogoMissoesIO.Formato formato) throws IOException {
+        long inicio = System.nanoTime();
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".salvando");
+        long exportadas;
+        long bytes;
+        try {
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                exportadas = CatalogoMissoesIO.exportar(versao.raiz, canal, formato);
+                canal.force(true);
+                bytes = canal.size();
+            }
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        ultimosBytes = bytes;
+        ultimaDuracaoNanos = System.nanoTime() - inicio;
+        checkpointsConcluidos++;
+        return exportadas;
+    }
+
+    /**
+     * Checkpoints pedidos (contados na thread que chama salvar)
+     */
+    public long getCheckpointsIniciados() {
+        return checkpointsIniciados;
+    }
+
+    /**
+     * Tempo total em que o escritor ficou parado em salvar()
+     */
+    public long getParadaTotalNanos() {
+        return paradaTotalNanos;
+    }
+
+    /**
+     * Maior parada do escritor em uma chamada a salvar()
+     */
+    public long getParadaMaximaNanos() {
+        return paradaMaximaNanos;
+    }
+
+    public long getCheckpointsConcluidos() {
+        return checkpointsConcluidos;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Duração da gravação do último checkpoint concluído (em segundo plano)
+     */
+    public long getUltimaDuracaoNanos() {
+        return ultimaDuracaoNanos;
+    }
+
+    public long getUltimosBytes() {
+        return ultimosBytes;
+    }
+
+    /**
+     * Resumo das estatísticas para exibição
+     */
+    public String resumo() {
+        return String.format("Checkpoints: %d pedidos, %d concluídos, %d falhas | "
+                        + "último: %.1f ms em segundo plano, %,d bytes | "
+                        + "parada do escritor: total %.1f µs, máxima %.1f µs",
+                checkpointsIniciados, checkpointsConcluidos, falhas, ultimaDuracaoNanos / 1e6, ultimosBytes,
+                paradaTotalNanos / 1e3, paradaMaximaNanos / 1e3);
+    }
+
+    /**
+     * Aguarda os checkpoints pendentes e encerra a thread de fundo
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.example;
+
+/**
+ * Evento de alteração emitido pela árvore de missões para os ouvintes
+ */
+public final class EventoArvore {
+
+    /**
+     * Tipos de alteração
+     */
+    public enum Tipo {
+        INSERIDA,     // Nova missão em um nível vazio
+        ATUALIZADA,   // Nível duplicado - missão sobrescrita
+        REMOVIDA,     // Missão removida
+        ADICIONADA,   // Missão a mais em um nível já ocupado
+        RETIRADA,     // Missão adicional retirada de um nível que continua ocupado
+        LIMPEZA,      // Todas as missões removidas
+        ROTACAO,      // Rotação realizada durante o balanceamento
+        RESTAURADA    // Versão anterior restaurada (desfazer/refazer): a árvore inteira pode ter mudado
+    }
+
+    private final Tipo tipo;
+    private final int nivel;
+    private final String missao;
+    private final int adicionais;                // Só em REMOVIDA: missões adicionais que saíram com o nível
+    private final ArvoreAVL.Versao anterior;     // Só em RESTAURADA
+    private final ArvoreAVL.Versao restaurada;   // Só em RESTAURADA
+
+    /**
+     * Construtor do evento
+     * @param tipo Tipo de alteração
+     * @param nivel Nível afetado (raiz da subárvore no caso de rotação; 0 na limpeza)
+     * @param missao Descrição da missão após a alteração (removida, no caso de remoção)
+     */
+    public EventoArvore(Tipo tipo, int nivel, String missao) {
+        this(tipo, nivel, missao, 0, null, null);
+    }
+
+    /**
+     * Remoção de um nível que tinha missões adicionais (elas saem junto)
+     */
+    EventoArvore(int nivel, String missao, int adicionais) {
+        this(Tipo.REMOVIDA, nivel, missao, adicionais, null, null);
+    }
+
+    /**
+     * Evento de restauração: guarda as duas versões para que cada ouvinte
+     * obtenha só o que mudou entre elas (ArvoreAVL.diferencas), se precisar
+     */
+    EventoArvore(ArvoreAVL.Versao anterior, ArvoreAVL.Versao restaurada) {
+        this(Tipo.RESTAURADA, 0, null, 0, anterior, restaurada);
+    }
+
+    private EventoArvore(Tipo tipo, int nivel, String missao, int adicionais,
+                         ArvoreAVL.Versao anterior, ArvoreAVL.Versao restaurada) {
+        this.tipo = tipo;
+        this.nivel = nivel;
+        this.missao = missao;
+        this.adicionais = adicionais;
+        this.anterior = anterior;
+        this.restaurada = restaurada;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public int getNivel() {
+        return nivel;
+    }
+
+    public String getMissao() {
+        return missao;
+    }
+
+    /**
+     * Quantas missões adicionais saíram junto com o nível (só em REMOVIDA;
+     * 0 nos demais eventos)
+     */
+    public int getAdicionais() {
+        return adicionais;
+    }
+
+    /**
+     * Identificador da versão restaurada (0 se o evento não é RESTAURADA)
+     */
+    public long getVersao() {
+        return (restaurada != null) ? restaurada.id : 0;
+    }
+
+    ArvoreAVL.Versao getAnterior() {
+        return anterior;
+    }
+
+    ArvoreAVL.Versao getRestaurada() {
+        return restaurada;
+    }
+
+    @Override
+    public String toString() {
+        switch (tipo) {
+            case LIMPEZA:
+                return "LIMPEZA";
+            case ROTACAO:
+                return String.format("ROTACAO [Nível %d]", nivel);
+            case RESTAURADA:
+                return String.format("RESTAURADA [Versão %d]", getVersao());
+            default:
+                return String.format("%s [Nível %d] %s", tipo, nivel, missao);
+        }
+    }
+}
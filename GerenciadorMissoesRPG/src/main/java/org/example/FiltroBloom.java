@@ -0,0 +1,98 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Filtro de Bloom de níveis: responde "certamente ausente" ou "talvez presente".
+ *
+ * Dimensionado com cerca de 10 bits por elemento esperado e 7 bits por
+ * nível (~1% de falsos positivos); acima da capacidade a taxa de falsos
+ * positivos cresce, mas as respostas continuam corretas. Os 7 bits de um
+ * nível ficam no mesmo bloco de 512 bits (uma linha de cache de 64 bytes):
+ * cada consulta lê uma única linha, em vez de 7 posições espalhadas.
+ * Remoções não apagam bits: o nível removido continua "talvez presente".
+ */
+final class FiltroBloom {
+    private static final int BITS_POR_ELEMENTO = 10;
+    private static final int FUNCOES = 7;
+    private static final int PALAVRAS_POR_BLOCO = 8;   // 512 bits
+
+    private final long[] palavras;
+    private final long blocos;
+    private final long capacidade;
+
+    /**
+     * @param capacidade Número de elementos esperado
+     */
+    FiltroBloom(long capacidade) {
+        this.capacidade = Math.max(1, capacidade);
+        long bits = this.capacidade * BITS_POR_ELEMENTO;
+        this.blocos = Math.min((Integer.MAX_VALUE - 8) / PALAVRAS_POR_BLOCO, (bits + 511) >>> 9);
+        this.palavras = new long[(int) blocos * PALAVRAS_POR_BLOCO];
+    }
+
+    private static long hash(int nivel) {
+        long h = nivel * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Primeira palavra do bloco do nível (32 bits altos do hash reduzidos ao número de blocos)
+     */
+    private int bloco(long h) {
+        return (int) (((h >>> 32) * blocos) >>> 32) * PALAVRAS_POR_BLOCO;
+    }
+
+    /**
+     * Bits dentro do bloco: 9 bits do segundo hash para cada uma das 7 posições
+     */
+    private static long bitsDoBloco(long h) {
+        return h * 0x9E3779B97F4A7C15L;
+    }
+
+    void adicionar(int nivel) {
+        long h = hash(nivel);
+        int inicio = bloco(h);
+        long g = bitsDoBloco(h);
+        for (int i = 0; i < FUNCOES; i++, g >>>= 9) {
+            int bit = (int) g & 511;
+            palavras[inicio + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Retorna false somente se o nível certamente nunca foi adicionado
+     */
+    boolean talvezContenha(int nivel) {
+        long h = hash(nivel);
+        int inicio = bloco(h);
+        long g = bitsDoBloco(h);
+        for (int i = 0; i < FUNCOES; i++, g >>>= 9) {
+            int bit = (int) g & 511;
+            if ((palavras[inicio + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void limpar() {
+        Arrays.fill(palavras, 0L);
+    }
+
+    /**
+     * Número de elementos para o qual o filtro foi dimensionado
+     */
+    long getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Bytes ocupados pelos bits do filtro
+     */
+    long getBytes() {
+        return (long) palavras.length * Long.BYTES;
+    }
+}
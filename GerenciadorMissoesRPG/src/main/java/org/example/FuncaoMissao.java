@@ -0,0 +1,14 @@
+package org.example;
+
+/**
+ * Calcula a nova descrição de um nível a partir da atual (sem boxing do nível)
+ */
+public interface FuncaoMissao {
+
+    /**
+     * @param nivel Nível da missão
+     * @param atual Descrição atual ou null se o nível está vazio
+     * @return Nova descrição, ou null para deixar o nível vazio (remover)
+     */
+    String aplicar(int nivel, String atual);
+}
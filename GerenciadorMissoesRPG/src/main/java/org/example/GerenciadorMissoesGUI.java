@@ -1,30 +1,53 @@
 package org.example;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface Gráfica para o Gerenciador de Missões RPG usando JavaFX
  * Versão moderna e intuitiva da aplicação
  */
 public class GerenciadorMissoesGUI extends Application {
 
+    private Stage stage;
     private ArvoreAVL arvore;
+    private HistoricoMissoes historico;
     private TextArea outputArea;
     private TextField nivelField;
     private TextField missaoField;
+    private Label totalLabel;
+    private ListView<String> alteracoesList;
+    private Label rastreamentoLabel;
+
+    private final RastreamentoGUI rastreamento = new RastreamentoGUI();   // Tempos de cada ação e pulso
+
+    private CheckpointMissoes checkpoint;   // Exportação em segundo plano
+
+    private static final int MAX_ALTERACOES = 50;
 
     @Override
     public void start(Stage primaryStage) {
+        stage = primaryStage;
         arvore = new ArvoreAVL();
+        historico = new HistoricoMissoes(arvore, 100);
+        checkpoint = new CheckpointMissoes(arvore);
 
         primaryStage.setTitle("🎮 Gerenciador de Missões RPG - Árvore AVL");
 
@@ -48,8 +71,26 @@ public class GerenciadorMissoesGUI extends Application {
         VBox statsPanel = createStatsPanel();
         root.setRight(statsPanel);
 
+        // Painéis atualizados de forma incremental pelos eventos da árvore
+        arvore.adicionarOuvinte(eventos -> {
+            long inicio = System.nanoTime();
+            aplicarAlteracoes(eventos);
+            rastreamento.registrarAninhada(RastreamentoGUI.Fase.PAINEIS, System.nanoTime() - inicio);
+        });
+
         // Criar cena
         Scene scene = new Scene(root, 1200, 700);
+
+        // F3 mostra ou esconde o painel de rastreamento, como o botão
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.F3), this::alternarRastreamento);
+
+        // CSS e layout de cada pulso; o primeiro após uma ação fecha a linha do tempo dela
+        scene.addPreLayoutPulseListener(rastreamento::inicioPulso);
+        scene.addPostLayoutPulseListener(() -> {
+            if (rastreamento.fimPulso() && rastreamentoLabel.isVisible()) {
+                Platform.runLater(this::atualizarRastreamento);
+            }
+        });
         primaryStage.setScene(scene);
         primaryStage.show();
 
@@ -135,29 +176,45 @@ public class GerenciadorMissoesGUI extends Application {
         VBox box = new VBox(10);
 
         Button addButton = createStyledButton("➕ Adicionar Missão", "#4CAF50");
-        addButton.setOnAction(e -> adicionarMissao());
+        addButton.setOnAction(e -> rastrear("Adicionar", this::adicionarMissao));
 
         Button searchButton = createStyledButton("🔍 Buscar Missão", "#2196F3");
-        searchButton.setOnAction(e -> buscarMissao());
+        searchButton.setOnAction(e -> rastrear("Buscar", this::buscarMissao));
 
         Button removeButton = createStyledButton("❌ Remover Missão", "#f44336");
-        removeButton.setOnAction(e -> removerMissao());
+        removeButton.setOnAction(e -> rastrear("Remover", this::removerMissao));
 
         Button listButton = createStyledButton("📋 Listar Todas", "#FF9800");
-        listButton.setOnAction(e -> listarMissoes());
+        listButton.setOnAction(e -> rastrear("Listar", this::listarMissoes));
 
         Button visualizeButton = createStyledButton("🌳 Visualizar Árvore", "#9C27B0");
-        visualizeButton.setOnAction(e -> visualizarArvore());
+        visualizeButton.setOnAction(e -> rastrear("Visualizar", this::visualizarArvore));
 
         Button examplesButton = createStyledButton("🎮 Carregar Exemplos", "#00BCD4");
-        examplesButton.setOnAction(e -> carregarExemplos());
+        examplesButton.setOnAction(e -> rastrear("Exemplos", this::carregarExemplos));
 
         Button clearButton = createStyledButton("🗑️ Limpar Tudo", "#607D8B");
-        clearButton.setOnAction(e -> limparTudo());
+        clearButton.setOnAction(e -> rastrear("Limpar", this::limparTudo));
+
+        Button undoButton = createStyledButton("↩️ Desfazer", "#795548");
+        undoButton.setOnAction(e -> rastrear("Desfazer", this::desfazer));
+
+        Button redoButton = createStyledButton("↪️ Refazer", "#795548");
+        redoButton.setOnAction(e -> rastrear("Refazer", this::refazer));
+
+        Button importButton = createStyledButton("📥 Importar Catálogo", "#3F51B5");
+        importButton.setOnAction(e -> rastrear("Importar", this::importarCatalogo));
+
+        Button exportButton = createStyledButton("📤 Exportar Catálogo", "#3F51B5");
+        exportButton.setOnAction(e -> rastrear("Exportar", this::exportarCatalogo));
+
+        Button traceButton = createStyledButton("⏱️ Rastreamento (F3)", "#455A64");
+        traceButton.setOnAction(e -> alternarRastreamento());
 
         box.getChildren().addAll(
                 addButton, searchButton, removeButton,
-                listButton, visualizeButton, examplesButton, clearButton
+                listButton, visualizeButton, examplesButton, clearButton,
+                undoButton, redoButton, importButton, exportButton, traceButton
         );
 
         return box;
@@ -221,9 +278,27 @@ public class GerenciadorMissoesGUI extends Application {
                         "-fx-font-family: 'Courier New';" +
                         "-fx-font-size: 13px;"
         );
-        VBox.setVgrow(outputArea, Priority.ALWAYS);
 
-        panel.getChildren().addAll(outputLabel, outputArea);
+        // Painel de rastreamento sobreposto ao resultado (botão "Rastreamento" ou F3)
+        rastreamentoLabel = new Label();
+        rastreamentoLabel.setVisible(false);
+        rastreamentoLabel.setMouseTransparent(true);
+        rastreamentoLabel.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        rastreamentoLabel.setPadding(new Insets(8));
+        rastreamentoLabel.setStyle(
+                "-fx-background-color: rgba(0, 0, 0, 0.85);" +
+                        "-fx-background-radius: 5;" +
+                        "-fx-text-fill: #ffeb3b;" +
+                        "-fx-font-family: 'Courier New';" +
+                        "-fx-font-size: 10px;"
+        );
+        StackPane.setAlignment(rastreamentoLabel, Pos.BOTTOM_RIGHT);
+        StackPane.setMargin(rastreamentoLabel, new Insets(0, 20, 20, 0));
+
+        StackPane outputStack = new StackPane(outputArea, rastreamentoLabel);
+        VBox.setVgrow(outputStack, Priority.ALWAYS);
+
+        panel.getChildren().addAll(outputLabel, outputStack);
         return panel;
     }
 
@@ -248,18 +323,116 @@ public class GerenciadorMissoesGUI extends Application {
                         "⚡ Complexidades:\n\n" +
                         "• Inserção: O(log n)\n" +
                         "• Busca: O(log n)\n" +
-                        "• Remoção: O(log n)\n\n" +
-                        "🎯 Total de missões:\n" +
-                        "Será atualizado dinamicamente"
+                        "• Remoção: O(log n)"
         );
         infoLabel.setTextFill(Color.web("#e0e0e0"));
         infoLabel.setWrapText(true);
         infoLabel.setFont(Font.font("Arial", 12));
 
-        panel.getChildren().addAll(statsLabel, infoLabel);
+        totalLabel = new Label("🎯 Total de missões: 0");
+        totalLabel.setTextFill(Color.WHITE);
+        totalLabel.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+
+        Label alteracoesLabel = new Label("🕑 Últimas alterações:");
+        alteracoesLabel.setTextFill(Color.web("#e0e0e0"));
+        alteracoesLabel.setFont(Font.font("Arial", 12));
+
+        alteracoesList = new ListView<>();
+        alteracoesList.setStyle("-fx-control-inner-background: #1e1e1e; -fx-font-size: 11px;");
+        VBox.setVgrow(alteracoesList, Priority.ALWAYS);
+
+        panel.getChildren().addAll(statsLabel, infoLabel, totalLabel, alteracoesLabel, alteracoesList);
         return panel;
     }
 
+    /**
+     * Aplica um lote de alterações da árvore aos painéis, sem reconstruí-los
+     */
+    private void aplicarAlteracoes(List<EventoArvore> eventos) {
+        totalLabel.setText("🎯 Total de missões: " + arvore.getTotalMissoes());
+
+        int rotacoes = 0;
+        for (EventoArvore evento : eventos) {
+            switch (evento.getTipo()) {
+                case INSERIDA:
+                    registrarAlteracao("➕ Nv" + evento.getNivel() + ": " + evento.getMissao());
+                    break;
+                case ATUALIZADA:
+                    registrarAlteracao("✏️ Nv" + evento.getNivel() + ": " + evento.getMissao());
+                    break;
+                case REMOVIDA:
+                    registrarAlteracao("❌ Nv" + evento.getNivel() + ": " + evento.getMissao());
+                    break;
+                case ADICIONADA:
+                    registrarAlteracao("➕ Nv" + evento.getNivel() + " (adicional): " + evento.getMissao());
+                    break;
+                case RETIRADA:
+                    registrarAlteracao("❌ Nv" + evento.getNivel() + " (adicional): " + evento.getMissao());
+                    break;
+                case LIMPEZA:
+                    alteracoesList.getItems().clear();
+                    registrarAlteracao("🗑️ Árvore limpa");
+                    break;
+                case ROTACAO:
+                    rotacoes++;
+                    break;
+                case RESTAURADA:
+                    registrarAlteracao("↩️ Versão " + evento.getVersao() + " restaurada");
+                    break;
+            }
+        }
+        if (rotacoes > 0) {
+            registrarAlteracao("🔄 " + rotacoes + " rotação(ões) de balanceamento");
+        }
+    }
+
+    private void registrarAlteracao(String texto) {
+        List<String> itens = alteracoesList.getItems();
+        itens.add(0, texto);
+        if (itens.size() > MAX_ALTERACOES) {
+            itens.subList(MAX_ALTERACOES, itens.size()).clear();
+        }
+    }
+
+    /**
+     * Executa uma ação registrando sua linha do tempo; o CSS e o layout são
+     * medidos no pulso seguinte, que é solicitado aqui
+     */
+    private void rastrear(String nome, Runnable acao) {
+        rastreamento.iniciarAcao(nome);
+        try {
+            acao.run();
+        } finally {
+            rastreamento.concluirAcao();
+            Platform.requestNextPulse();
+        }
+    }
+
+    /**
+     * Mostra o resultado de uma ação; o texto já montado pelo chamador conta
+     * como formatação, e a chamada a setText é medida à parte
+     */
+    private void mostrarResultado(String texto) {
+        rastreamento.marcar(RastreamentoGUI.Fase.FORMATACAO);
+        outputArea.setText(texto);
+        rastreamento.marcar(RastreamentoGUI.Fase.TEXTO);
+        rastreamento.registrarCaracteres(texto.length());
+    }
+
+    /**
+     * Mostra ou esconde o painel de rastreamento
+     */
+    private void alternarRastreamento() {
+        rastreamentoLabel.setVisible(!rastreamentoLabel.isVisible());
+        atualizarRastreamento();
+    }
+
+    private void atualizarRastreamento() {
+        if (rastreamentoLabel.isVisible()) {
+            rastreamentoLabel.setText("⏱️ Rastreamento da interface\n" + rastreamento.resumo());
+        }
+    }
+
     /**
      * Mostra mensagem de boas-vindas
      */
@@ -300,8 +473,10 @@ public class GerenciadorMissoesGUI extends Application {
             }
 
             arvore.inserir(nivel, missaoText);
+            historico.registrar("Adicionar missão nível " + nivel);
+            rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
 
-            outputArea.setText(
+            mostrarResultado(
                     "══════════════════════════════════════════════════════════\n" +
                             "✅ MISSÃO ADICIONADA COM SUCESSO!\n" +
                             "══════════════════════════════════════════════════════════\n\n" +
@@ -333,9 +508,10 @@ public class GerenciadorMissoesGUI extends Application {
 
             int nivel = Integer.parseInt(nivelText);
             String resultado = arvore.buscar(nivel);
+            rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
 
             if (resultado != null) {
-                outputArea.setText(
+                mostrarResultado(
                         "══════════════════════════════════════════════════════════\n" +
                                 "✅ MISSÃO ENCONTRADA!\n" +
                                 "══════════════════════════════════════════════════════════\n\n" +
@@ -343,7 +519,7 @@ public class GerenciadorMissoesGUI extends Application {
                                 "⚡ Busca realizada em O(log n)\n"
                 );
             } else {
-                outputArea.setText(
+                mostrarResultado(
                         "══════════════════════════════════════════════════════════\n" +
                                 "❌ MISSÃO NÃO ENCONTRADA\n" +
                                 "══════════════════════════════════════════════════════════\n\n" +
@@ -373,7 +549,9 @@ public class GerenciadorMissoesGUI extends Application {
             boolean removido = arvore.remover(nivel);
 
             if (removido) {
-                outputArea.setText(
+                historico.registrar("Remover missão nível " + nivel);
+                rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+                mostrarResultado(
                         "══════════════════════════════════════════════════════════\n" +
                                 "✅ MISSÃO REMOVIDA COM SUCESSO!\n" +
                                 "══════════════════════════════════════════════════════════\n\n" +
@@ -396,7 +574,7 @@ public class GerenciadorMissoesGUI extends Application {
      */
     private void listarMissoes() {
         if (arvore.estaVazia()) {
-            outputArea.setText(
+            mostrarResultado(
                     "══════════════════════════════════════════════════════════\n" +
                             "📋 LISTA DE MISSÕES\n" +
                             "══════════════════════════════════════════════════════════\n\n" +
@@ -406,11 +584,14 @@ public class GerenciadorMissoesGUI extends Application {
             return;
         }
 
-        outputArea.setText(
+        String listagem = arvore.listarEmOrdem();
+        rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+
+        mostrarResultado(
                 "══════════════════════════════════════════════════════════\n" +
                         "📋 LISTA DE MISSÕES (Ordem Crescente)\n" +
                         "══════════════════════════════════════════════════════════\n\n" +
-                        arvore.listarEmOrdem() + "\n" +
+                        listagem + "\n" +
                         "──────────────────────────────────────────────────────────\n" +
                         "📊 Total: " + arvore.getTotalMissoes() + " missões cadastradas\n"
         );
@@ -421,7 +602,7 @@ public class GerenciadorMissoesGUI extends Application {
      */
     private void visualizarArvore() {
         if (arvore.estaVazia()) {
-            outputArea.setText(
+            mostrarResultado(
                     "══════════════════════════════════════════════════════════\n" +
                             "🌳 ESTRUTURA DA ÁRVORE AVL\n" +
                             "══════════════════════════════════════════════════════════\n\n" +
@@ -431,13 +612,16 @@ public class GerenciadorMissoesGUI extends Application {
             return;
         }
 
-        outputArea.setText(
+        String estrutura = arvore.visualizarArvore();
+        rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+
+        mostrarResultado(
                 "══════════════════════════════════════════════════════════\n" +
                         "🌳 ESTRUTURA DA ÁRVORE AVL\n" +
                         "══════════════════════════════════════════════════════════\n" +
                         "Legenda: Nv=Nível | h=Altura | FB=Fator de Balanceamento\n" +
                         "──────────────────────────────────────────────────────────\n\n" +
-                        arvore.visualizarArvore() + "\n" +
+                        estrutura + "\n" +
                         "──────────────────────────────────────────────────────────\n" +
                         "✅ Propriedade AVL mantida: |FB| ≤ 1 para todos os nós\n" +
                         "📊 Total de missões: " + arvore.getTotalMissoes() + "\n"
@@ -461,11 +645,15 @@ public class GerenciadorMissoesGUI extends Application {
                 {"100", "Enfrentar o dragão da montanha"}
         };
 
+        arvore.iniciarLote();
         for (String[] missao : missoes) {
             arvore.inserir(Integer.parseInt(missao[0]), missao[1]);
         }
+        arvore.finalizarLote();
+        historico.registrar("Carregar missões de exemplo");
+        rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
 
-        outputArea.setText(
+        mostrarResultado(
                 "══════════════════════════════════════════════════════════\n" +
                         "✅ MISSÕES DE EXEMPLO CARREGADAS!\n" +
                         "══════════════════════════════════════════════════════════\n\n" +
@@ -486,12 +674,15 @@ public class GerenciadorMissoesGUI extends Application {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Confirmar Limpeza");
         alert.setHeaderText("Limpar todas as missões?");
-        alert.setContentText("Esta ação não pode ser desfeita!");
+        alert.setContentText("Use 'Desfazer' para recuperar as missões, se necessário.");
 
         alert.showAndWait().ifPresent(response -> {
+            rastreamento.marcar(RastreamentoGUI.Fase.OUTROS);
             if (response == ButtonType.OK) {
                 arvore.limpar();
-                outputArea.setText(
+                historico.registrar("Limpar todas as missões");
+                rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+                mostrarResultado(
                         "══════════════════════════════════════════════════════════\n" +
                                 "✅ TODAS AS MISSÕES FORAM REMOVIDAS!\n" +
                                 "══════════════════════════════════════════════════════════\n\n" +
@@ -502,6 +693,133 @@ public class GerenciadorMissoesGUI extends Application {
         });
     }
 
+    /**
+     * Desfaz a última operação
+     */
+    private void desfazer() {
+        String operacao = historico.desfazer();
+        rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+        if (operacao == null) {
+            showError("Nada para desfazer!");
+            return;
+        }
+        mostrarResultado(
+                "══════════════════════════════════════════════════════════\n" +
+                        "↩️ OPERAÇÃO DESFEITA\n" +
+                        "══════════════════════════════════════════════════════════\n\n" +
+                        "📝 " + operacao + "\n\n" +
+                        "📊 Total de missões: " + arvore.getTotalMissoes() + "\n"
+        );
+    }
+
+    /**
+     * Refaz a última operação desfeita
+     */
+    private void refazer() {
+        String operacao = historico.refazer();
+        rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+        if (operacao == null) {
+            showError("Nada para refazer!");
+            return;
+        }
+        mostrarResultado(
+                "══════════════════════════════════════════════════════════\n" +
+                        "↪️ OPERAÇÃO REFEITA\n" +
+                        "══════════════════════════════════════════════════════════\n\n" +
+                        "📝 " + operacao + "\n\n" +
+                        "📊 Total de missões: " + arvore.getTotalMissoes() + "\n"
+        );
+    }
+
+    /**
+     * Cria o seletor de arquivos de catálogo (CSV ou JSON Lines)
+     */
+    private FileChooser createCatalogChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl", "*.json")
+        );
+        return chooser;
+    }
+
+    /**
+     * Importa um catálogo de missões
+     */
+    private void importarCatalogo() {
+        File file = createCatalogChooser("Importar Catálogo").showOpenDialog(stage);
+        rastreamento.marcar(RastreamentoGUI.Fase.OUTROS);
+        if (file == null) {
+            return;
+        }
+        CatalogoMissoesIO.Formato formato = CatalogoMissoesIO.detectarFormato(file.toPath());
+        if (formato == null) {
+            showError("Extensão não reconhecida. Use .csv ou .jsonl");
+            return;
+        }
+        try {
+            int lidas = CatalogoMissoesIO.importar(file.toPath(), formato, arvore, true);
+            historico.registrar("Importar " + file.getName());
+            rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+            mostrarResultado(
+                    "══════════════════════════════════════════════════════════\n" +
+                            "📥 CATÁLOGO IMPORTADO!\n" +
+                            "══════════════════════════════════════════════════════════\n\n" +
+                            "📄 Arquivo: " + file.getName() + "\n" +
+                            "🎮 Missões lidas: " + lidas + "\n\n" +
+                            "📊 Total de missões: " + arvore.getTotalMissoes() + "\n"
+            );
+        } catch (IOException e) {
+            showError("Erro ao importar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta o catálogo de missões
+     */
+    private void exportarCatalogo() {
+        File file = createCatalogChooser("Exportar Catálogo").showSaveDialog(stage);
+        rastreamento.marcar(RastreamentoGUI.Fase.OUTROS);
+        if (file == null) {
+            return;
+        }
+        CatalogoMissoesIO.Formato formato = CatalogoMissoesIO.detectarFormato(file.toPath());
+        if (formato == null) {
+            showError("Extensão não reconhecida. Use .csv ou .jsonl");
+            return;
+        }
+        // A versão atual é congelada aqui; a gravação não bloqueia a interface
+        CompletableFuture<Long> exportacao = checkpoint.salvar(file.toPath(), formato);
+        rastreamento.marcar(RastreamentoGUI.Fase.ARVORE);
+        mostrarResultado("📤 Exportando " + file.getName() + " em segundo plano...\n");
+        exportacao.whenComplete((exportadas, erro) -> Platform.runLater(() -> rastrear("Exportado", () -> {
+            if (erro != null) {
+                Throwable causa = (erro.getCause() != null) ? erro.getCause() : erro;
+                showError("Erro ao exportar: " + causa.getMessage());
+                return;
+            }
+            mostrarResultado(
+                    "══════════════════════════════════════════════════════════\n" +
+                            "📤 CATÁLOGO EXPORTADO!\n" +
+                            "══════════════════════════════════════════════════════════\n\n" +
+                            "📄 Arquivo: " + file.getName() + "\n" +
+                            "🎮 Missões exportadas: " + exportadas + "\n" +
+                            "⏱️ " + checkpoint.resumo() + "\n"
+            );
+        })));
+    }
+
+    /**
+     * Aguarda exportações pendentes antes de encerrar
+     */
+    @Override
+    public void stop() {
+        if (checkpoint != null) {
+            checkpoint.close();
+        }
+    }
+
     /**
      * Mostra mensagem de erro
      */
@@ -1,12 +1,25 @@
 package org.example;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class GerenciadorMissoesRPG {
     private ArvoreAVL arvore;
+    private HistoricoMissoes historico;
     private Scanner scanner;
+    private CheckpointMissoes checkpoint;
+    private final List<CompletableFuture<Long>> exportacoesPendentes = new ArrayList<>();   // Ainda não relatadas
+    private final List<Path> arquivosPendentes = new ArrayList<>();
 
     public GerenciadorMissoesRPG() {
         this.arvore = new ArvoreAVL();
+        this.historico = new HistoricoMissoes(arvore, 100);
+        this.checkpoint = new CheckpointMissoes(arvore);
         this.scanner = new Scanner(System.in);
     }
 
@@ -26,6 +39,14 @@ public class GerenciadorMissoesRPG {
         System.out.println("│ 6.  Estatísticas                           │");
         System.out.println("│ 7.  Carregar Missões de Exemplo            │");
         System.out.println("│ 8.  Limpar Todas as Missões                │");
+        System.out.println("│ 9.  Desfazer Última Operação               │");
+        System.out.println("│ 10. Refazer Operação Desfeita              │");
+        System.out.println("│ 11. Reproduzir Trace de Carga              │");
+        System.out.println("│ 12. Importar Catálogo (CSV/JSONL)          │");
+        System.out.println("│ 13. Exportar Catálogo (CSV/JSONL)          │");
+        System.out.println("│ 14. Adicionar Missão Temporária            │");
+        System.out.println("│ 15. Adicionar Missão Extra ao Nível        │");
+        System.out.println("│ 16. Remover Missão por Id                  │");
         System.out.println("│ 0.  Sair                                   │");
         System.out.println("└────────────────────────────────────────────┘");
         System.out.print("Escolha uma opção: ");
@@ -45,10 +66,86 @@ public class GerenciadorMissoesRPG {
         String descricao = scanner.nextLine();
 
         arvore.inserir(nivel, descricao);
+        historico.registrar("Adicionar missão nível " + nivel);
         System.out.println("✓ Missão adicionada com sucesso!");
         System.out.println("⚠ Árvore automaticamente balanceada!");
     }
 
+    /**
+     * Adiciona uma missão que expira após alguns segundos
+     */
+    private void adicionarMissaoTemporaria() {
+        System.out.println("\n=== ADICIONAR MISSÃO TEMPORÁRIA ===");
+
+        System.out.print("Nível de dificuldade (1-100): ");
+        int nivel = lerInteiro(1, 100);
+
+        System.out.print("Duração em segundos (1-86400): ");
+        int segundos = lerInteiro(1, 86400);
+
+        System.out.print("Descrição da missão: ");
+        scanner.nextLine(); // Limpar buffer
+        String descricao = scanner.nextLine();
+
+        arvore.inserir(nivel, descricao, segundos * 1000L, System.currentTimeMillis());
+        historico.registrar("Adicionar missão temporária nível " + nivel);
+        System.out.println("✓ Missão adicionada! Expira em " + segundos + " segundo(s).");
+    }
+
+    /**
+     * Adiciona uma missão a um nível sem substituir as que ele já tem
+     */
+    private void adicionarMissaoExtra() {
+        System.out.println("\n=== ADICIONAR MISSÃO EXTRA AO NÍVEL ===");
+
+        System.out.print("Nível de dificuldade (1-100): ");
+        int nivel = lerInteiro(1, 100);
+
+        System.out.print("Descrição da missão: ");
+        scanner.nextLine(); // Limpar buffer
+        String descricao = scanner.nextLine();
+
+        long id = arvore.adicionar(nivel, descricao);
+        historico.registrar("Adicionar missão extra nível " + nivel);
+        System.out.println("✓ Missão adicionada com id " + id + " (" + arvore.getQuantidadeNoNivel(nivel)
+                + " missão(ões) no nível " + nivel + ")");
+    }
+
+    /**
+     * Remove uma única missão pelo id
+     */
+    private void removerMissaoPorId() {
+        System.out.println("\n=== REMOVER MISSÃO POR ID ===");
+
+        System.out.print("Id da missão: ");
+        long id;
+        try {
+            id = scanner.nextLong();
+        } catch (Exception e) {
+            scanner.next();
+            System.out.println("✗ Id inválido");
+            return;
+        }
+
+        if (arvore.removerPorId(id)) {
+            historico.registrar("Remover missão " + id);
+            System.out.println("✓ Missão removida do nível " + ArvoreAVL.nivelDoId(id) + "!");
+        } else {
+            System.out.println("✗ Nenhuma missão com id " + id);
+        }
+    }
+
+    /**
+     * Remove as missões cujo prazo venceu desde a última operação
+     */
+    private void expirarMissoes() {
+        int expiradas = arvore.expirar(System.currentTimeMillis());
+        if (expiradas > 0) {
+            historico.registrar("Expiração de " + expiradas + " missão(ões)");
+            System.out.println("\n⌛ " + expiradas + " missão(ões) temporária(s) expirou(aram).");
+        }
+    }
+
     /**
      * Busca uma missão por nível
      */
@@ -61,6 +158,14 @@ public class GerenciadorMissoesRPG {
         String resultado = arvore.buscar(nivel);
         if (resultado != null) {
             System.out.println("✓ Missão encontrada: " + resultado);
+            String[] todas = arvore.buscarTodas(nivel);
+            if (todas.length > 1) {
+                long[] ids = arvore.buscarIds(nivel);
+                System.out.println("  O nível tem " + todas.length + " missões:");
+                for (int i = 0; i < todas.length; i++) {
+                    System.out.println("  [id " + ids[i] + "] " + todas[i]);
+                }
+            }
         } else {
             System.out.println("✗ Nenhuma missão encontrada no nível " + nivel);
         }
@@ -75,9 +180,12 @@ public class GerenciadorMissoesRPG {
         System.out.print("Nível da missão a remover: ");
         int nivel = lerInteiro(1, 100);
 
+        int missoesNoNivel = arvore.getQuantidadeNoNivel(nivel);
         boolean removido = arvore.remover(nivel);
         if (removido) {
-            System.out.println("✓ Missão removida com sucesso!");
+            historico.registrar("Remover missão nível " + nivel);
+            System.out.println("✓ " + (missoesNoNivel > 1 ? missoesNoNivel + " missões removidas" : "Missão removida")
+                    + " com sucesso!");
             System.out.println("⚠ Árvore automaticamente balanceada!");
         } else {
             System.out.println("✗ Nenhuma missão encontrada no nível " + nivel);
@@ -115,9 +223,18 @@ public class GerenciadorMissoesRPG {
     private void exibirEstatisticas() {
         System.out.println("\n=== ESTATÍSTICAS ===");
         System.out.println("Total de missões: " + arvore.getTotalMissoes());
+        System.out.println("Níveis distintos: " + arvore.getTotalNiveis());
         System.out.println("Status: " + (arvore.estaVazia() ? "Vazia" : "Contém dados"));
-        System.out.println("\n💡 Propriedade AVL: A árvore está sempre balanceada!");
-        System.out.println("   |Altura(esquerda) - Altura(direita)| ≤ 1 para todos os nós");
+        if (checkpoint.getCheckpointsIniciados() > 0) {
+            System.out.println(checkpoint.resumo());
+        }
+        try {
+            arvore.validar();
+            System.out.println("\n💡 Propriedade AVL verificada: a árvore está balanceada!");
+            System.out.println("   |Altura(esquerda) - Altura(direita)| ≤ 1 para todos os nós");
+        } catch (IllegalStateException e) {
+            System.out.println("\n✗ Invariante AVL violada: " + e.getMessage());
+        }
     }
 
     /**
@@ -142,6 +259,7 @@ public class GerenciadorMissoesRPG {
         for (String[] missao : missoes) {
             arvore.inserir(Integer.parseInt(missao[0]), missao[1]);
         }
+        historico.registrar("Carregar missões de exemplo");
 
         System.out.println("✓ " + missoes.length + " missões de exemplo carregadas!");
         System.out.println("⚠ Árvore balanceada automaticamente durante as inserções!");
@@ -156,12 +274,132 @@ public class GerenciadorMissoesRPG {
 
         if (resposta.equals("S")) {
             arvore.limpar();
+            historico.registrar("Limpar todas as missões");
             System.out.println("✓ Todas as missões foram removidas!");
         } else {
             System.out.println("Operação cancelada.");
         }
     }
 
+    /**
+     * Desfaz a última operação
+     */
+    private void desfazerOperacao() {
+        String operacao = historico.desfazer();
+        if (operacao != null) {
+            System.out.println("\n✓ Operação desfeita: " + operacao);
+        } else {
+            System.out.println("\n✗ Nada para desfazer.");
+        }
+    }
+
+    /**
+     * Refaz a última operação desfeita
+     */
+    private void refazerOperacao() {
+        String operacao = historico.refazer();
+        if (operacao != null) {
+            System.out.println("\n✓ Operação refeita: " + operacao);
+        } else {
+            System.out.println("\n✗ Nada para refazer.");
+        }
+    }
+
+    /**
+     * Reproduz um trace de carga (formato em ReprodutorTrace)
+     */
+    private void reproduzirTrace() {
+        System.out.println("\n=== REPRODUZIR TRACE DE CARGA ===");
+
+        System.out.print("Caminho do arquivo de trace: ");
+        scanner.nextLine(); // Limpar buffer
+        String caminho = scanner.nextLine().trim();
+
+        reproduzirTrace(caminho);
+        historico.registrar("Reproduzir trace " + caminho);
+    }
+
+    private void reproduzirTrace(String caminho) {
+        try {
+            ReprodutorTrace.ResultadoCarga resultado = ReprodutorTrace.reproduzir(Paths.get(caminho), arvore);
+            System.out.println("✓ Trace reproduzido!");
+            System.out.print(resultado);
+            System.out.println("Total de missões: " + arvore.getTotalMissoes());
+        } catch (IOException e) {
+            System.out.println("✗ Erro ao ler o trace: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lê o caminho de um catálogo e deduz o formato pela extensão
+     * @return Caminho ou null se a extensão não for reconhecida
+     */
+    private Path lerCaminhoCatalogo() {
+        System.out.print("Caminho do arquivo (.csv ou .jsonl): ");
+        scanner.nextLine(); // Limpar buffer
+        Path arquivo = Paths.get(scanner.nextLine().trim());
+        if (CatalogoMissoesIO.detectarFormato(arquivo) == null) {
+            System.out.println("✗ Extensão não reconhecida. Use .csv ou .jsonl");
+            return null;
+        }
+        return arquivo;
+    }
+
+    /**
+     * Importa um catálogo de missões
+     */
+    private void importarCatalogo() {
+        System.out.println("\n=== IMPORTAR CATÁLOGO ===");
+        Path arquivo = lerCaminhoCatalogo();
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            int lidas = CatalogoMissoesIO.importar(arquivo, CatalogoMissoesIO.detectarFormato(arquivo), arvore, true);
+            historico.registrar("Importar " + arquivo.getFileName());
+            System.out.println("✓ " + lidas + " missões importadas!");
+            System.out.println("Total de missões: " + arvore.getTotalMissoes());
+        } catch (IOException e) {
+            System.out.println("✗ Erro ao importar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta o catálogo de missões
+     */
+    private void exportarCatalogo() {
+        System.out.println("\n=== EXPORTAR CATÁLOGO ===");
+        Path arquivo = lerCaminhoCatalogo();
+        if (arquivo == null) {
+            return;
+        }
+        // A versão atual é congelada agora; a gravação segue em segundo plano
+        exportacoesPendentes.add(checkpoint.salvar(arquivo, CatalogoMissoesIO.detectarFormato(arquivo)));
+        arquivosPendentes.add(arquivo);
+        System.out.println("✓ Exportando para " + arquivo + " em segundo plano (o menu continua disponível)");
+    }
+
+    /**
+     * Relata as exportações em segundo plano que já terminaram (em ordem)
+     * @param aguardar true para esperar que todas terminem
+     */
+    private void relatarExportacoes(boolean aguardar) {
+        while (!exportacoesPendentes.isEmpty() && (aguardar || exportacoesPendentes.get(0).isDone())) {
+            CompletableFuture<Long> exportacao = exportacoesPendentes.remove(0);
+            Path arquivo = arquivosPendentes.remove(0);
+            try {
+                long exportadas = exportacao.get();
+                System.out.println("\n✓ " + exportadas + " missões exportadas para " + arquivo);
+                System.out.println("  " + checkpoint.resumo());
+            } catch (ExecutionException e) {
+                System.out.println("\n✗ Erro ao exportar " + arquivo + ": " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     /**
      * Lê um inteiro com validação
      */
@@ -197,7 +435,9 @@ public class GerenciadorMissoesRPG {
 
         while (executando) {
             exibirMenu();
-            int opcao = lerInteiro(0, 8);
+            int opcao = lerInteiro(0, 16);
+            expirarMissoes();
+            relatarExportacoes(false);
 
             switch (opcao) {
                 case 1:
@@ -224,7 +464,33 @@ public class GerenciadorMissoesRPG {
                 case 8:
                     limparMissoes();
                     break;
+                case 9:
+                    desfazerOperacao();
+                    break;
+                case 10:
+                    refazerOperacao();
+                    break;
+                case 11:
+                    reproduzirTrace();
+                    break;
+                case 12:
+                    importarCatalogo();
+                    break;
+                case 13:
+                    exportarCatalogo();
+                    break;
+                case 14:
+                    adicionarMissaoTemporaria();
+                    break;
+                case 15:
+                    adicionarMissaoExtra();
+                    break;
+                case 16:
+                    removerMissaoPorId();
+                    break;
                 case 0:
+                    relatarExportacoes(true);
+                    checkpoint.close();
                     System.out.println("\n╔═══════════════════════════════════════════════════╗");
                     System.out.println("║          Obrigado por usar o sistema!            ║");
                     System.out.println("║         Aventuras aguardam você! 🗡️🛡️              ║");
@@ -239,9 +505,14 @@ public class GerenciadorMissoesRPG {
 
     /**
      * Metodo main - ponto de entrada do programa
+     * Com "--reproduzir arquivo", apenas reproduz o trace e encerra.
      */
     public static void main(String[] args) {
         GerenciadorMissoesRPG gerenciador = new GerenciadorMissoesRPG();
+        if (args.length == 2 && args[0].equals("--reproduzir")) {
+            gerenciador.reproduzirTrace(args[1]);
+            return;
+        }
         gerenciador.executar();
     }
 }
\ No newline at end of file
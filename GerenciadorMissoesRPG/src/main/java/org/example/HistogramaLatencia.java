@@ -0,0 +1,102 @@
+package org.example;
+
+/**
+ * Histograma de latências em nanossegundos com baldes log-lineares:
+ * cada potência de 2 é dividida em 32 sub-baldes (erro relativo ≤ 3%).
+ * Registrar é O(1) e não aloca memória.
+ */
+public final class HistogramaLatencia {
+    private static final int BITS_SUB = 5;
+    private static final int SUB = 1 << BITS_SUB;
+
+    private final long[] contagens;
+    private long total;
+    private long soma;
+    private long maximo;
+
+    public HistogramaLatencia() {
+        this.contagens = new long[(64 - BITS_SUB + 1) * SUB];
+    }
+
+    private static int indice(long valor) {
+        if (valor < SUB) {
+            return (int) valor;
+        }
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUB;
+        return (deslocamento + 1) * SUB + (int) ((valor >>> deslocamento) - SUB);
+    }
+
+    private static long limiteSuperior(int indice) {
+        int balde = indice / SUB;
+        int sub = indice % SUB;
+        if (balde == 0) {
+            return sub;
+        }
+        return ((long) (sub + SUB + 1) << (balde - 1)) - 1;
+    }
+
+    /**
+     * Registra uma amostra
+     * @param nanos Latência em nanossegundos
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        contagens[indice(nanos)]++;
+        total++;
+        soma += nanos;
+        if (nanos > maximo) {
+            maximo = nanos;
+        }
+    }
+
+    /**
+     * Soma as amostras de outro histograma a este
+     */
+    public void acumular(HistogramaLatencia outro) {
+        for (int i = 0; i < contagens.length; i++) {
+            contagens[i] += outro.contagens[i];
+        }
+        total += outro.total;
+        soma += outro.soma;
+        maximo = Math.max(maximo, outro.maximo);
+    }
+
+    /**
+     * Retorna o percentil pedido (limite superior do balde)
+     * @param percentil Valor entre 0 e 100
+     */
+    public long percentil(double percentil) {
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = (long) Math.ceil(total * percentil / 100.0);
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= Math.max(1, alvo)) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMaximo() {
+        return maximo;
+    }
+
+    public double getMedia() {
+        return (total == 0) ? 0 : (double) soma / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d média=%.0fns p50=%dns p90=%dns p99=%dns p99.9=%dns máx=%dns",
+                total, getMedia(), percentil(50), percentil(90), percentil(99), percentil(99.9), maximo);
+    }
+}
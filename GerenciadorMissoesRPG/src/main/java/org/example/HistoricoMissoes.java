@@ -0,0 +1,123 @@
+package org.example;
+
+/**
+ * Histórico de versões da árvore de missões (desfazer/refazer).
+ *
+ * Cada alteração registrada vira uma versão. As versões compartilham os nós
+ * que não mudaram (cópia de caminho), então cada versão nova custa apenas os
+ * O(log n) nós do caminho alterado, e não uma cópia da árvore inteira.
+ * Desfazer e refazer apenas trocam a raiz: O(1).
+ */
+public class HistoricoMissoes {
+    private final ArvoreAVL arvore;
+    private final ArvoreAVL.Versao[] versoes;   // Buffer circular com as versões retidas
+    private final String[] rotulos;             // Descrição da operação que gerou cada versão
+    private int inicio;                         // Posição da versão mais antiga no buffer
+    private int quantidade;                     // Versões retidas (incluindo as de refazer)
+    private int atual;                          // Índice (relativo a inicio) da versão corrente
+
+    /**
+     * Construtor do histórico
+     * @param arvore Árvore cujas alterações serão registradas
+     * @param capacidade Máximo de versões retidas (as mais antigas são descartadas)
+     */
+    public HistoricoMissoes(ArvoreAVL arvore, int capacidade) {
+        if (capacidade < 2) {
+            throw new IllegalArgumentException("Capacidade deve ser pelo menos 2");
+        }
+        this.arvore = arvore;
+        this.versoes = new ArvoreAVL.Versao[capacidade];
+        this.rotulos = new String[capacidade];
+        this.inicio = 0;
+        this.quantidade = 0;
+        this.atual = -1;
+        registrar("Estado inicial");
+    }
+
+    private int posicao(int indice) {
+        return (inicio + indice) % versoes.length;
+    }
+
+    /**
+     * Registra o estado atual da árvore como nova versão.
+     * Deve ser chamado após cada operação destrutiva (inserir, remover, limpar).
+     * Descarta as versões que poderiam ser refeitas.
+     * @param rotulo Descrição da operação que levou a este estado
+     */
+    public void registrar(String rotulo) {
+        // Descartar o ramo de refazer
+        for (int i = atual + 1; i < quantidade; i++) {
+            versoes[posicao(i)] = null;
+            rotulos[posicao(i)] = null;
+        }
+        quantidade = atual + 1;
+
+        // Política de retenção: descartar a versão mais antiga quando cheio
+        if (quantidade == versoes.length) {
+            versoes[inicio] = null;
+            rotulos[inicio] = null;
+            inicio = posicao(1);
+            quantidade--;
+        }
+
+        versoes[posicao(quantidade)] = arvore.capturarVersao();
+        rotulos[posicao(quantidade)] = rotulo;
+        quantidade++;
+        atual = quantidade - 1;
+    }
+
+    /**
+     * Desfaz a última operação registrada
+     * @return Descrição da operação desfeita ou null se não há o que desfazer
+     */
+    public String desfazer() {
+        if (!podeDesfazer()) {
+            return null;
+        }
+        String rotulo = rotulos[posicao(atual)];
+        atual--;
+        arvore.restaurarVersao(versoes[posicao(atual)]);
+        return rotulo;
+    }
+
+    /**
+     * Refaz a última operação desfeita
+     * @return Descrição da operação refeita ou null se não há o que refazer
+     */
+    public String refazer() {
+        if (!podeRefazer()) {
+            return null;
+        }
+        atual++;
+        arvore.restaurarVersao(versoes[posicao(atual)]);
+        return rotulos[posicao(atual)];
+    }
+
+    /**
+     * Verifica se há operação para desfazer
+     */
+    public boolean podeDesfazer() {
+        return atual > 0;
+    }
+
+    /**
+     * Verifica se há operação para refazer
+     */
+    public boolean podeRefazer() {
+        return atual < quantidade - 1;
+    }
+
+    /**
+     * Retorna o número de versões retidas
+     */
+    public int getVersoesRetidas() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna a capacidade máxima de versões
+     */
+    public int getCapacidade() {
+        return versoes.length;
+    }
+}
@@ -0,0 +1,229 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+
+/**
+ * Ponto de entrada sem interface gráfica (artefato do perfil Maven "headless").
+ *
+ * Não referencia nenhuma classe JavaFX, então pode rodar a partir de um JAR
+ * sem as dependências do JavaFX, para scripts e uso em servidor.
+ *
+ * Uso: java -jar GerenciadorMissoesRPG-headless.jar [comando] [argumentos]
+ *   console                  Menu de texto (padrão)
+ *   reproduzir &lt;trace&gt;       Reproduz um trace de carga e encerra
+ *   primeira-operacao        Executa uma inserção e uma busca, imprime "pronto" e encerra
+ *   treinar                  Carga curta usada para gerar o arquivo AppCDS
+ *   primario [porta] [ops/s] [missoes]
+ *                            Árvore com carga de escrita replicada na porta (ReplicacaoPrimaria)
+ *   seguidor &lt;porta&gt; [host]  Seguidor somente leitura; imprime o estado a cada segundo
+ *
+ * O gerador de carga, os benchmarks e o teste diferencial ficam no código
+ * de teste (GeradorCargaTrabalho, BenchmarkMissoes, FuzzDiferencial) e não
+ * entram no JAR.
+ */
+public class LancadorHeadless {
+
+    /**
+     * Primeira operação útil: usada para medir o tempo de inicialização
+     */
+    private static void primeiraOperacao() {
+        ArvoreAVL arvore = new ArvoreAVL();
+        arvore.inserir(50, "Explorar caverna abandonada");
+        if (arvore.buscar(50) == null) {
+            throw new IllegalStateException("Missão recém-inserida não encontrada");
+        }
+        System.out.println("pronto");
+    }
+
+    /**
+     * Carga de escrita simples: inserções e remoções (70/30) em níveis
+     * uniformes de 1 a faixa
+     */
+    private static void aplicarCarga(ArvoreAVL arvore, SplittableRandom rng, int faixa, long operacoes) {
+        for (long i = 0; i < operacoes; i++) {
+            int nivel = 1 + rng.nextInt(faixa);
+            if (rng.nextInt(100) < 70) {
+                arvore.inserir(nivel, "Missão " + nivel);
+            } else {
+                arvore.remover(nivel);
+            }
+        }
+    }
+
+    /**
+     * Execução de treino para o arquivo AppCDS: carrega (e exercita) as
+     * classes dos caminhos usuais — árvore, eventos, histórico, expiração,
+     * sorteio, recompensas, várias missões por nível, reprodução de trace,
+     * catálogo e o menu de texto.
+     */
+    private static void treinar() throws IOException {
+        ArvoreAVL arvore = new ArvoreAVL();
+        int[] eventos = new int[1];
+        arvore.adicionarOuvinte(lote -> eventos[0] += lote.size());
+        HistoricoMissoes historico = new HistoricoMissoes(arvore, 16);
+
+        SplittableRandom carga = new SplittableRandom(42);
+        aplicarCarga(arvore, carga, 100_000, 20_000);
+        historico.registrar("Popular");
+        Path trace = Files.createTempFile("treino", ".trace");
+        try {
+            StringBuilder linhas = new StringBuilder();
+            for (int i = 0; i < 20_000; i++) {
+                int nivel = 1 + carga.nextInt(100_000);
+                char operacao = "IRBB".charAt(i % 4);
+                linhas.append(operacao).append(' ').append(nivel);
+                if (operacao == 'I') {
+                    linhas.append(" Missão ").append(nivel);
+                }
+                linhas.append('\n');
+            }
+            Files.writeString(trace, linhas);
+            System.out.println(ReprodutorTrace.reproduzir(trace, arvore));
+        } finally {
+            Files.deleteIfExists(trace);
+        }
+
+        Random rng = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            arvore.inserir(1_000_000 + i, "Missão temporária " + i, 1 + rng.nextInt(100), 1);
+            arvore.definirPeso(rng.nextInt(100_000), rng.nextInt(10));
+            arvore.definirRecompensa(rng.nextInt(100_000), rng.nextInt(1_000), rng.nextInt(100));
+        }
+        arvore.expirar(200);
+        int[] sorteados = new int[64];
+        arvore.sortearPonderado(rng, sorteados, sorteados.length);
+        arvore.removerEmLote(sorteados, sorteados.length);
+        arvore.resumirRecompensas(1_000, 50_000);
+        long id = arvore.adicionar(1_000_001, "Missão extra");
+        arvore.buscarTodas(1_000_001);
+        arvore.removerPorId(id);
+        historico.registrar("Operações diversas");
+        historico.desfazer();
+        historico.refazer();
+        arvore.validar();
+        arvore.listarEmOrdem();
+
+        for (CatalogoMissoesIO.Formato formato : CatalogoMissoesIO.Formato.values()) {
+            Path arquivo = Files.createTempFile("treino", "." + formato.name().toLowerCase());
+            try {
+                CatalogoMissoesIO.exportar(arvore, arquivo, formato);
+                CatalogoMissoesIO.importar(arquivo, CatalogoMissoesIO.detectarFormato(arquivo), new ArvoreAVL());
+            } finally {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+
+        // Leitura de menu (Scanner + expressões regulares), sem terminal
+        Scanner scanner = new Scanner("7\n4\n");
+        while (scanner.hasNextInt()) {
+            scanner.nextInt();
+        }
+
+        primeiraOperacao();
+        System.out.println("Treino concluído: " + arvore.getTotalMissoes() + " missões, " + eventos[0] + " eventos");
+    }
+
+    /**
+     * Primário de replicação: popula a árvore e aplica carga de escrita
+     * no ritmo pedido (0 = sem limite), imprimindo o estado a cada segundo
+     */
+    private static void primario(String[] args) throws IOException {
+        int porta = (args.length > 0) ? Integer.parseInt(args[0]) : 7070;
+        int operacoesPorSegundo = (args.length > 1) ? Integer.parseInt(args[1]) : 10_000;
+        int missoes = (args.length > 2) ? Integer.parseInt(args[2]) : 100_000;
+
+        ArvoreAVL arvore = new ArvoreAVL();
+        SplittableRandom carga = new SplittableRandom(42);
+        for (int i = 0; i < missoes; i++) {
+            int nivel = 1 + carga.nextInt(100_000);
+            arvore.inserir(nivel, "Missão " + nivel);
+        }
+        try (ReplicacaoPrimaria primaria = new ReplicacaoPrimaria(arvore, porta)) {
+            System.out.println("Primário na porta " + primaria.getPorta());
+            long fatia = Math.max(1, operacoesPorSegundo / 100);
+            long proximoRelatorio = System.currentTimeMillis() + 1_000;
+            while (true) {
+                long inicioFatia = System.nanoTime();
+                aplicarCarga(arvore, carga, 100_000, (operacoesPorSegundo > 0) ? fatia : 10_000);
+                if (operacoesPorSegundo > 0) {
+                    long restanteMillis = 10 - (System.nanoTime() - inicioFatia) / 1_000_000;
+                    if (restanteMillis > 0) {
+                        try {
+                            Thread.sleep(restanteMillis);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+                if (System.currentTimeMillis() >= proximoRelatorio) {
+                    proximoRelatorio += 1_000;
+                    System.out.printf("%s | assinatura %016x%n", primaria.resumo(), primaria.assinatura());
+                }
+            }
+        }
+    }
+
+    /**
+     * Seguidor de replicação: imprime uma linha de estado por segundo
+     * (SeguidorReplicacao.estado), com a assinatura no LSN indicado
+     */
+    private static void seguidor(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Uso: seguidor <porta> [host]");
+            return;
+        }
+        String host = (args.length > 1) ? args[1] : "127.0.0.1";
+        try (SeguidorReplicacao seguidor = new SeguidorReplicacao(host, Integer.parseInt(args[0]))) {
+            while (true) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                System.out.println(seguidor.estado());
+            }
+        }
+    }
+
+    /**
+     * Metodo main - despacha o comando pedido
+     */
+    public static void main(String[] args) throws IOException {
+        String comando = (args.length > 0) ? args[0] : "console";
+        String[] resto = (args.length > 0) ? Arrays.copyOfRange(args, 1, args.length) : args;
+
+        switch (comando) {
+            case "console":
+                new GerenciadorMissoesRPG().executar();
+                break;
+            case "reproduzir":
+                if (resto.length != 1) {
+                    System.out.println("Uso: reproduzir <arquivo de trace>");
+                    return;
+                }
+                GerenciadorMissoesRPG.main(new String[]{"--reproduzir", resto[0]});
+                break;
+            case "primeira-operacao":
+                primeiraOperacao();
+                break;
+            case "treinar":
+                treinar();
+                break;
+            case "primario":
+                primario(resto);
+                break;
+            case "seguidor":
+                seguidor(resto);
+                break;
+            default:
+                System.out.println("Comando desconhecido: " + comando);
+                System.out.println("Comandos: console, reproduzir, primeira-operacao, treinar, primario, seguidor");
+        }
+    }
+}
@@ -6,6 +6,12 @@ public class Node {
     int altura;          // Altura do nó na árvore
     Node esquerda;       // Filho esquerdo
     Node direita;        // Filho direito
+    int epoca;           // Época em que o nó foi criado (cópia na escrita)
+    int peso;            // Peso da missão no sorteio ponderado
+    long somaPesos;      // Soma dos pesos da subárvore
+    RecompensasNo recompensas;  // Recompensas e agregados (null se a subárvore não tem nenhuma)
+    int sequencia;       // Sequência do id da missão principal
+    BaldeMissoes balde;  // Missões adicionais do nível (null se só há a principal)
 
     /**
      * Construtor do nó
@@ -18,6 +24,27 @@ public class Node {
         this.altura = 1;
         this.esquerda = null;
         this.direita = null;
+        this.peso = 1;
+        this.somaPesos = 1;
+    }
+
+    /**
+     * Construtor de cópia, usado pela cópia na escrita do histórico de versões
+     * @param outro Nó a ser copiado
+     * @param epoca Época da nova cópia
+     */
+    Node(Node outro, int epoca) {
+        this.nivel = outro.nivel;
+        this.missao = outro.missao;
+        this.altura = outro.altura;
+        this.esquerda = outro.esquerda;
+        this.direita = outro.direita;
+        this.epoca = epoca;
+        this.peso = outro.peso;
+        this.somaPesos = outro.somaPesos;
+        this.recompensas = outro.recompensas;   // Compartilhado até ser alterado
+        this.sequencia = outro.sequencia;
+        this.balde = outro.balde;
     }
 
     @Override
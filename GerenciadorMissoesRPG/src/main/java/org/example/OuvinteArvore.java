@@ -0,0 +1,15 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Recebe as alterações da árvore de missões em lotes já condensados
+ */
+public interface OuvinteArvore {
+
+    /**
+     * Chamado ao final de cada operação (ou de cada lote explícito)
+     * @param eventos Alterações condensadas, na ordem em que ocorreram
+     */
+    void aoAlterar(List<EventoArvore> eventos);
+}
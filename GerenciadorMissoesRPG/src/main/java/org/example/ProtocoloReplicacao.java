@@ -0,0 +1,185 @@
+package org.example;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato das mensagens da replicação (ReplicacaoPrimaria -> SeguidorReplicacao).
+ *
+ * Ao conectar, o primário envia MAGICO e VERSAO e em seguida uma cópia
+ * completa (SNAPSHOT_INICIO, blocos, SNAPSHOT_FIM) no LSN da cópia; depois,
+ * os quadros de registros com LSN maior, e pulsos quando não há o que enviar.
+ * O seguidor responde com o LSN aplicado (um long) quando esvazia a entrada e,
+ * sob fluxo contínuo, ao menos a cada 10 ms.
+ *
+ * SNAPSHOT_INICIO: lsn (long), missões (int)
+ * SNAPSHOT_BLOCO:  registros (int), tamanho original (int), tamanho comprimido (int), bytes
+ *                  — cada registro: nível (int), tamanho (int), descrição em UTF-8
+ * QUADRO:          LSN do primeiro registro (long), registros (int), instante em que o
+ *                  primeiro foi gerado (long, ms), tamanho original (int), tamanho comprimido (int), bytes
+ *                  — cada registro: operação (byte), nível (int) e, em INSERIR, tamanho e descrição
+ * PULSO:           último LSN gerado (long), instante (long, ms)
+ *
+ * Os blocos e os quadros são comprimidos com Deflate.
+ */
+final class ProtocoloReplicacao {
+    static final int MAGICO = 0x52455031;   // "REP1"
+    static final int VERSAO = 1;
+
+    // Mensagens do primário
+    static final byte SNAPSHOT_INICIO = 1;
+    static final byte SNAPSHOT_BLOCO = 2;
+    static final byte SNAPSHOT_FIM = 3;
+    static final byte QUADRO = 4;
+    static final byte PULSO = 5;
+
+    // Operações dos registros
+    static final byte INSERIR = 1;
+    static final byte REMOVER = 2;
+    static final byte LIMPAR = 3;
+
+    private ProtocoloReplicacao() {
+    }
+
+    /**
+     * Vetor de bytes que cresce conforme a escrita (sem sincronização)
+     */
+    static final class BufferBytes {
+        byte[] dados;
+        int tamanho;
+
+        BufferBytes(int capacidade) {
+            this.dados = new byte[capacidade];
+        }
+
+        private void garantir(int adicionais) {
+            if (tamanho + adicionais > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + adicionais));
+            }
+        }
+
+        void escreverByte(int valor) {
+            garantir(1);
+            dados[tamanho++] = (byte) valor;
+        }
+
+        void escreverInt(int valor) {
+            garantir(4);
+            dados[tamanho++] = (byte) (valor >>> 24);
+            dados[tamanho++] = (byte) (valor >>> 16);
+            dados[tamanho++] = (byte) (valor >>> 8);
+            dados[tamanho++] = (byte) valor;
+        }
+
+        void escreverTexto(String texto) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escreverInt(bytes.length);
+            garantir(bytes.length);
+            System.arraycopy(bytes, 0, dados, tamanho, bytes.length);
+            tamanho += bytes.length;
+        }
+
+        void limpar() {
+            tamanho = 0;
+        }
+    }
+
+    /**
+     * Leitura sequencial de um vetor de bytes descomprimido
+     */
+    static final class LeitorBytes {
+        private final byte[] dados;
+        private int posicao;
+
+        LeitorBytes(byte[] dados) {
+            this.dados = dados;
+        }
+
+        byte lerByte() {
+            return dados[posicao++];
+        }
+
+        int lerInt() {
+            int valor = ((dados[posicao] & 0xFF) << 24) | ((dados[posicao + 1] & 0xFF) << 16)
+                    | ((dados[posicao + 2] & 0xFF) << 8) | (dados[posicao + 3] & 0xFF);
+            posicao += 4;
+            return valor;
+        }
+
+        String lerTexto() {
+            int tamanho = lerInt();
+            String texto = new String(dados, posicao, tamanho, StandardCharsets.UTF_8);
+            posicao += tamanho;
+            return texto;
+        }
+    }
+
+    /**
+     * Comprime os bytes do buffer (o Deflater é reiniciado e reaproveitado)
+     */
+    static byte[] comprimir(BufferBytes buffer, Deflater deflater) {
+        deflater.reset();
+        deflater.setInput(buffer.dados, 0, buffer.tamanho);
+        deflater.finish();
+        byte[] saida = new byte[Math.max(64, buffer.tamanho / 2)];
+        int tamanho = 0;
+        while (!deflater.finished()) {
+            if (tamanho == saida.length) {
+                saida = Arrays.copyOf(saida, saida.length * 2);
+            }
+            tamanho += deflater.deflate(saida, tamanho, saida.length - tamanho);
+        }
+        return Arrays.copyOf(saida, tamanho);
+    }
+
+    /**
+     * Lê e descomprime um bloco de tamanhoComprimido bytes que resulta em tamanhoOriginal bytes
+     */
+    static byte[] lerComprimido(DataInputStream entrada, int tamanhoOriginal, int tamanhoComprimido,
+                                Inflater inflater) throws IOException {
+        byte[] comprimido = new byte[tamanhoComprimido];
+        entrada.readFully(comprimido);
+        byte[] original = new byte[tamanhoOriginal];
+        inflater.reset();
+        inflater.setInput(comprimido);
+        try {
+            int lidos = 0;
+            while (lidos < tamanhoOriginal) {
+                int n = inflater.inflate(original, lidos, tamanhoOriginal - lidos);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                lidos += n;
+            }
+            if (lidos != tamanhoOriginal) {
+                throw new IOException("Bloco comprimido com " + lidos + " bytes, esperados " + tamanhoOriginal);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloco comprimido inválido", e);
+        }
+        return original;
+    }
+
+    /**
+     * Assinatura do conteúdo (níveis e missões principais, em ordem), para
+     * comparar a árvore do primário com a de um seguidor
+     */
+    static long assinatura(Node raiz) {
+        long[] acumulado = {1};
+        assinaturaRecursiva(raiz, acumulado);
+        return acumulado[0];
+    }
+
+    private static void assinaturaRecursiva(Node node, long[] acumulado) {
+        if (node != null) {
+            assinaturaRecursiva(node.esquerda, acumulado);
+            acumulado[0] = (acumulado[0] * 31 + node.nivel) * 1_000_003 + node.missao.hashCode();
+            assinaturaRecursiva(node.direita, acumulado);
+        }
+    }
+}
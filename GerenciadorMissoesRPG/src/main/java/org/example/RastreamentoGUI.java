@@ -0,0 +1,290 @@
+package org.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Rastreamento das ações da interface: para cada clique, quanto tempo foi
+ * gasto na árvore, nos painéis atualizados pelos eventos da árvore, montando
+ * o texto do resultado, em TextArea.setText e, no pulso seguinte do JavaFX,
+ * em CSS e layout. Também acompanha a duração (CSS + layout) de todos os pulsos.
+ *
+ * Cada ação vira um evento JFR "org.example.AcaoGUI" e cada pulso um
+ * "org.example.PulsoJavaFX" (gravados só com uma gravação JFR ativa, ex.:
+ * -XX:StartFlightRecording=filename=gui.jfr ou jcmd &lt;pid&gt; JFR.start),
+ * e as últimas ações ficam disponíveis em texto para o painel sobreposto.
+ *
+ * Não depende do JavaFX: quem chama informa o início e o fim de cada fase e
+ * de cada pulso. Tudo roda na thread do JavaFX, sem sincronização.
+ */
+final class RastreamentoGUI {
+
+    /**
+     * Fases de uma ação, na ordem em que acontecem
+     */
+    enum Fase {
+        ARVORE("árvore"),
+        PAINEIS("painéis"),
+        FORMATACAO("formatar"),
+        TEXTO("setText"),
+        OUTROS("diálogos"),
+        ESPERA("espera"),
+        LAYOUT("layout");
+
+        final String rotulo;
+
+        Fase(String rotulo) {
+            this.rotulo = rotulo;
+        }
+    }
+
+    static final long PULSO_LENTO_NANOS = 16_666_667L;   // Um quadro a 60 Hz
+    private static final int ACOES_GUARDADAS = 8;
+
+    @Name("org.example.AcaoGUI")
+    @Label("Ação da interface")
+    @Category({"Gerenciador de Missões", "Interface"})
+    @Description("Clique em um botão, do início até o fim do CSS e layout do pulso seguinte")
+    @StackTrace(false)
+    static final class EventoAcao extends Event {
+        @Label("Ação")
+        String acao;
+
+        @Label("Árvore")
+        @Timespan(Timespan.NANOSECONDS)
+        long arvore;
+
+        @Label("Painéis")
+        @Description("Ouvintes da árvore que atualizam os painéis laterais")
+        @Timespan(Timespan.NANOSECONDS)
+        long paineis;
+
+        @Label("Formatação")
+        @Timespan(Timespan.NANOSECONDS)
+        long formatacao;
+
+        @Label("setText")
+        @Timespan(Timespan.NANOSECONDS)
+        long texto;
+
+        @Label("Diálogos")
+        @Timespan(Timespan.NANOSECONDS)
+        long outros;
+
+        @Label("Até o pulso")
+        @Description("Do fim da ação até o início do pulso seguinte")
+        @Timespan(Timespan.NANOSECONDS)
+        long espera;
+
+        @Label("CSS e layout")
+        @Timespan(Timespan.NANOSECONDS)
+        long layout;
+
+        @Label("Caracteres")
+        @Description("Tamanho do texto mostrado na área de resultado")
+        int caracteres;
+    }
+
+    @Name("org.example.PulsoJavaFX")
+    @Label("Pulso do JavaFX")
+    @Category({"Gerenciador de Missões", "Interface"})
+    @Description("CSS e layout da cena em um pulso (a duração do evento)")
+    @StackTrace(false)
+    static final class EventoPulso extends Event {
+        @Label("Ação")
+        @Description("Ação cujo resultado este pulso mostrou (vazio se nenhuma)")
+        String acao;
+    }
+
+    /**
+     * Linha do tempo de uma ação
+     */
+    private static final class Acao {
+        String nome;
+        final long[] fases = new long[Fase.values().length];
+        long total;
+        int caracteres;
+        EventoAcao evento;
+    }
+
+    private final Acao[] concluidas = new Acao[ACOES_GUARDADAS];   // Buffer circular
+    private int proximaConcluida;
+
+    private Acao atual;              // Ação em andamento ou esperando o pulso
+    private boolean aguardandoPulso;
+    private long ultimaMarca;
+    private long aninhado;           // Tempo de fases aninhadas dentro do trecho corrente
+
+    private EventoPulso eventoPulso;
+    private long inicioPulso;
+    private long pulsos;
+    private long pulsosLentos;
+    private long maiorPulso;
+    private long somaPulsos;
+
+    /**
+     * Começa uma ação (se a anterior ainda esperava o pulso, ela é fechada sem layout)
+     */
+    void iniciarAcao(String nome) {
+        if (atual != null) {
+            finalizar(0);
+        }
+        atual = new Acao();
+        atual.nome = nome;
+        atual.evento = new EventoAcao();
+        atual.evento.begin();
+        ultimaMarca = System.nanoTime();
+        aninhado = 0;
+    }
+
+    /**
+     * Atribui à fase o tempo desde a marca anterior (descontadas as fases aninhadas)
+     */
+    void marcar(Fase fase) {
+        if (atual == null || aguardandoPulso) {
+            return;
+        }
+        long agora = System.nanoTime();
+        atual.fases[fase.ordinal()] += Math.max(0, agora - ultimaMarca - aninhado);
+        ultimaMarca = agora;
+        aninhado = 0;
+    }
+
+    /**
+     * Registra uma fase que aconteceu dentro do trecho corrente (ex.: os
+     * ouvintes chamados durante a operação na árvore)
+     */
+    void registrarAninhada(Fase fase, long nanos) {
+        if (atual == null || aguardandoPulso) {
+            return;
+        }
+        atual.fases[fase.ordinal()] += nanos;
+        aninhado += nanos;
+    }
+
+    /**
+     * Informa o tamanho do texto mostrado pela ação
+     */
+    void registrarCaracteres(int caracteres) {
+        if (atual != null) {
+            atual.caracteres = caracteres;
+        }
+    }
+
+    /**
+     * Encerra a parte síncrona da ação; o restante (CSS e layout) vem no
+     * pulso seguinte, que quem chama deve garantir que aconteça
+     */
+    void concluirAcao() {
+        if (atual == null || aguardandoPulso) {
+            return;
+        }
+        marcar(Fase.OUTROS);
+        aguardandoPulso = true;
+    }
+
+    /**
+     * Início do CSS e layout de um pulso
+     */
+    void inicioPulso() {
+        eventoPulso = new EventoPulso();
+        eventoPulso.begin();
+        inicioPulso = System.nanoTime();
+        if (atual != null && aguardandoPulso) {
+            atual.fases[Fase.ESPERA.ordinal()] = inicioPulso - ultimaMarca;
+        }
+    }
+
+    /**
+     * Fim do CSS e layout de um pulso
+     * @return true se uma ação foi concluída neste pulso
+     */
+    boolean fimPulso() {
+        long duracao = System.nanoTime() - inicioPulso;
+        pulsos++;
+        somaPulsos += duracao;
+        maiorPulso = Math.max(maiorPulso, duracao);
+        if (duracao > PULSO_LENTO_NANOS) {
+            pulsosLentos++;
+        }
+
+        boolean concluiu = atual != null && aguardandoPulso;
+        if (eventoPulso != null) {
+            eventoPulso.end();
+            if (eventoPulso.shouldCommit()) {
+                eventoPulso.acao = concluiu ? atual.nome : "";
+                eventoPulso.commit();
+            }
+            eventoPulso = null;
+        }
+        if (concluiu) {
+            finalizar(duracao);
+        }
+        return concluiu;
+    }
+
+    private void finalizar(long layout) {
+        Acao acao = atual;
+        atual = null;
+        aguardandoPulso = false;
+        acao.fases[Fase.LAYOUT.ordinal()] = layout;
+        long total = 0;
+        for (long nanos : acao.fases) {
+            total += nanos;
+        }
+        acao.total = total;
+
+        EventoAcao evento = acao.evento;
+        acao.evento = null;
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.acao = acao.nome;
+            evento.arvore = acao.fases[Fase.ARVORE.ordinal()];
+            evento.paineis = acao.fases[Fase.PAINEIS.ordinal()];
+            evento.formatacao = acao.fases[Fase.FORMATACAO.ordinal()];
+            evento.texto = acao.fases[Fase.TEXTO.ordinal()];
+            evento.outros = acao.fases[Fase.OUTROS.ordinal()];
+            evento.espera = acao.fases[Fase.ESPERA.ordinal()];
+            evento.layout = layout;
+            evento.caracteres = acao.caracteres;
+            evento.commit();
+        }
+
+        concluidas[proximaConcluida] = acao;
+        proximaConcluida = (proximaConcluida + 1) % ACOES_GUARDADAS;
+    }
+
+    /**
+     * Últimas ações (da mais recente para a mais antiga, tempos em ms) e
+     * estatísticas dos pulsos
+     */
+    String resumo() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s %8s", "Ação (ms)", "total"));
+        for (Fase fase : Fase.values()) {
+            sb.append(String.format(" %8s", fase.rotulo));
+        }
+        sb.append(String.format(" %10s%n", "caracteres"));
+
+        for (int i = 1; i <= ACOES_GUARDADAS; i++) {
+            Acao acao = concluidas[(proximaConcluida - i + ACOES_GUARDADAS) % ACOES_GUARDADAS];
+            if (acao == null) {
+                break;
+            }
+            sb.append(String.format("%-10.10s %8.2f", acao.nome, acao.total / 1e6));
+            for (long nanos : acao.fases) {
+                sb.append(String.format(" %8.2f", nanos / 1e6));
+            }
+            sb.append(String.format(" %,10d%n", acao.caracteres));
+        }
+
+        sb.append(String.format("Pulsos: %,d | CSS+layout médio %.2f ms, máximo %.2f ms | acima de 16,7 ms: %,d",
+                pulsos, (pulsos == 0) ? 0 : somaPulsos / 1e6 / pulsos, maiorPulso / 1e6, pulsosLentos));
+        return sb.toString();
+    }
+}
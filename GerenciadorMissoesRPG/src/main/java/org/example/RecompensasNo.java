@@ -0,0 +1,25 @@
+package org.example;
+
+/**
+ * Recompensas de um nó e os agregados da sua subárvore, guardados fora do
+ * Node: só existe onde a subárvore tem alguma recompensa diferente de zero
+ * (sem ele, xp, ouro, somas, mínimos e máximos valem 0). Assim, árvores sem
+ * recompensas não pagam por esses campos em cada nó.
+ */
+final class RecompensasNo {
+    final int epoca;     // Época em que foi criado (cópia na escrita, como o Node)
+    int xp;              // Recompensa de experiência do nó
+    int ouro;            // Recompensa de ouro do nó
+    long somaXp;         // Soma de xp da subárvore
+    long somaOuro;       // Soma de ouro da subárvore
+    int minXp;           // Menor xp da subárvore
+    int maxXp;           // Maior xp da subárvore
+    int minOuro;         // Menor ouro da subárvore
+    int maxOuro;         // Maior ouro da subárvore
+
+    RecompensasNo(int epoca, int xp, int ouro) {
+        this.epoca = epoca;
+        this.xp = xp;
+        this.ouro = ouro;
+    }
+}
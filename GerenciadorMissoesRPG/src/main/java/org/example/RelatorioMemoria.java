@@ -0,0 +1,191 @@
+package org.example;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Contabilidade de memória da árvore de missões.
+ *
+ * Calcula o tamanho raso (o próprio objeto) e retido (objeto + tudo o que só
+ * ele alcança) a partir do layout de objetos da JVM em execução: tamanho do
+ * cabeçalho, das referências (oops comprimidos ou não) e do alinhamento.
+ * Descrições compartilhadas entre missões são contadas uma única vez.
+ */
+public final class RelatorioMemoria {
+    private static final int REFERENCIA;
+    private static final int CABECALHO;
+    private static final int CABECALHO_VETOR;
+    private static final int ALINHAMENTO;
+
+    static {
+        boolean oopsComprimidos = true;
+        boolean classesComprimidas = true;
+        int alinhamento = 8;
+        try {
+            HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            oopsComprimidos = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedOops").getValue());
+            classesComprimidas = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedClassPointers").getValue());
+            alinhamento = Integer.parseInt(hotspot.getVMOption("ObjectAlignmentInBytes").getValue());
+        } catch (RuntimeException e) {
+            // JVM sem HotSpotDiagnosticMXBean: assumir o padrão de 64 bits com heap < 32 GB
+        }
+        REFERENCIA = oopsComprimidos ? 4 : 8;
+        CABECALHO = classesComprimidas ? 12 : 16;
+        CABECALHO_VETOR = alinhar(CABECALHO + 4, REFERENCIA);
+        ALINHAMENTO = alinhamento;
+    }
+
+    private RelatorioMemoria() {
+    }
+
+    private static int alinhar(long tamanho, int alinhamento) {
+        return (int) ((tamanho + alinhamento - 1) / alinhamento * alinhamento);
+    }
+
+    private static int tamanhoCampo(Class<?> tipo) {
+        if (!tipo.isPrimitive()) {
+            return REFERENCIA;
+        }
+        if (tipo == long.class || tipo == double.class) {
+            return 8;
+        }
+        if (tipo == int.class || tipo == float.class) {
+            return 4;
+        }
+        if (tipo == short.class || tipo == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Tamanho raso de uma instância da classe (cabeçalho + campos + alinhamento)
+     */
+    public static long tamanhoRaso(Class<?> classe) {
+        long tamanho = CABECALHO;
+        for (Class<?> c = classe; c != null; c = c.getSuperclass()) {
+            for (Field campo : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(campo.getModifiers())) {
+                    tamanho += tamanhoCampo(campo.getType());
+                }
+            }
+        }
+        return alinhar(tamanho, ALINHAMENTO);
+    }
+
+    /**
+     * Tamanho de um vetor
+     * @param tamanhoElemento Bytes por elemento (use tamanhoReferencia() para vetores de objetos)
+     * @param comprimento Número de elementos
+     */
+    public static long tamanhoVetor(int tamanhoElemento, long comprimento) {
+        return alinhar(CABECALHO_VETOR + tamanhoElemento * comprimento, ALINHAMENTO);
+    }
+
+    /**
+     * Tamanho retido de uma String (objeto + vetor de bytes), considerando strings compactas
+     */
+    public static long tamanhoString(String texto) {
+        boolean latin1 = true;
+        for (int i = 0; i < texto.length() && latin1; i++) {
+            latin1 = texto.charAt(i) <= 0xFF;
+        }
+        return tamanhoRaso(String.class) + tamanhoVetor(1, (long) texto.length() * (latin1 ? 1 : 2));
+    }
+
+    public static int tamanhoReferencia() {
+        return REFERENCIA;
+    }
+
+    /**
+     * Totais de um relatório
+     */
+    private static final class Totais {
+        long nos;
+        long estrutura;
+        long descricoes;
+        final Map<String, Boolean> vistas = new IdentityHashMap<>();
+
+        void contarDescricao(String missao) {
+            if (missao != null && vistas.put(missao, Boolean.TRUE) == null) {
+                descricoes += tamanhoString(missao);
+            }
+        }
+    }
+
+    /**
+     * Relatório de memória da árvore AVL com um Node por missão (mais um
+     * RecompensasNo nos nós cuja subárvore tem recompensas)
+     */
+    public static String relatorio(ArvoreAVL arvore) {
+        long rasoNo = tamanhoRaso(Node.class);
+        Totais totais = new Totais();
+        totais.estrutura = tamanhoRaso(ArvoreAVL.class);
+        contarNos(arvore.getRaiz(), rasoNo, tamanhoRaso(RecompensasNo.class), totais);
+        return formatar("ArvoreAVL (Node)", rasoNo, totais);
+    }
+
+    private static void contarNos(Node node, long rasoNo, long rasoRecompensas, Totais totais) {
+        if (node != null) {
+            totais.nos++;
+            totais.estrutura += rasoNo;
+            if (node.recompensas != null) {
+                totais.estrutura += rasoRecompensas;
+            }
+            totais.contarDescricao(node.missao);
+            contarNos(node.esquerda, rasoNo, rasoRecompensas, totais);
+            contarNos(node.direita, rasoNo, rasoRecompensas, totais);
+        }
+    }
+
+    /**
+     * Relatório de memória da árvore AVL compacta (vetores paralelos)
+     */
+    public static String relatorio(ArvoreAVLCompacta arvore) {
+        long capacidade = arvore.getCapacidade();
+        Totais totais = new Totais();
+        totais.nos = arvore.getTotalMissoes();
+        totais.estrutura = tamanhoRaso(ArvoreAVLCompacta.class)
+                + tamanhoVetor(8, capacidade)
+                + 2 * tamanhoVetor(4, capacidade)
+                + tamanhoVetor(REFERENCIA, capacidade);
+        for (String missao : arvore.getMissoes()) {
+            totais.contarDescricao(missao);
+        }
+        long porNo = 8 + 4 + 4 + REFERENCIA;
+        return formatar("ArvoreAVLCompacta", porNo, totais);
+    }
+
+    private static String formatar(String titulo, long rasoPorNo, Totais totais) {
+        long retido = totais.estrutura + totais.descricoes;
+        long nos = Math.max(1, totais.nos);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("=== %s ===%n", titulo));
+        sb.append(String.format("Layout: cabeçalho %d B, referência %d B, alinhamento %d B%n",
+                CABECALHO, REFERENCIA, ALINHAMENTO));
+        sb.append(String.format("Missões: %d%n", totais.nos));
+        sb.append(String.format("Tamanho raso por nó: %d B%n", rasoPorNo));
+        sb.append(String.format("Estrutura da árvore: %,d B (%.1f B/missão)%n",
+                totais.estrutura, (double) totais.estrutura / nos));
+        sb.append(String.format("Descrições (%d distintas): %,d B (%.1f B/missão)%n",
+                totais.vistas.size(), totais.descricoes, (double) totais.descricoes / nos));
+        sb.append(String.format("Total retido: %,d B (%.1f B/missão)%n", retido, (double) retido / nos));
+        return sb.toString();
+    }
+
+    /**
+     * Metodo main - imprime o layout e o tamanho raso das classes da árvore
+     */
+    public static void main(String[] args) {
+        System.out.println("Node: " + tamanhoRaso(Node.class) + " B por missão (raso)");
+        System.out.println("RecompensasNo: " + tamanhoRaso(RecompensasNo.class)
+                + " B por nó cuja subárvore tem recompensas (raso)");
+        System.out.println("ArvoreAVLCompacta: " + (8 + 4 + 4 + REFERENCIA) + " B por missão (raso)");
+        System.out.println("String vazia: " + tamanhoString("") + " B");
+    }
+}
@@ -0,0 +1,533 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+
+/**
+ * Lado primário da replicação por envio de registros (log shipping).
+ *
+ * Ouve as alterações da árvore e as grava como registros numerados (LSN):
+ * INSERIR para missões inseridas ou atualizadas, REMOVER e LIMPAR. Uma
+ * thread agrupa os registros a cada poucos milissegundos em quadros
+ * comprimidos com Deflate, que ficam retidos em um log em memória, e cada
+ * seguidor conectado (porta local) tem uma thread que envia os quadros a
+ * partir da sua posição.
+ *
+ * Um seguidor novo (ou que ficou para trás do log retido) recebe antes uma
+ * cópia completa da árvore, tirada de uma versão congelada (a "base"): a
+ * cada REGISTROS_POR_BASE registros a base é recapturada (O(1), cópia na
+ * escrita) e os quadros anteriores a ela deixam de ser necessários.
+ *
+ * Replica só as missões principais de cada nível: missões adicionais,
+ * pesos, recompensas e expirações não são enviadas.
+ *
+ * O construtor e close() devem ser chamados na thread que altera a árvore;
+ * os getters podem ser chamados de qualquer thread.
+ */
+public final class ReplicacaoPrimaria implements OuvinteArvore, AutoCloseable {
+    private static final int REGISTROS_POR_BASE = 100_000;
+    private static final long LIMITE_LOG_BYTES = 64L << 20;   // Acima disso, seguidores atrasados recebem nova cópia
+    private static final long INTERVALO_QUADROS_MS = 2;
+    private static final int LIMITE_QUADRO = 256 << 10;
+    private static final long INTERVALO_PULSO_MS = 100;
+    private static final int LIMITE_BLOCO_SNAPSHOT = 1 << 20;
+
+    /**
+     * Quadro de registros comprimido, com os LSNs que cobre
+     */
+    private static final class Quadro {
+        final long lsnInicial;
+        final int registros;
+        final long instante;
+        final int tamanhoOriginal;
+        final byte[] comprimido;
+
+        Quadro(long lsnInicial, int registros, long instante, int tamanhoOriginal, byte[] comprimido) {
+            this.lsnInicial = lsnInicial;
+            this.registros = registros;
+            this.instante = instante;
+            this.tamanhoOriginal = tamanhoOriginal;
+            this.comprimido = comprimido;
+        }
+
+        long lsnFinal() {
+            return lsnInicial + registros - 1;
+        }
+    }
+
+    /**
+     * Versão congelada da árvore e o LSN do último registro incluído nela
+     */
+    private static final class Base {
+        final ArvoreAVL.Versao versao;
+        final long lsn;
+
+        Base(ArvoreAVL.Versao versao, long lsn) {
+            this.versao = versao;
+            this.lsn = lsn;
+        }
+    }
+
+    private final ArvoreAVL arvore;
+    private final ServerSocket servidor;
+    private final Thread aceitacao;
+    private final Thread empacotamento;
+    private final List<Sessao> sessoes = new CopyOnWriteArrayList<>();
+
+    // Protegidos por trava
+    private final Object trava = new Object();
+    private ProtocoloReplicacao.BufferBytes pendente = new ProtocoloReplicacao.BufferBytes(64 << 10);
+    private int registrosPendentes;
+    private long instantePendente;
+    private long ultimoLsn;
+    private long registrosDesdeBase;
+    private Base base;
+    private final List<Quadro> log = new ArrayList<>();
+    private long primeiroIndice;   // Índice global de log.get(0)
+    private long indiceBase;       // Primeiro quadro com registros posteriores à base
+    private long bytesLog;
+    private long bytesOriginais;
+    private long bytesComprimidos;
+    private long copiasEnviadas;
+
+    private volatile boolean fechada;
+
+    /**
+     * Começa a registrar as alterações da árvore e a aceitar seguidores
+     * @param arvore Árvore replicada
+     * @param porta Porta local (0 escolhe uma livre; veja getPorta)
+     */
+    public ReplicacaoPrimaria(ArvoreAVL arvore, int porta) throws IOException {
+        this.arvore = arvore;
+        this.servidor = new ServerSocket(porta, 50, InetAddress.getLoopbackAddress());
+        this.base = new Base(arvore.capturarVersao(), 0);
+
+        this.aceitacao = new Thread(this::aceitar, "replicacao-aceitacao");
+        this.empacotamento = new Thread(this::empacotar, "replicacao-empacotamento");
+        aceitacao.setDaemon(true);
+        empacotamento.setDaemon(true);
+        arvore.adicionarOuvinte(this);
+        aceitacao.start();
+        empacotamento.start();
+    }
+
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    // ==================== REGISTROS (thread da árvore) ====================
+
+    @Override
+    public void aoAlterar(List<EventoArvore> eventos) {
+        synchronized (trava) {
+            for (int i = 0; i < eventos.size(); i++) {
+                registrar(eventos.get(i));
+            }
+            if (registrosDesdeBase >= REGISTROS_POR_BASE) {
+                base = new Base(arvore.capturarVersao(), ultimoLsn);
+                registrosDesdeBase = 0;
+            }
+            if (pendente.tamanho >= LIMITE_QUADRO) {
+                trava.notifyAll();
+            }
+        }
+    }
+
+    private void registrar(EventoArvore evento) {
+        switch (evento.getTipo()) {
+            case INSERIDA:
+            case ATUALIZADA:
+                iniciarRegistro(ProtocoloReplicacao.INSERIR, evento.getNivel());
+                pendente.escreverTexto(evento.getMissao());
+                break;
+            case REMOVIDA:
+                iniciarRegistro(ProtocoloReplicacao.REMOVER, evento.getNivel());
+                break;
+            case LIMPEZA:
+                iniciarRegistro(ProtocoloReplicacao.LIMPAR, 0);
+                break;
+            case RESTAURADA:
+                // Desfazer/refazer: só o que difere entre as duas versões vira registro
+                for (EventoArvore diferenca : ArvoreAVL.diferencas(evento.getAnterior(), evento.getRestaurada())) {
+                    registrar(diferenca);
+                }
+                break;
+            default:
+                // Missões adicionais e rotações não são replicadas
+                break;
+        }
+    }
+
+    private void iniciarRegistro(byte operacao, int nivel) {
+        if (registrosPendentes == 0) {
+            instantePendente = System.currentTimeMillis();
+        }
+        pendente.escreverByte(operacao);
+        pendente.escreverInt(nivel);
+        registrosPendentes++;
+        registrosDesdeBase++;
+        ultimoLsn++;
+    }
+
+    // ==================== QUADROS (thread de empacotamento) ====================
+
+    /**
+     * Agrupa os registros pendentes em quadros comprimidos e os acrescenta ao log
+     */
+    private void empacotar() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ProtocoloReplicacao.BufferBytes reserva = new ProtocoloReplicacao.BufferBytes(64 << 10);
+        try {
+            while (!fechada) {
+                ProtocoloReplicacao.BufferBytes registros;
+                long lsnInicial;
+                int quantidade;
+                long instante;
+                synchronized (trava) {
+                    if (pendente.tamanho < LIMITE_QUADRO) {
+                        trava.wait(INTERVALO_QUADROS_MS);
+                    }
+                    if (registrosPendentes == 0) {
+                        continue;
+                    }
+                    registros = pendente;
+                    quantidade = registrosPendentes;
+                    lsnInicial = ultimoLsn - quantidade + 1;
+                    instante = instantePendente;
+                    pendente = reserva;
+                    registrosPendentes = 0;
+                }
+
+                Quadro quadro = new Quadro(lsnInicial, quantidade, instante, registros.tamanho,
+                        ProtocoloReplicacao.comprimir(registros, deflater));
+                registros.limpar();
+                reserva = registros;
+
+                synchronized (trava) {
+                    log.add(quadro);
+                    bytesLog += quadro.comprimido.length;
+                    bytesOriginais += quadro.tamanhoOriginal;
+                    bytesComprimidos += quadro.comprimido.length;
+                    descartarQuadrosAntigos();
+                    trava.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Descarta os quadros anteriores à base que nenhum seguidor ainda precisa
+     * (ou todos os anteriores à base, se o log passou do limite)
+     */
+    private void descartarQuadrosAntigos() {
+        long fim = primeiroIndice + log.size();
+        while (indiceBase < fim && quadroNoIndice(indiceBase).lsnFinal() <= base.lsn) {
+            indiceBase++;
+        }
+        long limite = indiceBase;
+        if (bytesLog <= LIMITE_LOG_BYTES) {
+            for (Sessao sessao : sessoes) {
+                if (sessao.proximoIndice >= 0) {
+                    limite = Math.min(limite, sessao.proximoIndice);
+                }
+            }
+        }
+        int descartados = (int) Math.max(0, limite - primeiroIndice);
+        if (descartados > 0) {
+            List<Quadro> antigos = log.subList(0, descartados);
+            for (Quadro quadro : antigos) {
+                bytesLog -= quadro.comprimido.length;
+            }
+            antigos.clear();
+            primeiroIndice += descartados;
+        }
+    }
+
+    private Quadro quadroNoIndice(long indice) {
+        return log.get((int) (indice - primeiroIndice));
+    }
+
+    // ==================== SEGUIDORES ====================
+
+    private void aceitar() {
+        while (!fechada) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                Sessao sessao = new Sessao(socket);
+                sessoes.add(sessao);
+                sessao.iniciar();
+            } catch (IOException e) {
+                if (!fechada) {
+                    System.err.println("Replicação: falha ao aceitar seguidor: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Conexão com um seguidor: uma thread envia cópia e quadros, outra lê as confirmações
+     */
+    private final class Sessao {
+        final Socket socket;
+        final DataOutputStream saida;
+        final DataInputStream entrada;
+        long proximoIndice = -1;        // Protegido por trava (-1 enquanto não acompanha o log)
+        volatile long lsnConfirmado = -1;
+        volatile boolean encerrada;
+
+        Sessao(Socket socket) throws IOException {
+            this.socket = socket;
+            this.saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 << 10));
+            this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        void iniciar() {
+            String nome = "replicacao-seguidor-" + socket.getPort();
+            Thread envio = new Thread(this::enviar, nome);
+            Thread confirmacoes = new Thread(this::lerConfirmacoes, nome + "-confirmacoes");
+            envio.setDaemon(true);
+            confirmacoes.setDaemon(true);
+            envio.start();
+            confirmacoes.start();
+        }
+
+        private void enviar() {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                saida.writeInt(ProtocoloReplicacao.MAGICO);
+                saida.writeInt(ProtocoloReplicacao.VERSAO);
+                while (!fechada && !encerrada) {
+                    // Cópia da base e posição no log logo após ela, juntas
+                    Base copia;
+                    synchronized (trava) {
+                        copia = base;
+                        proximoIndice = primeiroIndice;
+                        long fim = primeiroIndice + log.size();
+                        while (proximoIndice < fim && quadroNoIndice(proximoIndice).lsnFinal() <= copia.lsn) {
+                            proximoIndice++;
+                        }
+                        copiasEnviadas++;
+                    }
+                    enviarCopia(copia, deflater);
+                    enviarQuadros();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Seguidor desconectado (ou replicação encerrada)
+            } finally {
+                deflater.end();
+                encerrar();
+            }
+        }
+
+        /**
+         * Envia quadros a partir de proximoIndice (e pulsos quando não há
+         * quadros novos) até o seguidor ficar para trás do log retido e
+         * precisar de uma nova cópia. Nada é escrito no socket com a trava.
+         */
+        private void enviarQuadros() throws IOException, InterruptedException {
+            while (!fechada && !encerrada) {
+                Quadro quadro = null;
+                synchronized (trava) {
+                    if (proximoIndice < primeiroIndice) {
+                        return;
+                    }
+                    if (proximoIndice < primeiroIndice + log.size()) {
+                        quadro = quadroNoIndice(proximoIndice++);
+                    }
+                }
+                if (quadro != null) {
+                    saida.writeByte(ProtocoloReplicacao.QUADRO);
+                    saida.writeLong(quadro.lsnInicial);
+                    saida.writeInt(quadro.registros);
+                    saida.writeLong(quadro.instante);
+                    saida.writeInt(quadro.tamanhoOriginal);
+                    saida.writeInt(quadro.comprimido.length);
+                    saida.write(quadro.comprimido);
+                    continue;
+                }
+
+                saida.flush();
+                long lsnAtual;
+                synchronized (trava) {
+                    if (proximoIndice == primeiroIndice + log.size() && !fechada && !encerrada) {
+                        trava.wait(INTERVALO_PULSO_MS);
+                    }
+                    if (proximoIndice != primeiroIndice + log.size()) {
+                        continue;
+                    }
+                    lsnAtual = ultimoLsn;
+                }
+                saida.writeByte(ProtocoloReplicacao.PULSO);
+                saida.writeLong(lsnAtual);
+                saida.writeLong(System.currentTimeMillis());
+                saida.flush();
+            }
+        }
+
+        /**
+         * Envia as missões principais da versão em ordem de nível, em blocos comprimidos
+         */
+        private void enviarCopia(Base copia, Deflater deflater) throws IOException {
+            saida.writeByte(ProtocoloReplicacao.SNAPSHOT_INICIO);
+            saida.writeLong(copia.lsn);
+            saida.writeInt(copia.versao.totalNiveis);
+            ProtocoloReplicacao.BufferBytes bloco = new ProtocoloReplicacao.BufferBytes(LIMITE_BLOCO_SNAPSHOT + 1024);
+            int[] registros = new int[1];
+            enviarCopiaRecursivo(copia.versao.raiz, bloco, registros, deflater);
+            enviarBloco(bloco, registros, deflater);
+            saida.writeByte(ProtocoloReplicacao.SNAPSHOT_FIM);
+            saida.flush();
+        }
+
+        private void enviarCopiaRecursivo(Node node, ProtocoloReplicacao.BufferBytes bloco, int[] registros,
+                                          Deflater deflater) throws IOException {
+            if (node == null) {
+                return;
+            }
+            enviarCopiaRecursivo(node.esquerda, bloco, registros, deflater);
+            bloco.escreverInt(node.nivel);
+            bloco.escreverTexto(node.missao);
+            registros[0]++;
+            if (bloco.tamanho >= LIMITE_BLOCO_SNAPSHOT) {
+                enviarBloco(bloco, registros, deflater);
+            }
+            enviarCopiaRecursivo(node.direita, bloco, registros, deflater);
+        }
+
+        private void enviarBloco(ProtocoloReplicacao.BufferBytes bloco, int[] registros, Deflater deflater)
+                throws IOException {
+            if (registros[0] == 0) {
+                return;
+            }
+            byte[] comprimido = ProtocoloReplicacao.comprimir(bloco, deflater);
+            saida.writeByte(ProtocoloReplicacao.SNAPSHOT_BLOCO);
+            saida.writeInt(registros[0]);
+            saida.writeInt(bloco.tamanho);
+            saida.writeInt(comprimido.length);
+            saida.write(comprimido);
+            bloco.limpar();
+            registros[0] = 0;
+        }
+
+        private void lerConfirmacoes() {
+            try {
+                while (true) {
+                    lsnConfirmado = entrada.readLong();
+                }
+            } catch (IOException e) {
+                encerrar();
+            }
+        }
+
+        private void encerrar() {
+            encerrada = true;
+            if (sessoes.remove(this)) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Já fechado
+                }
+                synchronized (trava) {
+                    proximoIndice = -1;
+                    trava.notifyAll();
+                }
+            }
+        }
+    }
+
+    // ==================== ESTATÍSTICAS ====================
+
+    /**
+     * LSN do último registro gerado
+     */
+    public long getUltimoLsn() {
+        synchronized (trava) {
+            return ultimoLsn;
+        }
+    }
+
+    /**
+     * Seguidores conectados
+     */
+    public int getSeguidores() {
+        return sessoes.size();
+    }
+
+    /**
+     * Registros gerados e ainda não confirmados pelo seguidor mais atrasado
+     * (0 sem seguidores; conta a partir da base enquanto um seguidor recebe a cópia)
+     */
+    public long getAtrasoMaximo() {
+        long ultimo = getUltimoLsn();
+        long atraso = 0;
+        for (Sessao sessao : sessoes) {
+            atraso = Math.max(atraso, ultimo - Math.max(0, sessao.lsnConfirmado));
+        }
+        return atraso;
+    }
+
+    /**
+     * Retorna true se todos os seguidores confirmaram o LSN
+     */
+    public boolean todosConfirmaram(long lsn) {
+        for (Sessao sessao : sessoes) {
+            if (sessao.lsnConfirmado < lsn) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Assinatura do conteúdo replicado (chamar na thread da árvore), comparável com a dos seguidores
+     */
+    public long assinatura() {
+        return ProtocoloReplicacao.assinatura(arvore.getRaiz());
+    }
+
+    /**
+     * Resumo das estatísticas para exibição
+     */
+    public String resumo() {
+        synchronized (trava) {
+            return String.format("Replicação: porta %d, %d seguidores, LSN %,d, atraso máximo %,d registros | "
+                            + "log: %,d quadros retidos (%,d KB) | compressão: %,d KB -> %,d KB (%.1fx) | "
+                            + "cópias completas enviadas: %d",
+                    getPorta(), sessoes.size(), ultimoLsn, getAtrasoMaximo(), log.size(), bytesLog >> 10,
+                    bytesOriginais >> 10, bytesComprimidos >> 10,
+                    (bytesComprimidos == 0) ? 0.0 : (double) bytesOriginais / bytesComprimidos, copiasEnviadas);
+        }
+    }
+
+    /**
+     * Para de registrar alterações e desconecta os seguidores
+     */
+    @Override
+    public void close() throws IOException {
+        fechada = true;
+        arvore.removerOuvinte(this);
+        servidor.close();
+        for (Sessao sessao : sessoes) {
+            sessao.encerrar();
+        }
+        synchronized (trava) {
+            trava.notifyAll();
+        }
+        empacotamento.interrupt();
+    }
+}
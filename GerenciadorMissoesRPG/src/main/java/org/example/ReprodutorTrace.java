@@ -0,0 +1,161 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reprodução de traces de carga na árvore de missões (opção do menu de
+ * texto e comando "reproduzir" do LancadorHeadless).
+ *
+ * Os traces são gravados pelo GeradorCargaTrabalho (código de teste).
+ * Formato (uma operação por linha):
+ *   B nivel            buscar
+ *   I nivel descricao  inserir
+ *   R nivel            remover
+ */
+public final class ReprodutorTrace {
+
+    /**
+     * Tipos de operação de um trace
+     */
+    public enum Operacao {
+        BUSCAR, INSERIR, REMOVER
+    }
+
+    private ReprodutorTrace() {
+    }
+
+    /**
+     * Aplica uma operação à árvore
+     */
+    static void aplicar(ArvoreAVL arvore, Operacao tipo, int nivel, String descricao) {
+        switch (tipo) {
+            case BUSCAR:
+                arvore.buscarNo(nivel);
+                break;
+            case INSERIR:
+                arvore.inserir(nivel, descricao);
+                break;
+            case REMOVER:
+                arvore.remover(nivel);
+                break;
+        }
+    }
+
+    /**
+     * Reproduz um arquivo de trace na árvore, medindo cada operação
+     * @param arquivo Trace no formato descrito acima
+     * @return Vazão e latências por tipo de operação
+     */
+    public static ResultadoCarga reproduzir(Path arquivo, ArvoreAVL arvore) throws IOException {
+        ResultadoCarga resultado = new ResultadoCarga();
+        long duracao = 0;
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            int numeroLinha = 0;
+            while ((linha = reader.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isEmpty()) {
+                    continue;
+                }
+                Operacao tipo;
+                switch (linha.charAt(0)) {
+                    case 'B':
+                        tipo = Operacao.BUSCAR;
+                        break;
+                    case 'I':
+                        tipo = Operacao.INSERIR;
+                        break;
+                    case 'R':
+                        tipo = Operacao.REMOVER;
+                        break;
+                    default:
+                        throw new IOException("Linha " + numeroLinha + ": operação desconhecida");
+                }
+                int fimNivel = linha.indexOf(' ', 2);
+                if (fimNivel < 0) {
+                    fimNivel = linha.length();
+                }
+                int nivel;
+                try {
+                    nivel = Integer.parseInt(linha.substring(2, fimNivel));
+                } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                    throw new IOException("Linha " + numeroLinha + ": nível inválido");
+                }
+                String descricao = (tipo == Operacao.INSERIR && fimNivel < linha.length())
+                        ? linha.substring(fimNivel + 1) : "";
+
+                long antes = System.nanoTime();
+                aplicar(arvore, tipo, nivel, descricao);
+                long latencia = System.nanoTime() - antes;
+                resultado.registrar(tipo, latencia);
+                duracao += latencia;
+            }
+        }
+        resultado.duracaoNanos = duracao;
+        return resultado;
+    }
+
+    /**
+     * Resultado de uma execução de carga
+     */
+    public static final class ResultadoCarga {
+        private final HistogramaLatencia[] porTipo;
+        long duracaoNanos;
+
+        ResultadoCarga() {
+            porTipo = new HistogramaLatencia[Operacao.values().length];
+            for (int i = 0; i < porTipo.length; i++) {
+                porTipo[i] = new HistogramaLatencia();
+            }
+        }
+
+        void registrar(Operacao tipo, long nanos) {
+            porTipo[tipo.ordinal()].registrar(nanos);
+        }
+
+        public HistogramaLatencia getLatencias(Operacao tipo) {
+            return porTipo[tipo.ordinal()];
+        }
+
+        public HistogramaLatencia getLatenciasTotais() {
+            HistogramaLatencia total = new HistogramaLatencia();
+            for (HistogramaLatencia histograma : porTipo) {
+                total.acumular(histograma);
+            }
+            return total;
+        }
+
+        public long getOperacoes() {
+            long operacoes = 0;
+            for (HistogramaLatencia histograma : porTipo) {
+                operacoes += histograma.getTotal();
+            }
+            return operacoes;
+        }
+
+        /**
+         * Vazão em operações por segundo
+         */
+        public double getVazao() {
+            return (duracaoNanos == 0) ? 0 : getOperacoes() * 1e9 / duracaoNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Operações: %d em %.2f s | Vazão: %.0f ops/s%n",
+                    getOperacoes(), duracaoNanos / 1e9, getVazao()));
+            for (Operacao tipo : Operacao.values()) {
+                HistogramaLatencia histograma = porTipo[tipo.ordinal()];
+                if (histograma.getTotal() > 0) {
+                    sb.append(String.format("  %-8s %s%n", tipo, histograma));
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example;
+
+/**
+ * Resumo das recompensas (xp e ouro) de uma faixa de níveis, calculado por
+ * ArvoreAVL.resumirRecompensas
+ */
+public final class ResumoRecompensas {
+    private boolean vazio = true;
+    private long somaXp;
+    private long somaOuro;
+    private int minXp;
+    private int maxXp;
+    private int minOuro;
+    private int maxOuro;
+
+    ResumoRecompensas() {
+    }
+
+    /**
+     * Inclui a missão do nó (sem os filhos)
+     */
+    void acumular(Node node) {
+        int xp = ArvoreAVL.xp(node);
+        int ouro = ArvoreAVL.ouro(node);
+        incluir(xp, xp, xp, ouro, ouro, ouro);
+    }
+
+    /**
+     * Inclui todas as missões da subárvore, usando os agregados da raiz
+     */
+    void acumularSubarvore(Node node) {
+        if (node == null) {
+            return;
+        }
+        RecompensasNo r = node.recompensas;
+        if (r == null) {
+            incluir(0, 0, 0, 0, 0, 0);   // Subárvore sem recompensas: tudo zero
+        } else {
+            incluir(r.somaXp, r.minXp, r.maxXp, r.somaOuro, r.minOuro, r.maxOuro);
+        }
+    }
+
+    private void incluir(long xp, int minimoXp, int maximoXp, long ouro, int minimoOuro, int maximoOuro) {
+        if (vazio) {
+            vazio = false;
+            minXp = minimoXp;
+            maxXp = maximoXp;
+            minOuro = minimoOuro;
+            maxOuro = maximoOuro;
+        } else {
+            minXp = Math.min(minXp, minimoXp);
+            maxXp = Math.max(maxXp, maximoXp);
+            minOuro = Math.min(minOuro, minimoOuro);
+            maxOuro = Math.max(maxOuro, maximoOuro);
+        }
+        somaXp += xp;
+        somaOuro += ouro;
+    }
+
+    /**
+     * Retorna true se nenhuma missão está na faixa (mínimos e máximos valem 0)
+     */
+    public boolean isVazio() {
+        return vazio;
+    }
+
+    public long getSomaXp() {
+        return somaXp;
+    }
+
+    public long getSomaOuro() {
+        return somaOuro;
+    }
+
+    public int getMinXp() {
+        return minXp;
+    }
+
+    public int getMaxXp() {
+        return maxXp;
+    }
+
+    public int getMinOuro() {
+        return minOuro;
+    }
+
+    public int getMaxOuro() {
+        return maxOuro;
+    }
+
+    @Override
+    public String toString() {
+        if (vazio) {
+            return "Nenhuma missão na faixa";
+        }
+        return String.format("XP: total %d (mín. %d, máx. %d) | Ouro: total %d (mín. %d, máx. %d)",
+                somaXp, minXp, maxXp, somaOuro, minOuro, maxOuro);
+    }
+}
@@ -0,0 +1,342 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Roda de temporização hierárquica (4 níveis de 64 posições) para
+ * expiração de chaves inteiras.
+ *
+ * O nível 0 tem uma posição por tique; cada nível acima cobre 64 vezes mais
+ * tempo. Quando o nível de baixo dá a volta, a posição correspondente do
+ * nível de cima é redistribuída para baixo (cascata). Agendar e cancelar são
+ * O(1); o custo de cada tique não depende de quantas chaves estão pendentes,
+ * apenas de quantas expiram nele. Prazos além de 64^4 tiques ficam no último
+ * nível e são reavaliados a cada cascata.
+ *
+ * As entradas são localizadas por chave em uma tabela de endereçamento
+ * aberto (sem Integer nem nós de HashMap por chave pendente).
+ *
+ * O tempo é medido em tiques abstratos (por exemplo, milissegundos).
+ */
+final class RodaTemporizacao {
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    private static final int NIVEIS = 4;
+    private static final long ALCANCE = 1L << (BITS * NIVEIS);
+
+    /**
+     * Chave agendada, encadeada na lista da sua posição
+     */
+    private static final class Entrada {
+        final int chave;
+        long expiracao;
+        int posicao;            // nivel * POSICOES + posição no nível
+        Entrada anterior;
+        Entrada proxima;
+
+        Entrada(int chave) {
+            this.chave = chave;
+        }
+    }
+
+    private final Entrada[] listas;
+    private final int[] contagemNivel;
+    private Entrada[] porChave;     // Tabela hash (sondagem linear) chave -> entrada
+    private int[] chavesTabela;     // Chaves da tabela, para sondar sem acessar as entradas
+    private int pendentes;
+    private long proximoTique;      // Próximo tique ainda não processado
+
+    private int[] expiradas;
+    private int quantidadeExpiradas;
+
+    /**
+     * @param agora Tempo atual, em tiques
+     */
+    RodaTemporizacao(long agora) {
+        this.listas = new Entrada[NIVEIS * POSICOES];
+        this.contagemNivel = new int[NIVEIS];
+        this.porChave = new Entrada[16];
+        this.chavesTabela = new int[16];
+        this.proximoTique = agora + 1;
+        this.expiradas = new int[16];
+    }
+
+    /**
+     * Retorna o último tique processado
+     */
+    long getTempoAtual() {
+        return proximoTique - 1;
+    }
+
+    int getPendentes() {
+        return pendentes;
+    }
+
+    // ==================== TABELA POR CHAVE ====================
+
+    private int posicaoTabela(int chave) {
+        int mascara = porChave.length - 1;
+        int i = TabelaLongLong.espalhar(chave) & mascara;
+        while (porChave[i] != null && chavesTabela[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private Entrada localizar(int chave) {
+        return porChave[posicaoTabela(chave)];
+    }
+
+    private void guardar(Entrada entrada) {
+        if ((pendentes + 1) * 4L > porChave.length * 3L) {
+            Entrada[] antiga = porChave;
+            porChave = new Entrada[antiga.length * 2];
+            chavesTabela = new int[antiga.length * 2];
+            for (Entrada e : antiga) {
+                if (e != null) {
+                    int i = posicaoTabela(e.chave);
+                    porChave[i] = e;
+                    chavesTabela[i] = e.chave;
+                }
+            }
+        }
+        int i = posicaoTabela(entrada.chave);
+        porChave[i] = entrada;
+        chavesTabela[i] = entrada.chave;
+        pendentes++;
+    }
+
+    /**
+     * Retira a chave da tabela (deslocamento para trás, sem marcadores de remoção)
+     */
+    private Entrada retirar(int chave) {
+        int i = posicaoTabela(chave);
+        Entrada entrada = porChave[i];
+        if (entrada == null) {
+            return null;
+        }
+        int mascara = porChave.length - 1;
+        int vazia = i;
+        int j = (i + 1) & mascara;
+        while (porChave[j] != null) {
+            int ideal = TabelaLongLong.espalhar(chavesTabela[j]) & mascara;
+            if (((j - ideal) & mascara) >= ((j - vazia) & mascara)) {
+                porChave[vazia] = porChave[j];
+                chavesTabela[vazia] = chavesTabela[j];
+                vazia = j;
+            }
+            j = (j + 1) & mascara;
+        }
+        porChave[vazia] = null;
+        pendentes--;
+        return entrada;
+    }
+
+    // ==================== AGENDAMENTO ====================
+
+    /**
+     * Retorna o tique de expiração da chave ou -1 se ela não está agendada
+     */
+    long expiracao(int chave) {
+        Entrada entrada = localizar(chave);
+        return (entrada != null) ? entrada.expiracao : -1;
+    }
+
+    /**
+     * Agenda (ou reagenda) a expiração da chave para o tique informado.
+     * Um prazo que já passou vence no próximo avancar.
+     * @param expiracao Tique absoluto de expiração
+     */
+    void agendar(int chave, long expiracao) {
+        Entrada entrada = localizar(chave);
+        if (entrada == null) {
+            entrada = new Entrada(chave);
+            guardar(entrada);
+        } else {
+            desencadear(entrada);
+        }
+        entrada.expiracao = expiracao;
+        encadear(entrada);
+    }
+
+    /**
+     * Cancela a expiração da chave
+     * @return true se a chave estava agendada
+     */
+    boolean cancelar(int chave) {
+        Entrada entrada = retirar(chave);
+        if (entrada == null) {
+            return false;
+        }
+        desencadear(entrada);
+        return true;
+    }
+
+    void limpar() {
+        Arrays.fill(listas, null);
+        Arrays.fill(contagemNivel, 0);
+        Arrays.fill(porChave, null);
+        pendentes = 0;
+    }
+
+    /**
+     * Coloca a entrada na posição correspondente à distância até a expiração
+     */
+    private void encadear(Entrada entrada) {
+        long expiracao = entrada.expiracao;
+        long distancia = expiracao - proximoTique;
+        int nivel;
+        if (distancia < 0) {
+            // Já venceu: processada no próximo tique
+            expiracao = proximoTique;
+            nivel = 0;
+        } else if (distancia >= ALCANCE) {
+            // Além do alcance: fica no último nível até ser reavaliada
+            expiracao = proximoTique + ALCANCE - 1;
+            nivel = NIVEIS - 1;
+        } else {
+            nivel = (63 - Long.numberOfLeadingZeros(distancia | 1)) / BITS;
+        }
+        int posicao = nivel * POSICOES + (int) ((expiracao >>> (nivel * BITS)) & MASCARA);
+
+        entrada.posicao = posicao;
+        entrada.anterior = null;
+        entrada.proxima = listas[posicao];
+        if (entrada.proxima != null) {
+            entrada.proxima.anterior = entrada;
+        }
+        listas[posicao] = entrada;
+        contagemNivel[nivel]++;
+    }
+
+    private void desencadear(Entrada entrada) {
+        if (entrada.anterior != null) {
+            entrada.anterior.proxima = entrada.proxima;
+        } else {
+            listas[entrada.posicao] = entrada.proxima;
+        }
+        if (entrada.proxima != null) {
+            entrada.proxima.anterior = entrada.anterior;
+        }
+        entrada.anterior = null;
+        entrada.proxima = null;
+        contagemNivel[entrada.posicao / POSICOES]--;
+    }
+
+    /**
+     * Retira toda a lista de uma posição, devolvendo seu início
+     */
+    private Entrada esvaziar(int posicao) {
+        Entrada inicio = listas[posicao];
+        listas[posicao] = null;
+        for (Entrada e = inicio; e != null; e = e.proxima) {
+            contagemNivel[posicao / POSICOES]--;
+        }
+        return inicio;
+    }
+
+    /**
+     * Redistribui a posição do nível para os níveis de baixo
+     * @return Índice da posição dentro do nível (0 indica volta completa)
+     */
+    private int cascata(int nivel) {
+        int indice = (int) ((proximoTique >>> (nivel * BITS)) & MASCARA);
+        Entrada e = esvaziar(nivel * POSICOES + indice);
+        while (e != null) {
+            Entrada proxima = e.proxima;
+            encadear(e);
+            e = proxima;
+        }
+        return indice;
+    }
+
+    private void registrarExpirada(int chave) {
+        if (quantidadeExpiradas == expiradas.length) {
+            expiradas = Arrays.copyOf(expiradas, quantidadeExpiradas * 2);
+        }
+        expiradas[quantidadeExpiradas++] = chave;
+    }
+
+    /**
+     * Avança o relógio até o tique informado, coletando as chaves vencidas.
+     * Trechos em que os níveis de baixo estão vazios são saltados de uma vez.
+     * @param agora Novo tempo atual (valores no passado são ignorados)
+     * @return Quantidade de chaves expiradas, disponíveis em getExpiradas()
+     */
+    int avancar(long agora) {
+        quantidadeExpiradas = 0;
+        if (agora - proximoTique >= ALCANCE) {
+            redistribuir(agora);
+            return quantidadeExpiradas;
+        }
+
+        while (proximoTique <= agora) {
+            if (pendentes == 0) {
+                proximoTique = agora + 1;
+                break;
+            }
+            // Saltar até o próximo ponto de cascata se os níveis de baixo estão vazios
+            int vazios = 0;
+            while (vazios < NIVEIS - 1 && contagemNivel[vazios] == 0) {
+                vazios++;
+            }
+            if (vazios > 0) {
+                long bloco = 1L << (vazios * BITS);
+                if ((proximoTique & (bloco - 1)) != 0) {
+                    proximoTique = Math.min(agora + 1, (proximoTique | (bloco - 1)) + 1);
+                    continue;
+                }
+            }
+
+            int indice = (int) (proximoTique & MASCARA);
+            for (int nivel = 1; indice == 0 && nivel < NIVEIS; nivel++) {
+                indice = cascata(nivel);
+            }
+
+            Entrada e = esvaziar((int) (proximoTique & MASCARA));
+            while (e != null) {
+                Entrada proxima = e.proxima;
+                retirar(e.chave);
+                registrarExpirada(e.chave);
+                e = proxima;
+            }
+            proximoTique++;
+        }
+        return quantidadeExpiradas;
+    }
+
+    /**
+     * Salto maior que o alcance da roda: reavalia todas as entradas de uma vez
+     */
+    private void redistribuir(long agora) {
+        Entrada pendentes = null;
+        for (int posicao = 0; posicao < listas.length; posicao++) {
+            Entrada e = esvaziar(posicao);
+            while (e != null) {
+                Entrada proxima = e.proxima;
+                if (e.expiracao <= agora) {
+                    retirar(e.chave);
+                    registrarExpirada(e.chave);
+                } else {
+                    e.proxima = pendentes;
+                    pendentes = e;
+                }
+                e = proxima;
+            }
+        }
+        proximoTique = agora + 1;
+        while (pendentes != null) {
+            Entrada proxima = pendentes.proxima;
+            encadear(pendentes);
+            pendentes = proxima;
+        }
+    }
+
+    /**
+     * Chaves expiradas no último avancar (válidas até a próxima chamada)
+     */
+    int[] getExpiradas() {
+        return expiradas;
+    }
+}
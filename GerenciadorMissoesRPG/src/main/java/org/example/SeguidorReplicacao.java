@@ -0,0 +1,365 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.zip.Inflater;
+
+/**
+ * Seguidor somente leitura de uma ReplicacaoPrimaria.
+ *
+ * Uma thread conecta ao primário, carrega a cópia completa recebida em uma
+ * ArvoreAVL própria (carga ordenada) e aplica os quadros de registros que
+ * chegam, ignorando os que a cópia já inclui. Depois de cada quadro a versão
+ * da árvore é congelada e publicada: as leituras, de qualquer thread, usam
+ * a última versão publicada sem travas. Se a conexão cai, o seguidor tenta
+ * de novo e recomeça de uma nova cópia.
+ *
+ * O atraso é medido em registros (último LSN conhecido do primário menos o
+ * aplicado) e em tempo (do registro mais antigo do último quadro ser gerado
+ * no primário até ser aplicado aqui; 0 quando um pulso confirma que não há
+ * nada pendente).
+ */
+public final class SeguidorReplicacao implements AutoCloseable {
+    private static final long INTERVALO_RECONEXAO_MS = 500;
+    private static final int TEMPO_CONEXAO_MS = 2_000;
+    private static final long INTERVALO_CONFIRMACAO_NANOS = 10_000_000;   // Confirma mesmo sem esvaziar a entrada
+
+    private final InetSocketAddress endereco;
+    private final Thread thread;
+    private final Object aplicacao = new Object();   // Avisa quem espera por um LSN
+
+    private volatile Publicacao publicada = new Publicacao(null, -1);
+    private volatile long lsnAplicado = -1;
+    private volatile long lsnPrimario = -1;
+    private volatile long atrasoMillis;
+    private volatile boolean conectado;
+    private volatile boolean fechado;
+    private volatile Socket socket;
+    private volatile long copiasRecebidas;
+    private volatile long quadrosAplicados;
+    private volatile long registrosAplicados;
+    private volatile long bytesRecebidos;
+
+    /**
+     * Versão congelada da árvore junto com o LSN em que foi capturada
+     */
+    private static final class Publicacao {
+        final ArvoreAVL.Versao versao;
+        final long lsn;
+
+        Publicacao(ArvoreAVL.Versao versao, long lsn) {
+            this.versao = versao;
+            this.lsn = lsn;
+        }
+
+        Node raiz() {
+            return (versao != null) ? versao.raiz : null;
+        }
+    }
+
+    /**
+     * Começa a seguir o primário em host:porta
+     */
+    public SeguidorReplicacao(String host, int porta) {
+        this.endereco = new InetSocketAddress(host, porta);
+        this.thread = new Thread(this::executar, "replicacao-seguidor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void executar() {
+        while (!fechado) {
+            try {
+                seguir();
+            } catch (IOException e) {
+                // Primário indisponível ou conexão perdida: tenta de novo
+            }
+            conectado = false;
+            try {
+                Thread.sleep(INTERVALO_RECONEXAO_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void seguir() throws IOException {
+        try (Socket conexao = new Socket()) {
+            socket = conexao;
+            if (fechado) {
+                return;
+            }
+            conexao.connect(endereco, TEMPO_CONEXAO_MS);
+            conexao.setTcpNoDelay(true);
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(conexao.getInputStream(), 64 << 10));
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(conexao.getOutputStream()));
+            if (entrada.readInt() != ProtocoloReplicacao.MAGICO || entrada.readInt() != ProtocoloReplicacao.VERSAO) {
+                throw new IOException("Primário com protocolo incompatível em " + endereco);
+            }
+            conectado = true;
+
+            Inflater inflater = new Inflater();
+            try {
+                ArvoreAVL arvore = null;
+                long ultimaConfirmacao = System.nanoTime();
+                while (!fechado) {
+                    byte tipo = entrada.readByte();
+                    switch (tipo) {
+                        case ProtocoloReplicacao.SNAPSHOT_INICIO:
+                            arvore = lerCopia(entrada, inflater);
+                            break;
+                        case ProtocoloReplicacao.QUADRO:
+                            if (arvore == null) {
+                                throw new IOException("Quadro recebido antes da cópia");
+                            }
+                            aplicarQuadro(entrada, inflater, arvore);
+                            break;
+                        case ProtocoloReplicacao.PULSO:
+                            long ultimo = entrada.readLong();
+                            entrada.readLong();
+                            lsnPrimario = Math.max(lsnPrimario, ultimo);
+                            if (lsnAplicado >= ultimo) {
+                                atrasoMillis = 0;
+                            }
+                            break;
+                        default:
+                            throw new IOException("Mensagem desconhecida: " + tipo);
+                    }
+                    long agora = System.nanoTime();
+                    if (entrada.available() == 0 || agora - ultimaConfirmacao >= INTERVALO_CONFIRMACAO_NANOS) {
+                        ultimaConfirmacao = agora;
+                        saida.writeLong(lsnAplicado);
+                        saida.flush();
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Lê a cópia completa e a carrega em uma árvore nova
+     */
+    private ArvoreAVL lerCopia(DataInputStream entrada, Inflater inflater) throws IOException {
+        long lsn = entrada.readLong();
+        int total = entrada.readInt();
+        int[] niveis = new int[total];
+        String[] missoes = new String[total];
+        int lidos = 0;
+        while (true) {
+            byte tipo = entrada.readByte();
+            if (tipo == ProtocoloReplicacao.SNAPSHOT_FIM) {
+                break;
+            }
+            if (tipo != ProtocoloReplicacao.SNAPSHOT_BLOCO) {
+                throw new IOException("Mensagem " + tipo + " no meio da cópia");
+            }
+            int registros = entrada.readInt();
+            int tamanhoOriginal = entrada.readInt();
+            int tamanhoComprimido = entrada.readInt();
+            if (lidos + registros > total) {
+                throw new IOException("Cópia com mais de " + total + " missões");
+            }
+            ProtocoloReplicacao.LeitorBytes leitor = new ProtocoloReplicacao.LeitorBytes(
+                    ProtocoloReplicacao.lerComprimido(entrada, tamanhoOriginal, tamanhoComprimido, inflater));
+            for (int i = 0; i < registros; i++) {
+                niveis[lidos] = leitor.lerInt();
+                missoes[lidos++] = leitor.lerTexto();
+            }
+            bytesRecebidos += tamanhoComprimido;
+        }
+        if (lidos != total) {
+            throw new IOException("Cópia com " + lidos + " missões, esperadas " + total);
+        }
+
+        ArvoreAVL arvore = new ArvoreAVL();
+        arvore.carregarOrdenado(niveis, missoes, total);
+        copiasRecebidas++;
+        lsnPrimario = Math.max(lsnPrimario, lsn);
+        publicar(arvore, lsn);
+        return arvore;
+    }
+
+    /**
+     * Aplica os registros do quadro com LSN maior que o já aplicado
+     */
+    private void aplicarQuadro(DataInputStream entrada, Inflater inflater, ArvoreAVL arvore) throws IOException {
+        long lsnInicial = entrada.readLong();
+        int registros = entrada.readInt();
+        long instante = entrada.readLong();
+        int tamanhoOriginal = entrada.readInt();
+        int tamanhoComprimido = entrada.readInt();
+        ProtocoloReplicacao.LeitorBytes leitor = new ProtocoloReplicacao.LeitorBytes(
+                ProtocoloReplicacao.lerComprimido(entrada, tamanhoOriginal, tamanhoComprimido, inflater));
+        bytesRecebidos += tamanhoComprimido;
+
+        long aplicado = lsnAplicado;
+        for (int i = 0; i < registros; i++) {
+            long lsn = lsnInicial + i;
+            byte operacao = leitor.lerByte();
+            int nivel = leitor.lerInt();
+            String missao = (operacao == ProtocoloReplicacao.INSERIR) ? leitor.lerTexto() : null;
+            if (lsn <= aplicado) {
+                continue;   // Já incluído na cópia
+            }
+            switch (operacao) {
+                case ProtocoloReplicacao.INSERIR:
+                    arvore.inserir(nivel, missao);
+                    break;
+                case ProtocoloReplicacao.REMOVER:
+                    arvore.remover(nivel);
+                    break;
+                case ProtocoloReplicacao.LIMPAR:
+                    arvore.limpar();
+                    break;
+                default:
+                    throw new IOException("Operação desconhecida no LSN " + lsn + ": " + operacao);
+            }
+            registrosAplicados++;
+        }
+        long ultimo = lsnInicial + registros - 1;
+        quadrosAplicados++;
+        lsnPrimario = Math.max(lsnPrimario, ultimo);
+        atrasoMillis = Math.max(0, System.currentTimeMillis() - instante);
+        publicar(arvore, Math.max(aplicado, ultimo));
+    }
+
+    private void publicar(ArvoreAVL arvore, long lsn) {
+        publicada = new Publicacao(arvore.capturarVersao(), lsn);
+        synchronized (aplicacao) {
+            lsnAplicado = lsn;
+            aplicacao.notifyAll();
+        }
+    }
+
+    // ==================== LEITURAS (qualquer thread) ====================
+
+    /**
+     * Busca a missão de um nível na última versão aplicada
+     * @return String com a missão ou null se não encontrar (ou ainda sem cópia)
+     */
+    public String buscar(int nivel) {
+        Node node = publicada.raiz();
+        while (node != null && node.nivel != nivel) {
+            node = (nivel < node.nivel) ? node.esquerda : node.direita;
+        }
+        return (node != null) ? node.toString() : null;
+    }
+
+    /**
+     * Retorna as missões principais da última versão aplicada, em ordem crescente de nível
+     */
+    public String listarEmOrdem() {
+        StringBuilder sb = new StringBuilder();
+        listarEmOrdemRecursivo(publicada.raiz(), sb);
+        return sb.toString();
+    }
+
+    private static void listarEmOrdemRecursivo(Node node, StringBuilder sb) {
+        if (node != null) {
+            listarEmOrdemRecursivo(node.esquerda, sb);
+            sb.append(node.toString()).append("\n");
+            listarEmOrdemRecursivo(node.direita, sb);
+        }
+    }
+
+    public int getTotalMissoes() {
+        ArvoreAVL.Versao versao = publicada.versao;
+        return (versao != null) ? versao.totalNiveis : 0;
+    }
+
+    /**
+     * Assinatura do conteúdo, comparável com ReplicacaoPrimaria.assinatura
+     */
+    public long assinatura() {
+        return ProtocoloReplicacao.assinatura(publicada.raiz());
+    }
+
+    /**
+     * Linha de estado para scripts: LSN e assinatura da mesma versão publicada
+     * ("lsn N | atraso R registros / M ms | T missões | conectado | assinatura X")
+     */
+    public String estado() {
+        Publicacao atual = publicada;
+        return String.format("lsn %d | atraso %d registros / %d ms | %d missões | %s | assinatura %016x",
+                atual.lsn, getAtrasoRegistros(), atrasoMillis,
+                (atual.versao != null) ? atual.versao.totalNiveis : 0,
+                conectado ? "conectado" : "desconectado", ProtocoloReplicacao.assinatura(atual.raiz()));
+    }
+
+    /**
+     * Espera até o LSN ser aplicado (ler as próprias escritas feitas no primário)
+     * @return true se foi aplicado dentro do prazo
+     */
+    public boolean aguardarLsn(long lsn, long timeoutMillis) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMillis;
+        synchronized (aplicacao) {
+            while (lsnAplicado < lsn) {
+                long restante = limite - System.currentTimeMillis();
+                if (restante <= 0) {
+                    return false;
+                }
+                aplicacao.wait(restante);
+            }
+        }
+        return true;
+    }
+
+    // ==================== ESTATÍSTICAS ====================
+
+    /**
+     * LSN do último registro aplicado (-1 antes da primeira cópia)
+     */
+    public long getLsnAplicado() {
+        return lsnAplicado;
+    }
+
+    /**
+     * Registros que o primário já gerou (pelo que se sabe até aqui) e ainda não foram aplicados
+     */
+    public long getAtrasoRegistros() {
+        return Math.max(0, lsnPrimario - lsnAplicado);
+    }
+
+    public long getAtrasoMillis() {
+        return atrasoMillis;
+    }
+
+    public boolean isConectado() {
+        return conectado;
+    }
+
+    /**
+     * Resumo das estatísticas para exibição
+     */
+    public String resumo() {
+        return String.format("Seguidor de %s: %s | LSN %,d, atraso %,d registros / %,d ms | "
+                        + "%,d missões | %d cópias, %,d quadros, %,d registros, %,d KB recebidos",
+                endereco, conectado ? "conectado" : "desconectado", lsnAplicado, getAtrasoRegistros(),
+                atrasoMillis, getTotalMissoes(), copiasRecebidas, quadrosAplicados, registrosAplicados,
+                bytesRecebidos >> 10);
+    }
+
+    /**
+     * Desconecta e encerra a thread do seguidor (a última versão continua legível)
+     */
+    @Override
+    public void close() {
+        fechado = true;
+        Socket atual = socket;
+        if (atual != null) {
+            try {
+                atual.close();
+            } catch (IOException e) {
+                // Já fechado
+            }
+        }
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Tabela hash de long para long com endereçamento aberto (sondagem linear),
+ * sem objetos por entrada: 16 bytes por posição da tabela.
+ */
+final class TabelaLongLong {
+    private static final long AUSENTE = Long.MIN_VALUE;
+
+    private long[] chaves;
+    private long[] valores;
+    private boolean[] ocupadas;
+    private int quantidade;
+
+    TabelaLongLong(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(16, capacidadeInicial * 2 - 1));
+        this.chaves = new long[capacidade];
+        this.valores = new long[capacidade];
+        this.ocupadas = new boolean[capacidade];
+    }
+
+    static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int posicao(long chave) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (ocupadas[i] && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    /**
+     * Retorna o valor da chave ou Long.MIN_VALUE se ausente
+     */
+    long obter(long chave) {
+        int i = posicao(chave);
+        return ocupadas[i] ? valores[i] : AUSENTE;
+    }
+
+    void colocar(long chave, long valor) {
+        int i = posicao(chave);
+        if (!ocupadas[i]) {
+            if ((quantidade + 1) * 4L > chaves.length * 3L) {
+                redimensionar();
+                i = posicao(chave);
+            }
+            ocupadas[i] = true;
+            chaves[i] = chave;
+            quantidade++;
+        }
+        valores[i] = valor;
+    }
+
+    /**
+     * Remove a chave (deslocamento para trás, sem marcadores de remoção)
+     * @return Valor removido ou Long.MIN_VALUE se ausente
+     */
+    long remover(long chave) {
+        int i = posicao(chave);
+        if (!ocupadas[i]) {
+            return AUSENTE;
+        }
+        long valor = valores[i];
+        int mascara = chaves.length - 1;
+        int vazia = i;
+        int j = (i + 1) & mascara;
+        while (ocupadas[j]) {
+            int ideal = espalhar(chaves[j]) & mascara;
+            // Move j para a posição vazia se ela estiver entre a posição ideal e j
+            if (((j - ideal) & mascara) >= ((j - vazia) & mascara)) {
+                chaves[vazia] = chaves[j];
+                valores[vazia] = valores[j];
+                vazia = j;
+            }
+            j = (j + 1) & mascara;
+        }
+        ocupadas[vazia] = false;
+        quantidade--;
+        return valor;
+    }
+
+    private void redimensionar() {
+        long[] antigasChaves = chaves;
+        long[] antigosValores = valores;
+        boolean[] antigasOcupadas = ocupadas;
+        int capacidade = antigasChaves.length * 2;
+        chaves = new long[capacidade];
+        valores = new long[capacidade];
+        ocupadas = new boolean[capacidade];
+        quantidade = 0;
+        for (int i = 0; i < antigasChaves.length; i++) {
+            if (antigasOcupadas[i]) {
+                colocar(antigasChaves[i], antigosValores[i]);
+            }
+        }
+    }
+
+    // Acesso direto às posições, para percorrer a tabela
+
+    int capacidade() {
+        return chaves.length;
+    }
+
+    boolean ocupada(int posicao) {
+        return ocupadas[posicao];
+    }
+
+    long valorEm(int posicao) {
+        return valores[posicao];
+    }
+
+    void definirValorEm(int posicao, long valor) {
+        valores[posicao] = valor;
+    }
+
+    int tamanho() {
+        return quantidade;
+    }
+
+    void limpar() {
+        Arrays.fill(ocupadas, false);
+        quantidade = 0;
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Regressões da ArvoreAVL: expiração, condensação de eventos em lote e cursor
+ */
+class ArvoreAVLTest {
+
+    // ==================== EXPIRAÇÃO ====================
+
+    @Test
+    void ttlContaDoInstanteInformadoNaInsercao() {
+        ArvoreAVL arvore = new ArvoreAVL();
+        long agora = 1_000_000_000L;
+        arvore.inserir(1, "Missão temporária", 1_000, agora);
+
+        assertEquals(agora + 1_000, arvore.getExpiracao(1));
+        assertEquals(0, arvore.expirar(agora));
+        assertEquals("[Nível 1] Missão temporária", arvore.buscar(1));
+        assertEquals(0, arvore.expirar(agora + 999));
+        assertEquals(1, arvore.expirar(agora + 1_000));
+        assertNull(arvore.buscar(1));
+    }
+
+    @Test
+    void definirExpiracaoContaDoInstanteInformado() {
+        ArvoreAVL arvore = new ArvoreAVL();
+        arvore.inserir(1, "Sem prazo");
+        arvore.expirar(10);
+
+        assertTrue(arvore.definirExpiracao(1, 50, 5_000));
+        assertEquals(0, arvore.expirar(5_049));
+        assertEquals(1, arvore.expirar(5_050));
+    }
+
+    // ==================== EVENTOS ====================
+
+    private static List<String> registrarEventos(ArvoreAVL arvore) {
+        List<String> eventos = new ArrayList<>();
+        arvore.adicionarOuvinte(lote -> {
+            for (EventoArvore evento : lote) {
+                if (evento.getTipo() != EventoArvore.Tipo.ROTACAO) {
+                    eventos.add(evento.getTipo() + " " + evento.getNivel() + " " + evento.getMissao()
+                            + ((evento.getTipo() == EventoArvore.Tipo.REMOVIDA) ? " +" + evento.getAdicionais() : ""));
+                }
+            }
+        });
+        return eventos;
+    }
+
+    @Test
+    void remocaoComAdicionaisNaoViraAtualizacaoNoLote() {
+        ArvoreAVL arvore = new ArvoreAVL();
+        arvore.inserir(5, "A");
+        arvore.adicionar(5, "B");
+        List<String> eventos = registrarEventos(arvore);
+
+        arvore.iniciarLote();
+        arvore.remover(5);
+        arvore.inserir(5, "C");
+        arvore.finalizarLote();
+
+        assertEquals(List.of("REMOVIDA 5 A +1", "INSERIDA 5 C"), eventos);
+        assertEquals(1, arvore.getQuantidadeNoNivel(5));
+    }
+
+    @Test
+    void retiradaSobreviveQuandoRemocaoEInsercaoViramAtualizacao() {
+        ArvoreAVL arvore = new ArvoreAVL();
+        arvore.inserir(5, "A");
+        long id = arvore.adicionar(5, "B");
+        List<String> eventos = registrarEventos(arvore);
+
+        arvore.iniciarLote();
+        arvore.removerPorId(id);
+        arvore.remover(5);
+        arvore.inserir(5, "C");
+        arvore.finalizarLote();
+
+        assertEquals(List.of("ATUALIZADA 5 C", "RETIRADA 5 B"), eventos);
+        assertEquals(1, arvore.getQuantidadeNoNivel(5));
+    }
+
+    // ==================== CURSOR ====================
+
+    @Test
+    void cursorAcompanhaInsercoesEBuscasDaArvore() {
+        ArvoreAVL arvore = new ArvoreAVL();
+        ArvoreAVL.Cursor cursor = arvore.cursor();
+        TreeMap<Integer, String> referencia = new TreeMap<>();
+        SplittableRandom rng = new SplittableRandom(42);
+        int nivel = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            // Passos curtos, com saltos longos ocasionais e alterações fora do cursor
+            nivel = (rng.nextInt(50) == 0) ? rng.nextInt(100_000) : Math.max(0, nivel + rng.nextInt(-8, 9));
+            String missao = "Missão " + i;
+            String esperada = "[Nível " + nivel + "] " + missao;
+            switch (rng.nextInt(4)) {
+                case 0:
+                    arvore.inserir(nivel, missao);
+                    referencia.put(nivel, esperada);
+                    break;
+                case 1:
+                    assertEquals(referencia.get(nivel), cursor.buscar(nivel));
+                    break;
+                default:
+                    cursor.inserir(nivel, missao);
+                    referencia.put(nivel, esperada);
+                    break;
+            }
+            if (rng.nextInt(500) == 0) {
+                arvore.definirPeso(nivel, rng.nextInt(10));
+            }
+        }
+
+        arvore.validar();
+        assertEquals(referencia.size(), arvore.getTotalNiveis());
+        for (Map.Entry<Integer, String> entrada : referencia.entrySet()) {
+            assertEquals(entrada.getValue(), arvore.buscar(entrada.getKey()));
+        }
+    }
+}
@@ -0,0 +1,762 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks de linha de comando para a árvore de missões.
+ * Uso: mvn test-compile
+ *      java -cp target/classes:target/test-classes org.example.BenchmarkMissoes &lt;cenario&gt; [parametros]
+ */
+public class BenchmarkMissoes {
+
+    /**
+     * Mede a memória em uso após forçar algumas coletas de lixo
+     */
+    static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        long anterior = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long usada = runtime.totalMemory() - runtime.freeMemory();
+            if (usada >= anterior) {
+                return usada;
+            }
+            anterior = usada;
+        }
+        return anterior;
+    }
+
+    /**
+     * Custo de memória por versão retida no histórico de desfazer/refazer
+     */
+    private static void benchmarkHistorico(int missoes, int versoes) {
+        ArvoreAVL arvore = new ArvoreAVL();
+        Random rng = new Random(42);
+        for (int i = 0; i < missoes; i++) {
+            arvore.inserir(rng.nextInt(missoes * 4), "Missão " + i);
+        }
+
+        long semHistorico = memoriaUsada();
+        HistoricoMissoes historico = new HistoricoMissoes(arvore, versoes + 1);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < versoes; i++) {
+            int nivel = rng.nextInt(missoes * 4);
+            if ((i & 1) == 0) {
+                arvore.inserir(nivel, "Missão nova " + i);
+            } else {
+                arvore.remover(nivel);
+            }
+            historico.registrar("Operação " + i);
+        }
+        long duracao = System.nanoTime() - inicio;
+        long comHistorico = memoriaUsada();
+
+        inicio = System.nanoTime();
+        while (historico.desfazer() != null) {
+            // Voltar até o estado inicial
+        }
+        long duracaoDesfazer = System.nanoTime() - inicio;
+
+        double porVersao = (double) (comHistorico - semHistorico) / versoes;
+        System.out.printf("Missões: %d | Versões retidas: %d%n", arvore.getTotalMissoes(), historico.getVersoesRetidas());
+        System.out.printf("Memória da árvore: %.1f MB%n", semHistorico / (1024.0 * 1024.0));
+        System.out.printf("Memória por versão: %.0f bytes (cópia completa: ~%.0f bytes)%n",
+                porVersao, (double) semHistorico);
+        System.out.printf("Operação + registro: %.2f µs | Desfazer: %.3f µs%n",
+                duracao / 1000.0 / versoes, duracaoDesfazer / 1000.0 / versoes);
+    }
+
+    /**
+     * Pegada de memória por missão: Node x layout compacto.
+     * Todas as missões compartilham a mesma descrição, para medir só a estrutura.
+     */
+    private static void benchmarkMemoria(int missoes) {
+        String descricao = "Missão";
+
+        long base = memoriaUsada();
+        ArvoreAVL arvore = new ArvoreAVL();
+        for (int i = 0; i < missoes; i++) {
+            arvore.inserir(i * 0x9E3779B9, descricao);   // Chaves distintas em ordem embaralhada
+        }
+        long medidoNode = memoriaUsada() - base;
+        System.out.print(RelatorioMemoria.relatorio(arvore));
+        System.out.printf("Medido no heap: %.1f B/missão%n%n", (double) medidoNode / missoes);
+        arvore = null;
+
+        base = memoriaUsada();
+        ArvoreAVLCompacta compacta = new ArvoreAVLCompacta();
+        for (int i = 0; i < missoes; i++) {
+            compacta.inserir(i * 0x9E3779B9, descricao);
+        }
+        long medidoCompacta = memoriaUsada() - base;
+        System.out.print(RelatorioMemoria.relatorio(compacta));
+        System.out.printf("Medido no heap: %.1f B/missão%n%n", (double) medidoCompacta / missoes);
+
+        System.out.printf("Economia do layout compacto: %.0f%%%n",
+                100.0 * (medidoNode - medidoCompacta) / medidoNode);
+    }
+
+    /**
+     * Memória por inquilino com quadros pequenos (1 a 8 missões):
+     * um ArvoreAVL por inquilino em HashMap x armazém multi-inquilino,
+     * todo residente e com 10% residente (resto despejado em disco)
+     */
+    private static void benchmarkInquilinos(int inquilinos) throws IOException {
+        String[] descricoes = new String[64];
+        for (int i = 0; i < descricoes.length; i++) {
+            descricoes[i] = "Missão " + i;
+        }
+
+        long base = memoriaUsada();
+        Map<Long, ArvoreAVL> ingenuo = new HashMap<>();
+        Random rng = new Random(42);
+        for (long inquilino = 0; inquilino < inquilinos; inquilino++) {
+            ArvoreAVL arvore = new ArvoreAVL();
+            int missoes = 1 + rng.nextInt(8);
+            for (int m = 0; m < missoes; m++) {
+                arvore.inserir(rng.nextInt(100) + 1, descricoes[rng.nextInt(descricoes.length)]);
+            }
+            ingenuo.put(inquilino, arvore);
+        }
+        long memoriaIngenuo = memoriaUsada() - base;
+        System.out.printf("HashMap<Long, ArvoreAVL>: %.1f B/inquilino%n", (double) memoriaIngenuo / inquilinos);
+        ingenuo = null;
+
+        for (int residentes : new int[]{inquilinos, inquilinos / 10}) {
+            Path arquivo = Files.createTempFile("inquilinos", ".bin");
+            base = memoriaUsada();
+            ArmazemMultiInquilino armazem = new ArmazemMultiInquilino(residentes, arquivo);
+            rng = new Random(42);
+            long inicio = System.nanoTime();
+            for (long inquilino = 0; inquilino < inquilinos; inquilino++) {
+                int missoes = 1 + rng.nextInt(8);
+                for (int m = 0; m < missoes; m++) {
+                    armazem.inserir(inquilino, rng.nextInt(100) + 1, descricoes[rng.nextInt(descricoes.length)]);
+                }
+            }
+            long duracao = System.nanoTime() - inicio;
+            long memoria = memoriaUsada() - base;
+            System.out.printf("ArmazemMultiInquilino (%d residentes, %d em disco, %.0f MB em disco): %.1f B/inquilino, %.0f ns/inserção%n",
+                    armazem.getInquilinosResidentes(), armazem.getInquilinosEmDisco(),
+                    armazem.getBytesEmDisco() / 1e6, (double) memoria / inquilinos,
+                    (double) duracao / (inquilinos * 4.5));
+            armazem.close();
+        }
+    }
+
+    /**
+     * Custo do tique da roda de expiração com 10 a N expirações pendentes
+     * (nenhuma vence durante a medição) e custo por tique com missões
+     * vencendo, comparado a varrer todas as missões a cada tique e remover
+     * as vencidas uma a uma.
+     */
+    private static void benchmarkExpiracao(int maxPendentes) {
+        int tiques = 1_000_000;
+        for (int pendentes = 10; pendentes <= maxPendentes; pendentes *= 100) {
+            ArvoreAVL arvore = new ArvoreAVL();
+            Random rng = new Random(42);
+            for (int i = 0; i < pendentes; i++) {
+                arvore.inserir(i, "Missão", 2L * tiques + rng.nextInt(10 * tiques), 1);
+            }
+            long inicio = System.nanoTime();
+            for (long t = 2; t < tiques + 2; t++) {
+                arvore.expirar(t);
+            }
+            long duracao = System.nanoTime() - inicio;
+            System.out.printf("Pendentes: %,10d | %.1f ns/tique%n", pendentes, (double) duracao / tiques);
+        }
+
+        // 1M missões com prazos espalhados por T tiques: ~1M/T vencem por tique
+        int missoes = Math.min(maxPendentes, 1_000_000);
+        for (int janela = 100_000; janela >= 10; janela /= 100) {
+            ArvoreAVL arvore = new ArvoreAVL();
+            ArvoreAVL varredura = new ArvoreAVL();
+            long[] expiraEm = new long[missoes];
+            Random rng = new Random(42);
+            for (int i = 0; i < missoes; i++) {
+                expiraEm[i] = 2 + rng.nextInt(janela);
+                arvore.inserir(i, "Missão", expiraEm[i] - 1, 1);
+                varredura.inserir(i, "Missão");
+            }
+            long inicio = System.nanoTime();
+            for (long t = 2; t < janela + 2; t++) {
+                arvore.expirar(t);
+            }
+            double porTiqueRoda = (double) (System.nanoTime() - inicio) / janela;
+
+            // Varredura completa a cada tique (medida nos primeiros tiques apenas)
+            int tiquesVarredura = Math.min(janela, 100);
+            inicio = System.nanoTime();
+            for (long t = 2; t < tiquesVarredura + 2; t++) {
+                for (int nivel = 0; nivel < missoes; nivel++) {
+                    if (expiraEm[nivel] == t) {
+                        varredura.remover(nivel);
+                    }
+                }
+            }
+            double porTiqueVarredura = (double) (System.nanoTime() - inicio) / tiquesVarredura;
+            System.out.printf("Missões: %d | Vencem/tique: %,7d | roda + lote: %9.1f µs/tique | varredura + remover: %9.1f µs/tique%n",
+                    missoes, missoes / janela, porTiqueRoda / 1000, porTiqueVarredura / 1000);
+        }
+    }
+
+    /**
+     * Sorteio ponderado: copiar o catálogo para uma lista a cada sorteio e
+     * percorrer os pesos acumulados x descida pelas somas de pesos da árvore
+     */
+    private static void benchmarkSorteio(int maxMissoes) {
+        for (int missoes = 1_000; missoes <= maxMissoes; missoes *= 10) {
+            ArvoreAVL arvore = new ArvoreAVL();
+            Map<Integer, Integer> pesos = new HashMap<>();
+            Random rng = new Random(42);
+            for (int i = 0; i < missoes; i++) {
+                int peso = 1 + rng.nextInt(100);
+                arvore.inserir(i, "Missão " + i);
+                arvore.definirPeso(i, peso);
+                pesos.put(i, peso);
+            }
+
+            // Cópia por sorteio (limitada a ~0,5 s)
+            long inicio = System.nanoTime();
+            int sorteiosCopia = 0;
+            while (System.nanoTime() - inicio < 500_000_000L) {
+                List<Map.Entry<Integer, Integer>> catalogo = new ArrayList<>(pesos.entrySet());
+                long total = 0;
+                for (Map.Entry<Integer, Integer> entrada : catalogo) {
+                    total += entrada.getValue();
+                }
+                long alvo = (long) (rng.nextDouble() * total);
+                for (Map.Entry<Integer, Integer> entrada : catalogo) {
+                    alvo -= entrada.getValue();
+                    if (alvo < 0) {
+                        break;
+                    }
+                }
+                sorteiosCopia++;
+            }
+            double porSorteioCopia = (double) (System.nanoTime() - inicio) / sorteiosCopia;
+
+            int k = 1_000_000;
+            int[] sorteados = new int[k];
+            arvore.sortearPonderado(rng, sorteados, k);   // Aquecimento
+            inicio = System.nanoTime();
+            arvore.sortearPonderado(rng, sorteados, k);
+            double porSorteioArvore = (double) (System.nanoTime() - inicio) / k;
+
+            System.out.printf("Missões: %,9d | cópia + varredura: %,12.0f ns/sorteio | árvore: %6.0f ns/sorteio%n",
+                    missoes, porSorteioCopia, porSorteioArvore);
+        }
+    }
+
+    /**
+     * Resumo de recompensas por faixa de níveis: percorrer todas as missões
+     * filtrando pela faixa contra a consulta pelos agregados das subárvores.
+     * Cada consulta cobre uma faixa aleatória de 10% dos níveis.
+     */
+    private static void benchmarkRecompensas(int maxMissoes) {
+        for (int missoes = 1_000; missoes <= maxMissoes; missoes *= 10) {
+            ArvoreAVL arvore = new ArvoreAVL();
+            Random rng = new Random(42);
+            for (int i = 0; i < missoes; i++) {
+                arvore.inserir(i, "Missão " + i);
+                arvore.definirRecompensa(i, rng.nextInt(10_000), rng.nextInt(500));
+            }
+            int largura = missoes / 10;
+
+            // Percurso completo (limitado a ~0,5 s)
+            long[] acumulado = new long[4];
+            long inicio = System.nanoTime();
+            int consultasPercurso = 0;
+            while (System.nanoTime() - inicio < 500_000_000L) {
+                int de = rng.nextInt(missoes - largura);
+                acumulado[0] = 0;
+                acumulado[1] = 0;
+                acumulado[2] = Integer.MAX_VALUE;
+                acumulado[3] = Integer.MIN_VALUE;
+                percorrerFaixa(arvore.getRaiz(), de, de + largura - 1, acumulado);
+                consultasPercurso++;
+            }
+            double porConsultaPercurso = (double) (System.nanoTime() - inicio) / consultasPercurso;
+
+            int consultas = 1_000_000;
+            inicio = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                int de = rng.nextInt(missoes - largura);
+                arvore.resumirRecompensas(de, de + largura - 1);
+            }
+            double porConsultaArvore = (double) (System.nanoTime() - inicio) / consultas;
+
+            System.out.printf("Missões: %,9d | percurso: %,12.0f ns/consulta | agregados: %6.0f ns/consulta%n",
+                    missoes, porConsultaPercurso, porConsultaArvore);
+        }
+    }
+
+    /**
+     * Percurso em ordem de toda a árvore, acumulando {soma xp, soma ouro, mín. xp, máx. xp} da faixa
+     */
+    private static void percorrerFaixa(Node node, int de, int ate, long[] acumulado) {
+        if (node == null) {
+            return;
+        }
+        percorrerFaixa(node.esquerda, de, ate, acumulado);
+        if (node.nivel >= de && node.nivel <= ate) {
+            int xp = ArvoreAVL.xp(node);
+            acumulado[0] += xp;
+            acumulado[1] += ArvoreAVL.ouro(node);
+            acumulado[2] = Math.min(acumulado[2], xp);
+            acumulado[3] = Math.max(acumulado[3], xp);
+        }
+        percorrerFaixa(node.direita, de, ate, acumulado);
+    }
+
+    /**
+     * Latência do escritor enquanto o catálogo é salvo a cada 500 ms:
+     * sem salvar, exportação síncrona (o escritor espera a gravação) e
+     * checkpoint em segundo plano (o escritor só congela a versão, mas as
+     * escritas seguintes copiam os nós da versão congelada que alteram; a
+     * contagem dessas cópias sai na última coluna).
+     * Cada modo escreve sem parar por alguns segundos em uma árvore com a
+     * quantidade de missões indicada.
+     */
+    private static void benchmarkCheckpoint(int missoes, int segundos) throws IOException {
+        Path arquivo = Files.createTempFile("checkpoint", ".csv");
+        try {
+            for (String modo : new String[]{"sem salvar", "síncrono", "segundo plano"}) {
+                ArvoreAVL arvore = new ArvoreAVL();
+                GeradorCargaTrabalho gerador = new GeradorCargaTrabalho(42);
+                gerador.popular(arvore, missoes);
+                Random rng = new Random(42);
+
+                long operacoes = 0;
+                long acimaDe1ms = 0;
+                long maxima = 0;
+                long proximoSalvamento = System.nanoTime() + 500_000_000L;
+                long fim = System.nanoTime() + segundos * 1_000_000_000L;
+                CheckpointMissoes checkpoint = new CheckpointMissoes(arvore);
+                try (checkpoint) {
+                    while (true) {
+                        long inicio = System.nanoTime();
+                        if (inicio >= fim) {
+                            break;
+                        }
+                        if (inicio >= proximoSalvamento) {
+                            proximoSalvamento = inicio + 500_000_000L;
+                            if (modo.equals("síncrono")) {
+                                CatalogoMissoesIO.exportar(arvore, arquivo, CatalogoMissoesIO.Formato.CSV);
+                            } else if (modo.equals("segundo plano")) {
+                                checkpoint.salvar(arquivo, CatalogoMissoesIO.Formato.CSV);
+                            }
+                        }
+                        int nivel = rng.nextInt(missoes * 2);
+                        if (rng.nextBoolean()) {
+                            arvore.inserir(nivel, "Missão " + nivel);
+                        } else {
+                            arvore.remover(nivel);
+                        }
+                        long latencia = System.nanoTime() - inicio;
+                        maxima = Math.max(maxima, latencia);
+                        if (latencia > 1_000_000L) {
+                            acimaDe1ms++;
+                        }
+                        operacoes++;
+                    }
+                }
+                // Nós que as escritas copiaram porque o checkpoint congelou a versão em que estavam
+                long copias = arvore.getCopiasNaEscrita();
+                System.out.printf("%-14s | %,11d operações | latência máxima: %8.2f ms | acima de 1 ms: %,6d"
+                                + " | nós copiados na escrita: %,d (%.2f por operação, %,.1f MB)",
+                        modo, operacoes, maxima / 1e6, acimaDe1ms, copias, (double) copias / operacoes,
+                        copias * RelatorioMemoria.tamanhoRaso(Node.class) / 1e6);
+                if (modo.equals("segundo plano")) {
+                    System.out.printf("%n               | %s", checkpoint.resumo());
+                }
+                System.out.println();
+            }
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    /**
+     * Localidade de acesso: para cada distribuição de níveis do gerador de
+     * carga, a descida a partir da raiz e pelo cursor (que parte do último
+     * nível acessado), e buscar (que também formata a resposta) sem e com o
+     * cache de buscas; depois, uma importação quase em ordem com inserir e
+     * com o cursor. Metade dos níveis buscados é ausente. Na importação o
+     * cursor só encurta a descida: a volta até a raiz, que atualiza os
+     * agregados de todos os ancestrais, é a mesma, então a diferença é pequena.
+     */
+    private static void benchmarkLocalidade(int missoes) {
+        int[] niveis = new int[missoes];
+        String[] descricoes = new String[missoes];
+        for (int i = 0; i < missoes; i++) {
+            niveis[i] = 2 * i;
+            descricoes[i] = "Missão " + i;
+        }
+        ArvoreAVL arvore = new ArvoreAVL();
+        arvore.carregarOrdenado(niveis, descricoes, missoes);
+
+        int consultas = 2_000_000;
+        int[] chaves = new int[consultas];
+        System.out.printf("%-13s | %12s | %12s | %12s | %12s | %s%n",
+                "Distribuição", "raiz", "cursor", "buscar", "com cache", "acertos no cache");
+        for (GeradorCargaTrabalho.Distribuicao distribuicao : GeradorCargaTrabalho.Distribuicao.values()) {
+            GeradorCargaTrabalho gerador = new GeradorCargaTrabalho(42);
+            gerador.setMistura(1, 0, 0);
+            gerador.setChaves(distribuicao, 0, 2 * missoes);
+            for (int i = 0; i < consultas; i++) {
+                gerador.avancar();
+                chaves[i] = gerador.getNivel();
+            }
+
+            double[] nanos = new double[4];
+            Arrays.fill(nanos, Double.MAX_VALUE);
+            for (int rodada = 0; rodada < 3; rodada++) {   // Melhor de 3, intercalando os modos
+                for (int modo = 0; modo < 4; modo++) {
+                    nanos[modo] = Math.min(nanos[modo], medirBuscas(arvore, chaves, modo));
+                }
+            }
+            System.out.printf("%-13s | %9.0f ns | %9.0f ns | %9.0f ns | %9.0f ns | %.1f%%%n", distribuicao,
+                    nanos[0], nanos[1], nanos[2], nanos[3], 100.0 * arvore.getAcertosCacheBuscas() / consultas);
+        }
+        arvore.ativarCacheBuscas(0);
+
+        // Importação quase em ordem: níveis crescentes com pequenas inversões
+        Random rng = new Random(42);
+        for (int i = 0; i < missoes; i++) {
+            niveis[i] = 4 * i + rng.nextInt(12);
+        }
+        for (boolean comCursor : new boolean[]{false, true}) {
+            ArvoreAVL destino = new ArvoreAVL();
+            ArvoreAVL.Cursor cursor = destino.cursor();
+            long inicio = System.nanoTime();
+            for (int i = 0; i < missoes; i++) {
+                if (comCursor) {
+                    cursor.inserir(niveis[i], descricoes[i]);
+                } else {
+                    destino.inserir(niveis[i], descricoes[i]);
+                }
+            }
+            double ns = (double) (System.nanoTime() - inicio) / missoes;
+            destino.validar();
+            System.out.printf("Importação quase em ordem (%s): %,.0f ns/inserção | %,d níveis%n",
+                    comCursor ? "cursor" : "inserir", ns, destino.getTotalNiveis());
+        }
+    }
+
+    /**
+     * Tempo médio por busca: 0 = descida da raiz, 1 = pelo cursor,
+     * 2 = buscar, 3 = buscar com o cache de buscas
+     */
+    private static double medirBuscas(ArvoreAVL arvore, int[] chaves, int modo) {
+        ArvoreAVL.Cursor cursor = arvore.cursor();
+        arvore.ativarCacheBuscas((modo == 3) ? 4096 : 0);
+        long encontradas = 0;
+        long inicio = System.nanoTime();
+        for (int chave : chaves) {
+            Object resposta;
+            switch (modo) {
+                case 0:
+                    resposta = arvore.buscarNo(chave);
+                    break;
+                case 1:
+                    resposta = cursor.buscarNo(chave);
+                    break;
+                default:
+                    resposta = arvore.buscar(chave);
+            }
+            if (resposta != null) {
+                encontradas++;
+            }
+        }
+        double nanos = (double) (System.nanoTime() - inicio) / chaves.length;
+        if (encontradas > chaves.length) {
+            throw new IllegalStateException();   // Mantém o resultado vivo para o JIT
+        }
+        return nanos;
+    }
+
+    /**
+     * Índice em disco (árvore B+): carga em ordem crescente, buscas aleatórias
+     * de níveis existentes e ausentes (o filtro de Bloom evita ler páginas),
+     * inserções aleatórias e percurso em ordem pelas folhas encadeadas.
+     * Rode com um heap pequeno (ex.: -Xmx64m) para ver que ele não depende
+     * do tamanho do catálogo.
+     */
+    private static void benchmarkDisco(long missoes, int paginasEmCache) throws IOException {
+        Path arquivo = Files.createTempFile("missoes", ".idx");
+        Files.delete(arquivo);
+        long base = memoriaUsada();
+        try (ArvoreBMaisDisco indice = new ArvoreBMaisDisco(arquivo, paginasEmCache, missoes * 2)) {
+            // Níveis pares: as buscas de níveis ímpares são de ausentes
+            long inicio = System.nanoTime();
+            for (long i = 0; i < missoes; i++) {
+                indice.inserir((int) (2 * i), "Missão " + i);
+            }
+            indice.sincronizar();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Carga ordenada: %,d missões em %.1f s (%,.0f missões/s) | arquivo: %,d MB | heap: %,d MB%n",
+                    missoes, segundos, missoes / segundos, Files.size(arquivo) >> 20, (memoriaUsada() - base) >> 20);
+
+            Random rng = new Random(42);
+            int consultas = 1_000_000;
+            long limite = Math.min(missoes, Integer.MAX_VALUE / 2);
+            for (String tipo : new String[]{"existentes", "ausentes"}) {
+                long evitadasAntes = indice.getConsultasEvitadas();
+                long faltasAntes = indice.getFaltasCache();
+                inicio = System.nanoTime();
+                for (int i = 0; i < consultas; i++) {
+                    int nivel = 2 * (int) (rng.nextDouble() * limite);
+                    indice.buscar(tipo.equals("existentes") ? nivel : nivel + 1);
+                }
+                System.out.printf("Busca de %-10s: %,6.0f ns/busca | faltas no cache: %,d | respondidas pelo filtro: %,d%n",
+                        tipo, (double) (System.nanoTime() - inicio) / consultas,
+                        indice.getFaltasCache() - faltasAntes, indice.getConsultasEvitadas() - evitadasAntes);
+            }
+
+            inicio = System.nanoTime();
+            for (int i = 0; i < consultas; i++) {
+                int nivel = 2 * (int) (rng.nextDouble() * limite) + 1;
+                indice.inserir(nivel, "Missão nova " + i);
+            }
+            System.out.printf("Inserção aleatória: %,6.0f ns/inserção%n", (double) (System.nanoTime() - inicio) / consultas);
+
+            inicio = System.nanoTime();
+            long[] soma = new long[1];
+            long percorridas = indice.percorrerFaixa(Integer.MIN_VALUE, Integer.MAX_VALUE,
+                    (missao, nivel) -> soma[0] += missao.length());
+            segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Percurso em ordem: %,d missões em %.1f s (%,.0f missões/s)%n",
+                    percorridas, segundos, percorridas / segundos);
+
+            indice.validar();
+            System.out.println(indice.resumo());
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    /**
+     * Replicação para seguidores em outros processos (LancadorHeadless seguidor)
+     * na mesma máquina: tempo até receberem a cópia inicial, atraso durante
+     * escrita contínua e, ao final, se cada seguidor chegou ao mesmo conteúdo
+     * (assinatura) que o primário no último LSN.
+     */
+    private static void benchmarkReplicacao(int seguidores, int segundos, int missoes) throws IOException {
+        ArvoreAVL arvore = new ArvoreAVL();
+        GeradorCargaTrabalho gerador = new GeradorCargaTrabalho(42);
+        gerador.setMistura(0, 70, 30);
+        gerador.popular(arvore, missoes);
+
+        List<Process> processos = new ArrayList<>();
+        String[] ultimasLinhas = new String[seguidores];
+        try (ReplicacaoPrimaria primaria = new ReplicacaoPrimaria(arvore, 0)) {
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            long inicio = System.nanoTime();
+            for (int i = 0; i < seguidores; i++) {
+                Process processo = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        LancadorHeadless.class.getName(), "seguidor", String.valueOf(primaria.getPorta()))
+                        .redirectErrorStream(true).start();
+                processos.add(processo);
+                int indice = i;
+                Thread leitura = new Thread(() -> {
+                    try (BufferedReader leitor = new BufferedReader(new InputStreamReader(processo.getInputStream()))) {
+                        String linha;
+                        while ((linha = leitor.readLine()) != null) {
+                            synchronized (ultimasLinhas) {
+                                ultimasLinhas[indice] = linha;
+                            }
+                        }
+                    } catch (IOException e) {
+                        // Processo encerrado
+                    }
+                });
+                leitura.setDaemon(true);
+                leitura.start();
+            }
+
+            // Cópia inicial: todos conectados e confirmando o LSN atual
+            long limite = System.nanoTime() + 60_000_000_000L;
+            while (primaria.getSeguidores() < seguidores || !primaria.todosConfirmaram(primaria.getUltimoLsn())) {
+                if (System.nanoTime() > limite) {
+                    System.out.println("Seguidores não receberam a cópia em 60 s: " + primaria.resumo());
+                    return;
+                }
+                dormir(1);
+            }
+            System.out.printf("Cópia inicial de %,d missões para %d seguidores (inclui iniciar a JVM): %.0f ms%n",
+                    arvore.getTotalNiveis(), seguidores, (System.nanoTime() - inicio) / 1e6);
+
+            // Escrita contínua, medindo o atraso a cada 100 ms
+            long atrasoMaximo = 0;
+            long somaAtrasos = 0;
+            int amostras = 0;
+            long operacoes = 0;
+            inicio = System.nanoTime();
+            long fim = inicio + segundos * 1_000_000_000L;
+            long proximaAmostra = inicio + 100_000_000L;
+            while (System.nanoTime() < fim) {
+                gerador.executar(arvore, 1_000);
+                operacoes += 1_000;
+                if (System.nanoTime() >= proximaAmostra) {
+                    proximaAmostra += 100_000_000L;
+                    long atraso = primaria.getAtrasoMaximo();
+                    atrasoMaximo = Math.max(atrasoMaximo, atraso);
+                    somaAtrasos += atraso;
+                    amostras++;
+                }
+            }
+            double duracao = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("Escrita: %,d operações em %.1f s (%,.0f ops/s) | atraso médio: %,d registros | máximo: %,d registros%n",
+                    operacoes, duracao, operacoes / duracao,
+                    (amostras == 0) ? 0 : somaAtrasos / amostras, atrasoMaximo);
+
+            // Convergência: espera todos confirmarem o último LSN e compara as assinaturas
+            long ultimoLsn = primaria.getUltimoLsn();
+            inicio = System.nanoTime();
+            while (!primaria.todosConfirmaram(ultimoLsn)) {
+                dormir(1);
+            }
+            System.out.printf("Seguidores em dia %.1f ms após a última escrita%n", (System.nanoTime() - inicio) / 1e6);
+            String esperado = String.format("lsn %d |", ultimoLsn);
+            String assinatura = String.format("assinatura %016x", primaria.assinatura());
+            for (int i = 0; i < seguidores; i++) {
+                String linha = null;
+                limite = System.nanoTime() + 5_000_000_000L;
+                while (System.nanoTime() < limite) {
+                    synchronized (ultimasLinhas) {
+                        linha = ultimasLinhas[i];
+                    }
+                    if (linha != null && linha.startsWith(esperado)) {
+                        break;
+                    }
+                    dormir(50);
+                }
+                boolean igual = linha != null && linha.startsWith(esperado) && linha.endsWith(assinatura);
+                System.out.printf("Seguidor %d: %s (%s)%n", i, igual ? "idêntico ao primário" : "DIVERGENTE", linha);
+            }
+            System.out.println(primaria.resumo());
+        } finally {
+            for (Process processo : processos) {
+                processo.destroy();
+            }
+        }
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tempo até a primeira operação: inicia o comando várias vezes e mede,
+     * de fora, o tempo entre iniciar o processo e ele imprimir "pronto"
+     * (inclui a inicialização da JVM). Exemplo de comando:
+     * java -jar target/GerenciadorMissoesRPG-1.0-SNAPSHOT-headless.jar primeira-operacao
+     */
+    private static void benchmarkInicio(int repeticoes, List<String> comando) throws IOException {
+        long[] tempos = new long[repeticoes];
+        for (int i = 0; i < repeticoes; i++) {
+            ProcessBuilder construtor = new ProcessBuilder(comando).redirectErrorStream(true);
+            long inicio = System.nanoTime();
+            Process processo = construtor.start();
+            long fim = -1;
+            try (BufferedReader leitor = new BufferedReader(new InputStreamReader(processo.getInputStream()))) {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    if (fim < 0 && linha.equals("pronto")) {
+                        fim = System.nanoTime();
+                    }
+                }
+            }
+            try {
+                processo.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (fim < 0) {
+                System.out.println("O comando não imprimiu \"pronto\" (código de saída " + processo.exitValue() + ")");
+                return;
+            }
+            tempos[i] = fim - inicio;
+        }
+        Arrays.sort(tempos);
+        System.out.printf("%s%nExecuções: %d | mínimo: %.1f ms | mediana: %.1f ms | máximo: %.1f ms%n",
+                String.join(" ", comando), repeticoes, tempos[0] / 1e6,
+                tempos[repeticoes / 2] / 1e6, tempos[repeticoes - 1] / 1e6);
+    }
+
+    /**
+     * Metodo main - seleciona o cenário de benchmark
+     */
+    public static void main(String[] args) throws IOException {
+        String cenario = (args.length > 0) ? args[0] : "historico";
+
+        switch (cenario) {
+            case "historico":
+                benchmarkHistorico(
+                        (args.length > 1) ? Integer.parseInt(args[1]) : 100_000,
+                        (args.length > 2) ? Integer.parseInt(args[2]) : 10_000);
+                break;
+            case "memoria":
+                benchmarkMemoria((args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            case "inquilinos":
+                benchmarkInquilinos((args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            case "expiracao":
+                benchmarkExpiracao((args.length > 1) ? Integer.parseInt(args[1]) : 10_000_000);
+                break;
+            case "sorteio":
+                benchmarkSorteio((args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            case "recompensas":
+                benchmarkRecompensas((args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            case "checkpoint":
+                benchmarkCheckpoint(
+                        (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000,
+                        (args.length > 2) ? Integer.parseInt(args[2]) : 5);
+                break;
+            case "localidade":
+                benchmarkLocalidade((args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000);
+                break;
+            case "disco":
+                benchmarkDisco(
+                        (args.length > 1) ? Long.parseLong(args[1]) : 10_000_000L,
+                        (args.length > 2) ? Integer.parseInt(args[2]) : 2048);
+                break;
+            case "replicacao":
+                benchmarkReplicacao(
+                        (args.length > 1) ? Integer.parseInt(args[1]) : 2,
+                        (args.length > 2) ? Integer.parseInt(args[2]) : 5,
+                        (args.length > 3) ? Integer.parseInt(args[3]) : 1_000_000);
+                break;
+            case "inicio":
+                if (args.length < 3) {
+                    System.out.println("Uso: inicio <repeticoes> <comando...>");
+                    return;
+                }
+                benchmarkInicio(Integer.parseInt(args[1]), Arrays.asList(args).subList(2, args.length));
+                break;
+            default:
+                System.out.println("Cenário desconhecido: " + cenario);
+                System.out.println("Cenários: historico, memoria, inquilinos, expiracao, sorteio, recompensas, checkpoint, localidade, disco, replicacao, inicio");
+        }
+    }
+}
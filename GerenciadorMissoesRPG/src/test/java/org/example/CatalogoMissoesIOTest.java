@@ -0,0 +1,76 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Regressões do analisador CSV do CatalogoMissoesIO
+ */
+class CatalogoMissoesIOTest {
+
+    @TempDir
+    Path pasta;
+
+    private ArvoreAVL importarCsv(String conteudo) throws IOException {
+        Path arquivo = pasta.resolve("catalogo.csv");
+        Files.write(arquivo, conteudo.getBytes(StandardCharsets.UTF_8));
+        ArvoreAVL arvore = new ArvoreAVL();
+        CatalogoMissoesIO.importar(arquivo, CatalogoMissoesIO.Formato.CSV, arvore);
+        return arvore;
+    }
+
+    @Test
+    void aspasNoMeioDeCampoSemAspasSaoLiterais() throws IOException {
+        ArvoreAVL arvore = importarCsv("nivel,missao\n1,Espada \"lendária\n2,Escudo\n");
+
+        assertEquals("Espada \"lendária", arvore.buscarTodas(1)[0]);
+        assertEquals("Escudo", arvore.buscarTodas(2)[0]);
+    }
+
+    @Test
+    void campoEntreAspasComAspasEscapadasEQuebraDeLinha() throws IOException {
+        ArvoreAVL arvore = importarCsv("nivel,missao\n1,\"Diga \"\"olá\"\"\nao rei\"\n2,Fim\n");
+
+        assertEquals("Diga \"olá\"\nao rei", arvore.buscarTodas(1)[0]);
+        assertEquals("Fim", arvore.buscarTodas(2)[0]);
+    }
+
+    @Test
+    void primeiraLinhaInvalidaNaoEPuladaComoCabecalho() {
+        IOException erro = assertThrows(IOException.class, () -> importarCsv("x1,Missão\n2,Outra\n"));
+
+        assertTrue(erro.getMessage().contains("Linha 1"), erro.getMessage());
+    }
+
+    @Test
+    void cabecalhoComCrlf() throws IOException {
+        ArvoreAVL arvore = importarCsv("nivel,missao\r\n1,Primeira\r\n2,Segunda\r\n");
+
+        assertEquals(2, arvore.getTotalMissoes());
+        assertEquals("Primeira", arvore.buscarTodas(1)[0]);
+        assertEquals("Segunda", arvore.buscarTodas(2)[0]);
+    }
+
+    @Test
+    void exportarEImportarPreservaAsMissoes() throws IOException {
+        ArvoreAVL origem = new ArvoreAVL();
+        origem.inserir(1, "Simples");
+        origem.inserir(2, "Com vírgula, \"aspas\"\ne quebra de linha");
+        origem.inserir(3, "");
+        Path arquivo = pasta.resolve("exportado.csv");
+        CatalogoMissoesIO.exportar(origem, arquivo, CatalogoMissoesIO.Formato.CSV);
+
+        ArvoreAVL destino = new ArvoreAVL();
+        CatalogoMissoesIO.importar(arquivo, CatalogoMissoesIO.Formato.CSV, destino);
+
+        assertEquals(origem.listarEmOrdem(), destino.listarEmOrdem());
+    }
+}
@@ -0,0 +1,847 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Teste diferencial aleatório da árvore AVL contra java.util.TreeMap.
+ *
+ * Executa uma mistura de operações (inserir, remover, buscar, limpar, carga
+ * em massa, remoção em lote, expiração, pesos e sorteio ponderado,
+ * recompensas e seus resumos por faixa, várias missões por nível (ids),
+ * operações de descida única (computeSeAusente, substituir, computar,
+ * mesclar), lotes de eventos, desfazer/refazer, inserções e buscas pelo
+ * cursor, buscas pelo cache de buscas) na árvore e em um TreeMap de referência,
+ * comparando cada resultado. Periodicamente valida as invariantes da árvore
+ * e compara o conteúdo completo com a referência e com o espelho mantido
+ * apenas a partir dos eventos emitidos.
+ *
+ * Cada operação é repetida na referência (TreeMap e mapas auxiliares), que
+ * custa tanto quanto a própria árvore: uma execução faz algumas centenas de
+ * milhares de operações por segundo. Para milhões de operações por segundo,
+ * rode várias sementes em paralelo (uma por núcleo).
+ *
+ * Uso: mvn test-compile
+ *      java -cp target/classes:target/test-classes org.example.FuzzDiferencial [operacoes] [semente] [faixaChaves] [execucoes]
+ */
+public class FuzzDiferencial {
+    private static final int INTERVALO_VALIDACAO = 1 << 16;
+    private static final int CAPACIDADE_HISTORICO = 16;
+
+    /**
+     * Alteração de um nível em um dos mapas da referência
+     */
+    private static final class Alteracao {
+        final Map<Integer, Object> mapa;
+        final int nivel;
+        final Object anterior;   // null: o nível não estava no mapa
+        final Object nova;       // null: o nível saiu do mapa
+
+        Alteracao(Map<Integer, Object> mapa, int nivel, Object anterior, Object nova) {
+            this.mapa = mapa;
+            this.nivel = nivel;
+            this.anterior = anterior;
+            this.nova = nova;
+        }
+    }
+
+    private final SplittableRandom rng;
+    private final int faixaChaves;
+    private final int bitsResumo;   // Faixas de resumo de até 2^bitsResumo níveis
+    private final String[] descricoes;
+
+    private final ArvoreAVL arvore;
+    private final ArvoreAVL.Cursor cursor;   // Intercalado com as escritas feitas fora dele
+    private int ultimoNivelCursor;
+    private final HistoricoMissoes historico;
+    private final TreeMap<Integer, String> referencia;
+    private final Map<Integer, String> espelho;   // Reconstruído a partir dos eventos
+    private final Map<Integer, List<String>> espelhoExtras;   // Adicionais, também só pelos eventos
+
+    // Versões da referência, alinhadas com as versões do histórico: em vez de
+    // copiar os mapas a cada versão, guarda-se o diário das alterações entre
+    // elas, percorrido para trás (desfazer) ou para frente (refazer)
+    private final List<Alteracao> diario;
+    private final List<Integer> marcas;             // Posição no diário de cada versão
+    private final List<Alteracao> naoRegistradas;   // Alterações feitas desde a versão atual
+    private int versaoAtual;
+
+    // Pesos diferentes de 1 (fazem parte das versões, como as missões)
+    private final Map<Integer, Integer> pesos;
+    private final Random rngSorteio;
+
+    // Recompensas {xp, ouro} diferentes de zero (também fazem parte das versões)
+    private final Map<Integer, int[]> recompensas;
+
+    // Missões adicionais de cada nível, em ordem de criação (também fazem parte
+    // das versões; as listas não são alteradas depois de gravadas)
+    private final Map<Integer, List<String>> extras;
+
+    // Expirações de referência: nível -> instante, e fila por instante (entradas obsoletas são ignoradas)
+    private final Map<Integer, Long> expiracoes;
+    private final PriorityQueue<long[]> filaExpiracoes;
+    private long relogio;
+
+    private boolean loteAberto;
+    private long operacao;
+
+    public FuzzDiferencial(long semente, int faixaChaves) {
+        this.rng = new SplittableRandom(semente);
+        this.faixaChaves = faixaChaves;
+        // Até um pouco além da faixa de chaves inteira: faixas maiores só repetem a varredura completa
+        this.bitsResumo = Math.min(18, 33 - Integer.numberOfLeadingZeros(faixaChaves));
+        this.descricoes = new String[64];
+        for (int i = 0; i < descricoes.length; i++) {
+            descricoes[i] = "Missão " + i;
+        }
+
+        this.arvore = new ArvoreAVL();
+        this.referencia = new TreeMap<>();
+        this.espelho = new HashMap<>();
+        this.espelhoExtras = new HashMap<>();
+        this.arvore.adicionarOuvinte(this::aplicarEventos);
+        this.arvore.ativarCacheBuscas(64);   // Pequeno, para haver colisões
+        this.cursor = arvore.cursor();
+        this.historico = new HistoricoMissoes(arvore, CAPACIDADE_HISTORICO);
+        this.diario = new ArrayList<>();
+        this.marcas = new ArrayList<>();
+        this.marcas.add(0);
+        this.naoRegistradas = new ArrayList<>();
+        this.versaoAtual = 0;
+        this.pesos = new HashMap<>();
+        this.rngSorteio = new Random(semente);
+        this.recompensas = new HashMap<>();
+        this.extras = new HashMap<>();
+        this.expiracoes = new HashMap<>();
+        this.filaExpiracoes = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+    }
+
+    /**
+     * Aplica um lote de eventos ao espelho
+     */
+    private void aplicarEventos(List<EventoArvore> eventos) {
+        for (EventoArvore evento : eventos) {
+            switch (evento.getTipo()) {
+                case INSERIDA:
+                    if (espelhoExtras.containsKey(evento.getNivel())) {
+                        falhar("evento INSERIDA em nível que ainda tem adicionais " + evento.getNivel());
+                    }
+                    espelho.put(evento.getNivel(), evento.getMissao());
+                    break;
+                case ATUALIZADA:
+                    espelho.put(evento.getNivel(), evento.getMissao());
+                    break;
+                case REMOVIDA:
+                    if (espelho.remove(evento.getNivel()) == null) {
+                        falhar("evento REMOVIDA de nível ausente " + evento.getNivel());
+                    }
+                    espelhoExtras.remove(evento.getNivel());
+                    break;
+                case ADICIONADA:
+                    if (!espelho.containsKey(evento.getNivel())) {
+                        falhar("evento ADICIONADA em nível ausente " + evento.getNivel());
+                    }
+                    espelhoExtras.computeIfAbsent(evento.getNivel(), n -> new ArrayList<>()).add(evento.getMissao());
+                    break;
+                case RETIRADA:
+                    List<String> adicionais = espelhoExtras.get(evento.getNivel());
+                    if (adicionais == null || !adicionais.remove(evento.getMissao())) {
+                        falhar("evento RETIRADA de adicional ausente " + evento);
+                    }
+                    if (adicionais.isEmpty()) {
+                        espelhoExtras.remove(evento.getNivel());
+                    }
+                    break;
+                case LIMPEZA:
+                    espelho.clear();
+                    espelhoExtras.clear();
+                    break;
+                case RESTAURADA:
+                    aplicarEventos(ArvoreAVL.diferencas(evento.getAnterior(), evento.getRestaurada()));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void falhar(String mensagem) {
+        throw new IllegalStateException("Operação " + operacao + ": " + mensagem);
+    }
+
+    /**
+     * Executa uma operação aleatória e compara com a referência
+     */
+    private void passo() {
+        int sorteio = rng.nextInt(10_000);
+        int nivel = rng.nextInt(faixaChaves);
+
+        if (sorteio < 4000) {
+            String missao = descricoes[rng.nextInt(descricoes.length)];
+            if (sorteio < 1000) {
+                nivel = nivelPertoDoCursor();
+                cursor.inserir(nivel, missao);
+            } else {
+                arvore.inserir(nivel, missao);
+            }
+            gravar(referencia, nivel, missao);
+            expiracoes.remove(nivel);
+        } else if (sorteio < 7000) {
+            boolean removido = arvore.remover(nivel);
+            if (removido != removerNivel(nivel)) {
+                falhar("remover(" + nivel + ") retornou " + removido);
+            }
+        } else if (sorteio < 7300) {
+            String missao = descricoes[rng.nextInt(descricoes.length)];
+            long ttl = sortearTtl();
+            passarTempo();
+            arvore.inserir(nivel, missao, ttl, relogio);
+            gravar(referencia, nivel, missao);
+            agendarReferencia(nivel, ttl);
+        } else if (sorteio < 7400) {
+            long ttl = sortearTtl();
+            passarTempo();
+            boolean agendado = arvore.definirExpiracao(nivel, ttl, relogio);
+            if (agendado != referencia.containsKey(nivel)) {
+                falhar("definirExpiracao(" + nivel + ") retornou " + agendado);
+            }
+            if (agendado) {
+                agendarReferencia(nivel, ttl);
+            }
+        } else if (sorteio < 7450) {
+            boolean cancelado = arvore.cancelarExpiracao(nivel);
+            if (cancelado != (expiracoes.remove(nivel) != null)) {
+                falhar("cancelarExpiracao(" + nivel + ") retornou " + cancelado);
+            }
+        } else if (sorteio < 7700) {
+            avancarRelogio();
+        } else if (sorteio < 7720) {
+            removerEmLote();
+        } else if (sorteio < 7800) {
+            int peso = rng.nextInt(10);
+            boolean definido = arvore.definirPeso(nivel, peso);
+            if (definido != referencia.containsKey(nivel)) {
+                falhar("definirPeso(" + nivel + ") retornou " + definido);
+            }
+            if (definido) {
+                gravar(pesos, nivel, peso);
+            }
+        } else if (sorteio < 7850) {
+            sortear();
+        } else if (sorteio < 8450) {
+            alterarDescidaUnica(nivel);
+        } else if (sorteio < 8550) {
+            int xp = rng.nextInt(1 << rng.nextInt(31));
+            int ouro = rng.nextInt(1000);
+            boolean definida = arvore.definirRecompensa(nivel, xp, ouro);
+            if (definida != referencia.containsKey(nivel)) {
+                falhar("definirRecompensa(" + nivel + ") retornou " + definida);
+            }
+            if (definida) {
+                gravar(recompensas, nivel, new int[]{xp, ouro});
+            }
+        } else if (sorteio < 8650) {
+            conferirResumo(nivel, nivel + rng.nextInt(1 << rng.nextInt(bitsResumo)) - rng.nextInt(4));
+        } else if (sorteio < 8900) {
+            String missao = descricoes[rng.nextInt(descricoes.length)];
+            long id = arvore.adicionar(nivel, missao);
+            if (ArvoreAVL.nivelDoId(id) != nivel || !missao.equals(arvore.buscarPorId(id))) {
+                falhar("adicionar(" + nivel + ") retornou id " + id + " inválido");
+            }
+            if (referencia.containsKey(nivel)) {
+                List<String> adicionais = new ArrayList<>(extras.getOrDefault(nivel, Collections.emptyList()));
+                adicionais.add(missao);
+                gravar(extras, nivel, adicionais);
+            } else {
+                gravar(referencia, nivel, missao);
+            }
+        } else if (sorteio < 9000) {
+            removerPorId(nivel);
+        } else if (sorteio < 9500) {
+            Node node = arvore.buscarNo(nivel);
+            conferirBusca("buscarNo", nivel, (node != null) ? node.missao : null, false);
+        } else if (sorteio < 9750) {
+            nivel = nivelPertoDoCursor();
+            if (rng.nextBoolean()) {
+                conferirBusca("cursor.buscar", nivel, cursor.buscar(nivel), true);
+            } else {
+                Node node = cursor.buscarNo(nivel);
+                conferirBusca("cursor.buscarNo", nivel, (node != null) ? node.missao : null, false);
+            }
+        } else if (sorteio < 9970) {
+            conferirBusca("buscar", nivel, arvore.buscar(nivel), true);   // Pelo cache, quando ativo
+        } else if (sorteio < 9990) {
+            alternarLote();
+        } else if (sorteio < 9993) {
+            registrarVersao();
+        } else if (sorteio < 9996) {
+            desfazerOuRefazer();
+        } else if (rng.nextInt(8) == 0) {
+            arvore.limpar();
+            for (Integer chave : new ArrayList<>(referencia.keySet())) {
+                removerNivel(chave);
+            }
+            expiracoes.clear();
+        } else if (rng.nextInt(4) == 0) {
+            cargaEmMassa();
+        } else if (rng.nextInt(4) == 0) {
+            arvore.ativarCacheBuscas((rng.nextInt(4) == 0) ? 0 : 1 << rng.nextInt(10));
+        }
+
+        if (arvore.getTotalNiveis() != referencia.size()) {
+            falhar("total de níveis " + arvore.getTotalNiveis() + ", esperado " + referencia.size());
+        }
+    }
+
+    /**
+     * Compara o resultado de uma busca com a referência
+     * @param formatado true se o resultado vem formatado como Node.toString
+     */
+    private void conferirBusca(String operacao, int nivel, String obtido, boolean formatado) {
+        String esperado = referencia.get(nivel);
+        if (esperado != null && formatado) {
+            esperado = String.format("[Nível %d] %s", nivel, esperado);
+        }
+        if (esperado == null ? obtido != null : !esperado.equals(obtido)) {
+            falhar(operacao + "(" + nivel + ") = " + obtido + ", esperado " + esperado);
+        }
+    }
+
+    /**
+     * Nível perto do último acessado pelo cursor (às vezes um salto
+     * qualquer), para o cursor subir pouco ou até a raiz
+     */
+    private int nivelPertoDoCursor() {
+        int nivel = (rng.nextInt(8) == 0) ? rng.nextInt(faixaChaves)
+                : Math.floorMod(ultimoNivelCursor + rng.nextInt(33) - 16, faixaChaves);
+        ultimoNivelCursor = nivel;
+        return nivel;
+    }
+
+    /**
+     * Carga em massa de um pequeno lote ordenado de níveis
+     */
+    private void cargaEmMassa() {
+        int quantidade = 1 + rng.nextInt(32);
+        int[] niveis = new int[quantidade];
+        String[] missoes = new String[quantidade];
+        int nivel = rng.nextInt(faixaChaves);
+        for (int i = 0; i < quantidade; i++) {
+            niveis[i] = nivel;
+            missoes[i] = descricoes[rng.nextInt(descricoes.length)];
+            gravar(referencia, nivel, missoes[i]);
+            expiracoes.remove(nivel);
+            nivel += 1 + rng.nextInt(8);
+        }
+        arvore.carregarOrdenado(niveis, missoes, quantidade);
+    }
+
+    /**
+     * Tempo de vida espalhado por todos os níveis da roda (e além do alcance)
+     */
+    private long sortearTtl() {
+        return rng.nextLong(1L << rng.nextInt(27)) - 1;
+    }
+
+    /**
+     * O relógio anda entre as chamadas a expirar: os prazos contam do
+     * instante do agendamento, não do último expirar
+     */
+    private void passarTempo() {
+        if (rng.nextInt(4) == 0) {
+            relogio += rng.nextInt(1 << rng.nextInt(20));
+        }
+    }
+
+    private void agendarReferencia(int nivel, long ttl) {
+        long instante = relogio + Math.max(1, ttl);
+        expiracoes.put(nivel, instante);
+        filaExpiracoes.add(new long[]{instante, nivel});
+    }
+
+    /**
+     * Avança o relógio (em geral pouco, às vezes saltos grandes) e compara as expirações
+     */
+    private void avancarRelogio() {
+        long salto = (rng.nextInt(16) == 0) ? rng.nextLong(1L << rng.nextInt(27)) : rng.nextInt(64);
+        relogio += salto;
+        int removidas = arvore.expirar(relogio);
+
+        int esperadas = 0;
+        while (!filaExpiracoes.isEmpty() && filaExpiracoes.peek()[0] <= relogio) {
+            long[] entrada = filaExpiracoes.poll();
+            int nivel = (int) entrada[1];
+            Long instante = expiracoes.get(nivel);
+            if (instante != null && instante == entrada[0]) {
+                expiracoes.remove(nivel);
+                if (removerNivel(nivel)) {
+                    esperadas++;
+                }
+            }
+        }
+        if (removidas != esperadas) {
+            falhar("expirar(" + relogio + ") removeu " + removidas + ", esperado " + esperadas);
+        }
+    }
+
+    /**
+     * Remoção em lote de níveis aleatórios (com repetidos e ausentes)
+     */
+    private void removerEmLote() {
+        int quantidade = 1 + rng.nextInt(1 << rng.nextInt(12));
+        int[] niveis = new int[quantidade];
+        int esperadas = 0;
+        for (int i = 0; i < quantidade; i++) {
+            niveis[i] = rng.nextInt(faixaChaves);
+            if (removerNivel(niveis[i])) {
+                esperadas++;
+            }
+        }
+        int removidas = arvore.removerEmLote(niveis, quantidade);
+        if (removidas != esperadas) {
+            falhar("removerEmLote removeu " + removidas + ", esperado " + esperadas);
+        }
+    }
+
+    /**
+     * Uma das operações de descida única, conferindo o valor anterior retornado
+     * e aplicando o mesmo efeito à referência
+     */
+    private void alterarDescidaUnica(int nivel) {
+        String anterior = referencia.get(nivel);
+        String missao = descricoes[rng.nextInt(descricoes.length)];
+        String nova;
+        String retornado;
+        switch (rng.nextInt(6)) {
+            case 5:
+                rejeitarMissaoNula(nivel);
+                return;
+            case 0:
+                retornado = arvore.inserirSeAusente(nivel, missao);
+                nova = (anterior != null) ? anterior : missao;
+                break;
+            case 1:
+                boolean calcula = rng.nextBoolean();
+                retornado = arvore.computeSeAusente(nivel, n -> calcula ? missao : null);
+                nova = (anterior != null) ? anterior : (calcula ? missao : null);
+                break;
+            case 2:
+                retornado = arvore.substituir(nivel, missao);
+                nova = (anterior != null) ? missao : null;
+                break;
+            case 3:
+                // Transforma, remove ou insere conforme o sorteio
+                int acao = rng.nextInt(3);
+                retornado = arvore.computar(nivel, (n, atual) -> (acao == 0) ? null : (acao == 1) ? atual : missao);
+                nova = (acao == 0) ? null : (acao == 1) ? anterior : missao;
+                break;
+            default:
+                boolean remove = rng.nextInt(4) == 0;
+                retornado = arvore.mesclar(nivel, missao, (atual, novaMissao) -> remove ? null : atual);
+                nova = (anterior == null) ? missao : (remove ? null : anterior);
+                break;
+        }
+        if (anterior == null ? retornado != null : !anterior.equals(retornado)) {
+            falhar("descida única no nível " + nivel + " retornou " + retornado + ", esperado " + anterior);
+        }
+        if (nova == null) {
+            removerNivel(nivel);
+        } else {
+            gravar(referencia, nivel, nova);
+            if (anterior == null) {
+                expiracoes.remove(nivel);
+            }
+        }
+    }
+
+    /**
+     * Uma descrição null deve ser rejeitada sem alterar nada (a verificação
+     * periódica confere que a árvore continua igual à referência)
+     */
+    private void rejeitarMissaoNula(int nivel) {
+        try {
+            switch (rng.nextInt(6)) {
+                case 0:
+                    arvore.inserir(nivel, null);
+                    break;
+                case 5:
+                    cursor.inserir(nivel, null);
+                    break;
+                case 1:
+                    arvore.inserirSeAusente(nivel, null);
+                    break;
+                case 2:
+                    arvore.substituir(nivel, null);
+                    break;
+                case 3:
+                    arvore.mesclar(nivel, null, (atual, novaMissao) -> atual);
+                    break;
+                default:
+                    arvore.adicionar(nivel, null);
+                    break;
+            }
+        } catch (IllegalArgumentException esperado) {
+            return;
+        }
+        falhar("descrição null aceita no nível " + nivel);
+    }
+
+    /**
+     * Sorteia alguns níveis e confere que existem e têm peso positivo
+     */
+    private void sortear() {
+        if (arvore.getPesoTotal() == 0) {
+            return;
+        }
+        int[] sorteados = new int[1 + rng.nextInt(8)];
+        arvore.sortearPonderado(rngSorteio, sorteados, sorteados.length);
+        for (int nivel : sorteados) {
+            if (!referencia.containsKey(nivel) || pesos.getOrDefault(nivel, 1) == 0) {
+                falhar("sorteado nível " + nivel + " ausente ou com peso 0");
+            }
+        }
+    }
+
+    /**
+     * Remove uma missão sorteada do nível pelo id e confere promoção da
+     * principal, remoção do nível e que o id deixa de existir
+     */
+    private void removerPorId(int nivel) {
+        long[] ids = arvore.buscarIds(nivel);
+        conferirNivel(nivel, ids);
+        if (ids.length == 0) {
+            // Id de um nível vazio
+            long inexistente = ((long) nivel << 32) | rng.nextInt(1 << 20);
+            if (arvore.removerPorId(inexistente)) {
+                falhar("removerPorId(" + inexistente + ") removeu de um nível vazio");
+            }
+            return;
+        }
+        int indice = rng.nextInt(ids.length);
+        if (!arvore.removerPorId(ids[indice])) {
+            falhar("removerPorId(" + ids[indice] + ") não encontrou a missão " + indice + " do nível " + nivel);
+        }
+        if (!extras.containsKey(nivel)) {
+            removerNivel(nivel);
+        } else {
+            List<String> adicionais = new ArrayList<>(extras.get(nivel));
+            if (indice == 0) {
+                gravar(referencia, nivel, adicionais.remove(0));
+            } else {
+                adicionais.remove(indice - 1);
+            }
+            gravar(extras, nivel, adicionais.isEmpty() ? null : adicionais);
+        }
+        if (arvore.buscarPorId(ids[indice]) != null || arvore.removerPorId(ids[indice])) {
+            falhar("id " + ids[indice] + " ainda existe depois de removido");
+        }
+    }
+
+    /**
+     * Compara as missões e ids do nível com a referência
+     */
+    private void conferirNivel(int nivel, long[] ids) {
+        String principal = referencia.get(nivel);
+        List<String> esperadas = new ArrayList<>();
+        if (principal != null) {
+            esperadas.add(principal);
+            esperadas.addAll(extras.getOrDefault(nivel, Collections.emptyList()));
+        }
+        String[] todas = arvore.buscarTodas(nivel);
+        if (!Arrays.asList(todas).equals(esperadas) || ids.length != todas.length
+                || arvore.getQuantidadeNoNivel(nivel) != todas.length) {
+            falhar("missões do nível " + nivel + ": " + Arrays.toString(todas) + ", esperado " + esperadas);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (!todas[i].equals(arvore.buscarPorId(ids[i]))) {
+                falhar("buscarPorId(" + ids[i] + ") divergente no nível " + nivel);
+            }
+        }
+    }
+
+    /**
+     * Compara o resumo de recompensas da faixa com o cálculo direto na referência
+     */
+    private void conferirResumo(int de, int ate) {
+        ResumoRecompensas resumo = arvore.resumirRecompensas(de, ate);
+        long somaXp = 0;
+        long somaOuro = 0;
+        int minXp = Integer.MAX_VALUE;
+        int maxXp = Integer.MIN_VALUE;
+        int minOuro = Integer.MAX_VALUE;
+        int maxOuro = Integer.MIN_VALUE;
+        boolean vazio = true;
+        if (de <= ate) {
+            for (Integer nivel : referencia.subMap(de, true, ate, true).keySet()) {
+                int[] recompensa = recompensas.getOrDefault(nivel, new int[2]);
+                somaXp += recompensa[0];
+                somaOuro += recompensa[1];
+                minXp = Math.min(minXp, recompensa[0]);
+                maxXp = Math.max(maxXp, recompensa[0]);
+                minOuro = Math.min(minOuro, recompensa[1]);
+                maxOuro = Math.max(maxOuro, recompensa[1]);
+                vazio = false;
+            }
+        }
+        if (resumo.isVazio() != vazio || resumo.getSomaXp() != somaXp || resumo.getSomaOuro() != somaOuro
+                || (!vazio && (resumo.getMinXp() != minXp || resumo.getMaxXp() != maxXp
+                        || resumo.getMinOuro() != minOuro || resumo.getMaxOuro() != maxOuro))) {
+            falhar("resumirRecompensas(" + de + ", " + ate + ") = " + resumo + ", esperado xp " + somaXp
+                    + " [" + minXp + ", " + maxXp + "], ouro " + somaOuro + " [" + minOuro + ", " + maxOuro + "]");
+        }
+    }
+
+    private void alternarLote() {
+        if (loteAberto) {
+            arvore.finalizarLote();
+        } else {
+            arvore.iniciarLote();
+        }
+        loteAberto = !loteAberto;
+    }
+
+    /**
+     * Altera o nível em um dos mapas da referência, anotando a alteração
+     * @param valor Novo valor (null remove o nível do mapa)
+     * @return Valor anterior
+     */
+    @SuppressWarnings("unchecked")
+    private <V> V gravar(Map<Integer, V> mapa, int nivel, V valor) {
+        V anterior = (valor != null) ? mapa.put(nivel, valor) : mapa.remove(nivel);
+        if (anterior != valor) {
+            naoRegistradas.add(new Alteracao((Map<Integer, Object>) mapa, nivel, anterior, valor));
+        }
+        return anterior;
+    }
+
+    /**
+     * Remove o nível da referência com peso, recompensa, adicionais e expiração
+     * @return true se o nível existia
+     */
+    private boolean removerNivel(int nivel) {
+        if (gravar(referencia, nivel, null) == null) {
+            return false;
+        }
+        expiracoes.remove(nivel);
+        gravar(pesos, nivel, null);
+        gravar(recompensas, nivel, null);
+        gravar(extras, nivel, null);
+        return true;
+    }
+
+    private static void aplicar(Alteracao alteracao, Object valor) {
+        if (valor != null) {
+            alteracao.mapa.put(alteracao.nivel, valor);
+        } else {
+            alteracao.mapa.remove(alteracao.nivel);
+        }
+    }
+
+    private void registrarVersao() {
+        historico.registrar("Operação " + operacao);
+        // Versões refazíveis deixam de existir; a mais antiga sai quando o histórico enche
+        diario.subList(marcas.get(versaoAtual), diario.size()).clear();
+        marcas.subList(versaoAtual + 1, marcas.size()).clear();
+        if (marcas.size() == CAPACIDADE_HISTORICO) {
+            int esquecidas = marcas.get(1);
+            diario.subList(0, esquecidas).clear();
+            marcas.remove(0);
+            for (int i = 0; i < marcas.size(); i++) {
+                marcas.set(i, marcas.get(i) - esquecidas);
+            }
+        }
+        diario.addAll(juntar(naoRegistradas));
+        naoRegistradas.clear();
+        marcas.add(diario.size());
+        versaoAtual = marcas.size() - 1;
+    }
+
+    /**
+     * Junta as alterações do mesmo nível em cada mapa (a primeira anterior e a
+     * última nova): percorrer uma versão custa um passo por nível alterado,
+     * não por operação
+     */
+    private static List<Alteracao> juntar(List<Alteracao> alteracoes) {
+        Map<Map<Integer, Object>, Map<Integer, Alteracao>> porMapa = new IdentityHashMap<>();
+        for (Alteracao alteracao : alteracoes) {
+            Map<Integer, Alteracao> doMapa = porMapa.computeIfAbsent(alteracao.mapa, m -> new HashMap<>());
+            Alteracao primeira = doMapa.get(alteracao.nivel);
+            doMapa.put(alteracao.nivel, (primeira == null) ? alteracao
+                    : new Alteracao(alteracao.mapa, alteracao.nivel, primeira.anterior, alteracao.nova));
+        }
+        List<Alteracao> juntas = new ArrayList<>();
+        for (Map<Integer, Alteracao> doMapa : porMapa.values()) {
+            for (Alteracao alteracao : doMapa.values()) {
+                if (alteracao.anterior != alteracao.nova) {
+                    juntas.add(alteracao);
+                }
+            }
+        }
+        return juntas;
+    }
+
+    private void desfazerOuRefazer() {
+        boolean desfazer = rng.nextBoolean();
+        if (desfazer) {
+            if (historico.desfazer() == null) {
+                if (versaoAtual != 0) {
+                    falhar("desfazer indisponível na versão " + versaoAtual);
+                }
+                return;
+            }
+        } else {
+            if (historico.refazer() == null) {
+                if (versaoAtual != marcas.size() - 1) {
+                    falhar("refazer indisponível na versão " + versaoAtual);
+                }
+                return;
+            }
+        }
+        // Volta à versão atual e percorre o diário até a versão vizinha
+        for (int i = naoRegistradas.size() - 1; i >= 0; i--) {
+            aplicar(naoRegistradas.get(i), naoRegistradas.get(i).anterior);
+        }
+        naoRegistradas.clear();
+        if (desfazer) {
+            for (int i = marcas.get(versaoAtual) - 1; i >= marcas.get(versaoAtual - 1); i--) {
+                aplicar(diario.get(i), diario.get(i).anterior);
+            }
+            versaoAtual--;
+        } else {
+            for (int i = marcas.get(versaoAtual); i < marcas.get(versaoAtual + 1); i++) {
+                aplicar(diario.get(i), diario.get(i).nova);
+            }
+            versaoAtual++;
+        }
+    }
+
+    /**
+     * Valida invariantes e compara o conteúdo completo com a referência e o espelho
+     */
+    private void verificarTudo() {
+        if (loteAberto) {
+            alternarLote();
+        }
+        arvore.validar();
+        long pesoTotal = 0;
+        for (Map.Entry<Integer, String> entrada : referencia.entrySet()) {
+            Node node = arvore.buscarNo(entrada.getKey());
+            if (node == null || !node.missao.equals(entrada.getValue())) {
+                falhar("conteúdo divergente no nível " + entrada.getKey());
+            }
+            int peso = pesos.getOrDefault(entrada.getKey(), 1);
+            if (node.peso != peso) {
+                falhar("peso " + node.peso + " no nível " + entrada.getKey() + ", esperado " + peso);
+            }
+            pesoTotal += peso;
+            int[] recompensa = recompensas.getOrDefault(entrada.getKey(), new int[2]);
+            int xp = ArvoreAVL.xp(node);
+            int ouro = ArvoreAVL.ouro(node);
+            if (xp != recompensa[0] || ouro != recompensa[1]) {
+                falhar("recompensa " + xp + "/" + ouro + " no nível " + entrada.getKey()
+                        + ", esperado " + recompensa[0] + "/" + recompensa[1]);
+            }
+        }
+        long totalMissoes = referencia.size();
+        for (List<String> adicionais : extras.values()) {
+            totalMissoes += adicionais.size();
+        }
+        if (arvore.getTotalMissoes() != totalMissoes) {
+            falhar("total de missões " + arvore.getTotalMissoes() + ", esperado " + totalMissoes);
+        }
+        for (Integer nivel : extras.keySet()) {
+            conferirNivel(nivel, arvore.buscarIds(nivel));
+        }
+        if (arvore.getPesoTotal() != pesoTotal) {
+            falhar("peso total " + arvore.getPesoTotal() + ", esperado " + pesoTotal);
+        }
+        if (arvore.getExpiracoesPendentes() != expiracoes.size()) {
+            falhar("expirações pendentes " + arvore.getExpiracoesPendentes() + ", esperado " + expiracoes.size());
+        }
+        for (Map.Entry<Integer, Long> entrada : expiracoes.entrySet()) {
+            if (arvore.getExpiracao(entrada.getKey()) != entrada.getValue()) {
+                falhar("expiração divergente no nível " + entrada.getKey());
+            }
+        }
+        if (!espelho.equals(referencia)) {
+            falhar("espelho dos eventos divergente (" + espelho.size() + " x " + referencia.size() + ")");
+        }
+        // Os eventos trazem só a descrição, não o id: as adicionais são comparadas sem a ordem
+        if (!espelhoExtras.keySet().equals(extras.keySet())) {
+            falhar("espelho das adicionais com " + espelhoExtras.size() + " níveis, esperado " + extras.size());
+        }
+        for (Map.Entry<Integer, List<String>> entrada : extras.entrySet()) {
+            List<String> esperadas = new ArrayList<>(entrada.getValue());
+            List<String> obtidas = new ArrayList<>(espelhoExtras.get(entrada.getKey()));
+            Collections.sort(esperadas);
+            Collections.sort(obtidas);
+            if (!obtidas.equals(esperadas)) {
+                falhar("espelho das adicionais do nível " + entrada.getKey() + " = " + obtidas + ", esperado " + esperadas);
+            }
+        }
+    }
+
+    /**
+     * Executa a quantidade pedida de operações
+     */
+    public void executar(long operacoes) {
+        for (operacao = 0; operacao < operacoes; operacao++) {
+            passo();
+            if (operacao % INTERVALO_VALIDACAO == 0) {
+                verificarTudo();
+            }
+        }
+        verificarTudo();
+    }
+
+    /**
+     * Metodo main - executa o teste diferencial
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long operacoes = (args.length > 0) ? Long.parseLong(args[0]) : 10_000_000L;
+        long semente = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+        int faixaChaves = (args.length > 2) ? Integer.parseInt(args[2]) : 10_000;
+        int execucoes = (args.length > 3) ? Integer.parseInt(args[3]) : 1;
+
+        System.out.println("Semente: " + semente + ((execucoes > 1) ? " a " + (semente + execucoes - 1) : "")
+                + " | Operações: " + operacoes + " | Chaves: 0-" + (faixaChaves - 1));
+        long inicio = System.nanoTime();
+        // Uma execução independente por semente, cada uma na sua thread
+        String[] falhas = new String[execucoes];
+        Thread[] threads = new Thread[execucoes];
+        for (int i = 0; i < execucoes; i++) {
+            int indice = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    new FuzzDiferencial(semente + indice, faixaChaves).executar(operacoes);
+                } catch (IllegalStateException e) {
+                    falhas[indice] = "semente " + (semente + indice) + ", " + e.getMessage();
+                }
+            }, "fuzz-" + i);
+            threads[i].start();
+        }
+        boolean falhou = false;
+        for (int i = 0; i < execucoes; i++) {
+            threads[i].join();
+            if (falhas[i] != null) {
+                System.out.println("✗ FALHA: " + falhas[i]);
+                falhou = true;
+            }
+        }
+        if (falhou) {
+            System.exit(1);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("✓ Nenhuma divergência | %.1f s | %.2f milhões de operações/s%n",
+                segundos, operacoes * execucoes / segundos / 1e6);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Execução curta do teste diferencial (execuções longas: FuzzDiferencial.main)
+ */
+class FuzzDiferencialTest {
+
+    @Test
+    void sementesFixasSemDivergencia() {
+        for (long semente = 1; semente <= 4; semente++) {
+            new FuzzDiferencial(semente, 2_000).executar(50_000);
+        }
+    }
+
+    @Test
+    void poucasChavesSemDivergencia() {
+        new FuzzDiferencial(7, 50).executar(100_000);
+    }
+}
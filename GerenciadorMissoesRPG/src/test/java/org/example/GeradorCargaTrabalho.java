@@ -0,0 +1,407 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador reprodutível de carga sintética para a árvore de missões.
+ *
+ * Produz uma sequência de operações (buscar/inserir/remover) com proporções
+ * configuráveis, distribuição de chaves (uniforme, Zipf, sequencial ou faixa
+ * quente) e distribuição do tamanho das descrições. A mesma semente gera
+ * sempre a mesma sequência. A carga pode ser aplicada diretamente a uma
+ * ArvoreAVL (medindo vazão e percentis de latência) ou gravada em um arquivo
+ * de trace que o front end de console reproduz (formato em ReprodutorTrace).
+ *
+ * Uso: mvn test-compile
+ *      java -cp target/classes:target/test-classes org.example.GeradorCargaTrabalho [chave=valor...]
+ */
+public class GeradorCargaTrabalho {
+
+    /**
+     * Distribuições de chaves
+     */
+    public enum Distribuicao {
+        UNIFORME,      // Todos os níveis igualmente prováveis
+        ZIPF,          // Poucos níveis muito acessados (os menores)
+        SEQUENCIAL,    // Níveis crescentes, voltando ao início no fim da faixa
+        FAIXA_QUENTE,  // A maior parte dos acessos em uma faixa estreita
+        RAJADAS        // Rajadas de níveis vizinhos a partir de um nível sorteado
+    }
+
+    /**
+     * Distribuições do tamanho das descrições
+     */
+    public enum TamanhoDescricao {
+        FIXO,       // Sempre o tamanho médio
+        UNIFORME,   // Entre 1 e 2x o tamanho médio
+        NORMAL      // Normal com o desvio configurado (mínimo 1)
+    }
+
+    private static final char[] ALFABETO =
+            "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ 0123456789 áéíóúçã".toCharArray();
+    private static final int TAMANHO_RAJADA = 64;   // Acessos por rajada (distribuição RAJADAS)
+
+    private final long semente;
+    private SplittableRandom rng;
+
+    // Mistura de operações (pesos relativos)
+    private int pesoBuscar = 80;
+    private int pesoInserir = 15;
+    private int pesoRemover = 5;
+
+    // Chaves
+    private Distribuicao distribuicao = Distribuicao.UNIFORME;
+    private int nivelMinimo = 1;
+    private int quantidadeNiveis = 100_000;
+    private double expoenteZipf = 0.99;
+    private double larguraFaixaQuente = 0.10;     // Fração da faixa de níveis
+    private double acessosFaixaQuente = 0.90;     // Fração dos acessos na faixa quente
+    private double[] acumuladaZipf;
+    private int proximoSequencial;
+    private int restanteRajada;
+
+    // Descrições
+    private TamanhoDescricao tamanhoDescricao = TamanhoDescricao.UNIFORME;
+    private int tamanhoMedio = 32;
+    private int desvioTamanho = 8;
+    private final char[] textoBase;
+
+    // Operação corrente
+    private ReprodutorTrace.Operacao tipo;
+    private int nivel;
+    private String descricao;
+
+    /**
+     * Construtor do gerador
+     * @param semente Semente para reprodutibilidade
+     */
+    public GeradorCargaTrabalho(long semente) {
+        this.semente = semente;
+        this.rng = new SplittableRandom(semente);
+        this.textoBase = new char[4096];
+        SplittableRandom texto = new SplittableRandom(semente ^ 0x5DEECE66DL);
+        for (int i = 0; i < textoBase.length; i++) {
+            textoBase[i] = ALFABETO[texto.nextInt(ALFABETO.length)];
+        }
+    }
+
+    /**
+     * Define os pesos relativos de cada operação (ex.: 80/15/5)
+     */
+    public void setMistura(int buscar, int inserir, int remover) {
+        if (buscar < 0 || inserir < 0 || remover < 0 || buscar + inserir + remover == 0) {
+            throw new IllegalArgumentException("Pesos devem ser não negativos e não todos zero");
+        }
+        this.pesoBuscar = buscar;
+        this.pesoInserir = inserir;
+        this.pesoRemover = remover;
+    }
+
+    /**
+     * Define a distribuição e a faixa de níveis [nivelMinimo, nivelMinimo + quantidadeNiveis)
+     */
+    public void setChaves(Distribuicao distribuicao, int nivelMinimo, int quantidadeNiveis) {
+        if (quantidadeNiveis < 1) {
+            throw new IllegalArgumentException("Quantidade de níveis deve ser positiva");
+        }
+        this.distribuicao = distribuicao;
+        this.nivelMinimo = nivelMinimo;
+        this.quantidadeNiveis = quantidadeNiveis;
+        this.acumuladaZipf = null;
+    }
+
+    public void setExpoenteZipf(double expoente) {
+        this.expoenteZipf = expoente;
+        this.acumuladaZipf = null;
+    }
+
+    /**
+     * Configura a faixa quente
+     * @param largura Fração da faixa de níveis que é quente (0-1)
+     * @param acessos Fração dos acessos que caem na faixa quente (0-1)
+     */
+    public void setFaixaQuente(double largura, double acessos) {
+        this.larguraFaixaQuente = largura;
+        this.acessosFaixaQuente = acessos;
+    }
+
+    /**
+     * Configura o tamanho das descrições geradas
+     */
+    public void setTamanhoDescricao(TamanhoDescricao tamanho, int medio, int desvio) {
+        if (medio < 1 || medio * 2 > textoBase.length) {
+            throw new IllegalArgumentException("Tamanho médio deve estar entre 1 e " + textoBase.length / 2);
+        }
+        this.tamanhoDescricao = tamanho;
+        this.tamanhoMedio = medio;
+        this.desvioTamanho = desvio;
+    }
+
+    /**
+     * Reinicia a sequência, que volta a ser idêntica à inicial
+     */
+    public void reiniciar() {
+        rng = new SplittableRandom(semente);
+        proximoSequencial = 0;
+        restanteRajada = 0;
+    }
+
+    /**
+     * Sorteia um nível conforme a distribuição configurada
+     */
+    private int sortearNivel() {
+        switch (distribuicao) {
+            case ZIPF:
+                return nivelMinimo + sortearZipf();
+            case SEQUENCIAL:
+                int deslocamento = proximoSequencial;
+                proximoSequencial = (proximoSequencial + 1) % quantidadeNiveis;
+                return nivelMinimo + deslocamento;
+            case FAIXA_QUENTE:
+                int largura = Math.max(1, (int) (quantidadeNiveis * larguraFaixaQuente));
+                int inicioQuente = (quantidadeNiveis - largura) / 2;
+                if (rng.nextDouble() < acessosFaixaQuente) {
+                    return nivelMinimo + inicioQuente + rng.nextInt(largura);
+                }
+                return nivelMinimo + rng.nextInt(quantidadeNiveis);
+            case RAJADAS:
+                // Cada rajada avança de 1 a 4 níveis por acesso
+                if (restanteRajada == 0) {
+                    restanteRajada = TAMANHO_RAJADA;
+                    proximoSequencial = rng.nextInt(quantidadeNiveis);
+                }
+                restanteRajada--;
+                proximoSequencial = (proximoSequencial + 1 + rng.nextInt(4)) % quantidadeNiveis;
+                return nivelMinimo + proximoSequencial;
+            default:
+                return nivelMinimo + rng.nextInt(quantidadeNiveis);
+        }
+    }
+
+    /**
+     * Sorteia um posto de Zipf por busca binária na distribuição acumulada
+     * (tabela calculada uma vez: 8 bytes por nível)
+     */
+    private int sortearZipf() {
+        if (acumuladaZipf == null) {
+            acumuladaZipf = new double[quantidadeNiveis];
+            double soma = 0;
+            for (int i = 0; i < quantidadeNiveis; i++) {
+                soma += 1.0 / Math.pow(i + 1, expoenteZipf);
+                acumuladaZipf[i] = soma;
+            }
+            for (int i = 0; i < quantidadeNiveis; i++) {
+                acumuladaZipf[i] /= soma;
+            }
+        }
+        double u = rng.nextDouble();
+        int baixo = 0;
+        int alto = quantidadeNiveis - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (acumuladaZipf[meio] < u) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private String gerarDescricao() {
+        int tamanho;
+        switch (tamanhoDescricao) {
+            case FIXO:
+                tamanho = tamanhoMedio;
+                break;
+            case NORMAL:
+                tamanho = (int) Math.round(tamanhoMedio + nextGaussian() * desvioTamanho);
+                break;
+            default:
+                tamanho = tamanhoMedio / 2 + rng.nextInt(tamanhoMedio + 1);
+        }
+        tamanho = Math.max(1, Math.min(tamanho, textoBase.length));
+        return new String(textoBase, rng.nextInt(textoBase.length - tamanho + 1), tamanho);
+    }
+
+    /**
+     * Normal padrão pelo método de Box-Muller (SplittableRandom não tem nextGaussian)
+     */
+    private double nextGaussian() {
+        double u1 = 1.0 - rng.nextDouble();
+        double u2 = rng.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    /**
+     * Gera a próxima operação, disponível em getTipo/getNivel/getDescricao
+     */
+    public void avancar() {
+        int sorteio = rng.nextInt(pesoBuscar + pesoInserir + pesoRemover);
+        nivel = sortearNivel();
+        if (sorteio < pesoBuscar) {
+            tipo = ReprodutorTrace.Operacao.BUSCAR;
+            descricao = null;
+        } else if (sorteio < pesoBuscar + pesoInserir) {
+            tipo = ReprodutorTrace.Operacao.INSERIR;
+            descricao = gerarDescricao();
+        } else {
+            tipo = ReprodutorTrace.Operacao.REMOVER;
+            descricao = null;
+        }
+    }
+
+    public ReprodutorTrace.Operacao getTipo() {
+        return tipo;
+    }
+
+    public int getNivel() {
+        return nivel;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Popula a árvore com missões em níveis sorteados pela distribuição configurada
+     * @param quantidade Número de inserções
+     */
+    public void popular(ArvoreAVL arvore, int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            arvore.inserir(sortearNivel(), gerarDescricao());
+        }
+    }
+
+    /**
+     * Executa a carga diretamente na árvore, medindo cada operação
+     * @param operacoes Número de operações
+     * @return Vazão e latências por tipo de operação
+     */
+    public ReprodutorTrace.ResultadoCarga executar(ArvoreAVL arvore, long operacoes) {
+        ReprodutorTrace.ResultadoCarga resultado = new ReprodutorTrace.ResultadoCarga();
+        long inicio = System.nanoTime();
+        for (long i = 0; i < operacoes; i++) {
+            avancar();
+            long antes = System.nanoTime();
+            ReprodutorTrace.aplicar(arvore, tipo, nivel, descricao);
+            resultado.registrar(tipo, System.nanoTime() - antes);
+        }
+        resultado.duracaoNanos = System.nanoTime() - inicio;
+        return resultado;
+    }
+
+    /**
+     * Grava a carga em um arquivo de trace
+     * @param arquivo Destino do trace
+     * @param operacoes Número de operações
+     */
+    public void gravarTrace(Path arquivo, long operacoes) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < operacoes; i++) {
+                avancar();
+                switch (tipo) {
+                    case BUSCAR:
+                        writer.write("B ");
+                        writer.write(Integer.toString(nivel));
+                        break;
+                    case INSERIR:
+                        writer.write("I ");
+                        writer.write(Integer.toString(nivel));
+                        writer.write(' ');
+                        writer.write(descricao);
+                        break;
+                    case REMOVER:
+                        writer.write("R ");
+                        writer.write(Integer.toString(nivel));
+                        break;
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Metodo main - gera carga em memória ou grava um trace.
+     * Parâmetros no formato chave=valor:
+     *   operacoes=1000000 semente=42 mistura=80/15/5 distribuicao=ZIPF
+     *   niveis=100000 popular=50000 descricao=UNIFORME tamanho=32 trace=arquivo.txt
+     */
+    public static void main(String[] args) throws IOException {
+        long operacoes = 1_000_000;
+        long semente = 42;
+        int popular = 50_000;
+        String trace = null;
+        int[] mistura = {80, 15, 5};
+        Distribuicao distribuicao = Distribuicao.UNIFORME;
+        int niveis = 100_000;
+        TamanhoDescricao tamanho = TamanhoDescricao.UNIFORME;
+        int tamanhoMedio = 32;
+
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                System.out.println("Parâmetro inválido: " + arg);
+                return;
+            }
+            String chave = arg.substring(0, igual);
+            String valor = arg.substring(igual + 1);
+            switch (chave) {
+                case "operacoes":
+                    operacoes = Long.parseLong(valor);
+                    break;
+                case "semente":
+                    semente = Long.parseLong(valor);
+                    break;
+                case "popular":
+                    popular = Integer.parseInt(valor);
+                    break;
+                case "trace":
+                    trace = valor;
+                    break;
+                case "mistura":
+                    String[] partes = valor.split("/");
+                    mistura = new int[]{Integer.parseInt(partes[0]), Integer.parseInt(partes[1]), Integer.parseInt(partes[2])};
+                    break;
+                case "distribuicao":
+                    distribuicao = Distribuicao.valueOf(valor.toUpperCase());
+                    break;
+                case "niveis":
+                    niveis = Integer.parseInt(valor);
+                    break;
+                case "descricao":
+                    tamanho = TamanhoDescricao.valueOf(valor.toUpperCase());
+                    break;
+                case "tamanho":
+                    tamanhoMedio = Integer.parseInt(valor);
+                    break;
+                default:
+                    System.out.println("Parâmetro desconhecido: " + chave);
+                    return;
+            }
+        }
+
+        GeradorCargaTrabalho gerador = new GeradorCargaTrabalho(semente);
+        gerador.setMistura(mistura[0], mistura[1], mistura[2]);
+        gerador.setChaves(distribuicao, 1, niveis);
+        gerador.setTamanhoDescricao(tamanho, tamanhoMedio, Math.max(1, tamanhoMedio / 4));
+
+        if (trace != null) {
+            gerador.gravarTrace(Paths.get(trace), operacoes);
+            System.out.println("✓ Trace com " + operacoes + " operações gravado em " + trace);
+            return;
+        }
+
+        ArvoreAVL arvore = new ArvoreAVL();
+        gerador.popular(arvore, popular);
+        System.out.println("Distribuição: " + distribuicao + " | Mistura: " + mistura[0] + "/" + mistura[1] + "/"
+                + mistura[2] + " | Missões iniciais: " + arvore.getTotalMissoes());
+        System.out.print(gerador.executar(arvore, operacoes));
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Replicação: o seguidor recebe a cópia inicial e as alterações do primário
+ */
+@Timeout(30)
+class ReplicacaoTest {
+
+    @Test
+    void seguidorConvergeParaOPrimario() throws Exception {
+        ArvoreAVL arvore = new ArvoreAVL();
+        for (int nivel = 1; nivel <= 1_000; nivel++) {
+            arvore.inserir(nivel, "Missão " + nivel);
+        }
+
+        try (ReplicacaoPrimaria primaria = new ReplicacaoPrimaria(arvore, 0);
+             SeguidorReplicacao seguidor = new SeguidorReplicacao("127.0.0.1", primaria.getPorta())) {
+            assertTrue(seguidor.aguardarLsn(primaria.getUltimoLsn(), 10_000));
+            assertEquals(primaria.assinatura(), seguidor.assinatura());
+
+            SplittableRandom rng = new SplittableRandom(42);
+            for (int i = 0; i < 5_000; i++) {
+                int nivel = 1 + rng.nextInt(2_000);
+                if (rng.nextInt(10) < 7) {
+                    arvore.inserir(nivel, "Nova " + i);
+                } else {
+                    arvore.remover(nivel);
+                }
+            }
+            arvore.remover(7);
+            arvore.inserir(3_000, "Última");
+
+            assertTrue(seguidor.aguardarLsn(primaria.getUltimoLsn(), 10_000));
+            assertEquals(primaria.assinatura(), seguidor.assinatura());
+            assertEquals(arvore.getTotalMissoes(), seguidor.getTotalMissoes());
+            assertEquals(arvore.buscar(3_000), seguidor.buscar(3_000));
+            assertNull(seguidor.buscar(7));
+            assertEquals(arvore.listarEmOrdem(), seguidor.listarEmOrdem());
+        }
+    }
+}